@@ -0,0 +1,77 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.db.dataplatform.techtest.Constant.DUMMY_DATA;
+
+final class BenchmarkData {
+
+    static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static final int INSERT_BATCH = 5_000;
+    // clear of the ids the sequences hand out to the application's own writes
+    private static final long FIRST_ID = 10_000_000L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Inserts {@code rows} headers and bodies straight through JDBC, bypassing the application. All bodies share
+     * one content row.
+     */
+    static void insertDataBodies(JdbcTemplate jdbcTemplate, BlockTypeEnum blockType, int rows) {
+        Timestamp now = Timestamp.from(Instant.now());
+        DataBodyEntity encoded = new DataBodyEntity();
+        encoded.setDataBody(DUMMY_DATA);
+        byte[] checksum = HexEncoder.decode("cecfd3953783df706878aaec2c22aa70");
+        List<Object[]> headers = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> bodies = new ArrayList<>(INSERT_BATCH);
+        jdbcTemplate.update("insert into DATA_BODY_CONTENT (CONTENT_KEY, BODY_CODEC, DATA_BODY, REF_COUNT, CREATED_TIMESTAMP) "
+                + "values (?, ?, ?, ?, ?)", encoded.getContentKey(), encoded.getBodyCodec().getCode(), encoded.getEncodedBody(), rows, now);
+        for (long id = FIRST_ID; id < FIRST_ID + rows; id++) {
+            headers.add(new Object[]{id, "BENCH-" + id, blockType.name(), now});
+            bodies.add(new Object[]{id, id, encoded.getContentKey(), checksum, now});
+            if (headers.size() == INSERT_BATCH || id == FIRST_ID + rows - 1) {
+                jdbcTemplate.batchUpdate("insert into DATA_HEADER (DATA_HEADER_ID, NAME, BLOCKTYPE, CREATED_TIMESTAMP) "
+                        + "values (?, ?, ?, ?)", headers);
+                jdbcTemplate.batchUpdate("insert into DATA_STORE (DATA_STORE_ID, DATA_HEADER_ID, CONTENT_KEY, CHECKSUM, "
+                        + "CREATED_TIMESTAMP) values (?, ?, ?, ?, ?)", bodies);
+                headers.clear();
+                bodies.clear();
+            }
+        }
+    }
+
+    /**
+     * A repetitive quote record of about 750 characters.
+     */
+    static String jsonRecord(String instrument) {
+        StringBuilder record = new StringBuilder("{\"instrument\":\"").append(instrument).append("\",\"quotes\":[");
+        for (int i = 0; i < 12; i++) {
+            record.append(i == 0 ? "" : ",")
+                    .append("{\"venue\":\"XLON\",\"bid\":")
+                    .append(101.25 + i)
+                    .append(",\"ask\":")
+                    .append(101.5 + i)
+                    .append(",\"currency\":\"GBP\"}");
+        }
+        return record.append("]}").toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.component.impl.BlockTypeResultCache;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a full block type read of {@code rows} bodies through {@link Server}. {@code cold} drops the cached
+ * result first so every call queries H2 and serializes, {@code warm} is answered from {@link BlockTypeResultCache}.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=BlockTypeResultCacheBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockTypeResultCacheBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private Server server;
+    private BlockTypeResultCache blockTypeResultCache;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TechTestApplication.class).run();
+        server = context.getBean(Server.class);
+        blockTypeResultCache = context.getBean(BlockTypeResultCache.class);
+
+        BenchmarkData.insertDataBodies(context.getBean(JdbcTemplate.class), BlockTypeEnum.BLOCKTYPEB, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long cold() throws Exception {
+        blockTypeResultCache.invalidate(BlockTypeEnum.BLOCKTYPEB);
+        return server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEB, BenchmarkData.DISCARD);
+    }
+
+    @Benchmark
+    public long warm() throws Exception {
+        return server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEB, BenchmarkData.DISCARD);
+    }
+}
@@ -0,0 +1,109 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.api.model.DataBody;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stored size and batch write of {@code rows} envelopes whose bodies cycle through {@code distinct} quote records
+ * of about 750 characters, so every body is shared by {@code rows / distinct} envelopes. The stored body and key
+ * bytes are printed once per trial.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=BodyDedupBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BodyDedupBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"100", "20000"})
+    private int distinct;
+
+    @Param({"20000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private Server server;
+    private String[] bodies;
+    private String[] checksums;
+    private final AtomicLong names = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TechTestApplication.class)
+                .properties("dataserver.read.cache-enabled=false",
+                        "dataserver.ingest.duplicate-filter-enabled=false",
+                        "datalake.outbox-poll-interval-millis=3600000",
+                        "logging.level.com.db.dataplatform.techtest=WARN")
+                .run();
+        server = context.getBean(Server.class);
+        bodies = new String[distinct];
+        checksums = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            bodies[i] = BenchmarkData.jsonRecord("INSTRUMENT-" + i);
+            checksums[i] = ChecksumAlgorithm.MD5.checksum(bodies[i]);
+        }
+
+        for (int i = 0; i < rows; i += BATCH) {
+            server.saveDataEnvelopes(batch(), ChecksumAlgorithm.MD5);
+        }
+        Map<String, Object> footprint = context.getBean(JdbcTemplate.class).queryForMap(
+                "select (select count(*) from DATA_STORE) ROWS, (select count(*) from DATA_BODY_CONTENT) BODIES, "
+                        + "(select sum(length(DATA_BODY)) from DATA_BODY_CONTENT) BODY_BYTES, "
+                        + "(select sum(length(CONTENT_KEY)) from DATA_STORE) + (select sum(length(CONTENT_KEY)) from DATA_BODY_CONTENT) KEY_BYTES");
+        System.out.println("Stored " + distinct + " distinct bodies: " + footprint);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<PushDataResult> write() {
+        return server.saveDataEnvelopes(batch(), ChecksumAlgorithm.MD5);
+    }
+
+    private List<DataEnvelope> batch() {
+        List<DataEnvelope> envelopes = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            long name = names.incrementAndGet();
+            int body = (int) (name % distinct);
+            envelopes.add(new DataEnvelope(new DataHeader("DEDUP-" + name, BlockTypeEnum.BLOCKTYPEA),
+                    new DataBody(bodies[body], checksums[body])));
+        }
+        return envelopes;
+    }
+}
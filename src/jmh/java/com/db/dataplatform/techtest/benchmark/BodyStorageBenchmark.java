@@ -0,0 +1,136 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.api.model.DataBody;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static com.db.dataplatform.techtest.Constant.DUMMY_DATA;
+
+/**
+ * Stored size, batch write and full block type read of {@code rows} bodies. {@code dummy} is the 73 character
+ * random body the client sends, {@code json} a repetitive record of about 750 characters. The stored length of the
+ * body content each row refers to and of the checksum column, in bytes for binary columns, is printed once per
+ * trial for the database engine; the rows all share one content row. {@code SEGMENTS} stores the bodies in mapped
+ * segment files instead, where the codec does not apply.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=BodyStorageBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BodyStorageBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"dummy", "json"})
+    private String payload;
+
+    @Param({"NONE", "DEFLATE"})
+    private String bodyCodec;
+
+    @Param({"DATABASE", "SEGMENTS"})
+    private String engine;
+
+    @Param({"20000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private Path segmentDirectory;
+    private Server server;
+    private String body;
+    private String checksum;
+    private final AtomicLong names = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        segmentDirectory = Files.createTempDirectory("segments");
+        context = new SpringApplicationBuilder(TechTestApplication.class)
+                .properties("dataserver.read.cache-enabled=false",
+                        "dataserver.ingest.duplicate-filter-enabled=false",
+                        "dataserver.ingest.body-codec=" + bodyCodec,
+                        "dataserver.storage.engine=" + engine,
+                        "dataserver.storage.segment-directory=" + segmentDirectory,
+                        "datalake.outbox-poll-interval-millis=3600000",
+                        "logging.level.com.db.dataplatform.techtest=WARN")
+                .run();
+        server = context.getBean(Server.class);
+        body = "json".equals(payload) ? BenchmarkData.jsonRecord("TSLA-USDGBP-10Y") : DUMMY_DATA;
+        checksum = ChecksumAlgorithm.MD5.checksum(body);
+
+        for (int i = 0; i < rows; i += BATCH) {
+            server.saveDataEnvelopes(batch(BlockTypeEnum.BLOCKTYPEB), ChecksumAlgorithm.MD5);
+        }
+        if (!"DATABASE".equals(engine)) {
+            return;
+        }
+        Map<String, Object> footprint = context.getBean(JdbcTemplate.class).queryForMap(
+                "select count(*) ROWS, sum(length(c.DATA_BODY)) BODY_LENGTH, sum(length(b.CHECKSUM)) CHECKSUM_LENGTH "
+                        + "from DATA_STORE b join DATA_HEADER h on h.DATA_HEADER_ID = b.DATA_HEADER_ID "
+                        + "join DATA_BODY_CONTENT c on c.CONTENT_KEY = b.CONTENT_KEY where h.BLOCKTYPE = 'BLOCKTYPEB'");
+        System.out.println("Stored " + payload + " bodies with " + bodyCodec + ": " + footprint);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(segmentDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<PushDataResult> write() {
+        return server.saveDataEnvelopes(batch(BlockTypeEnum.BLOCKTYPEA), ChecksumAlgorithm.MD5);
+    }
+
+    @Benchmark
+    public long read() throws Exception {
+        return server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEB, BenchmarkData.DISCARD);
+    }
+
+    private List<DataEnvelope> batch(BlockTypeEnum blockType) {
+        List<DataEnvelope> envelopes = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            envelopes.add(new DataEnvelope(new DataHeader("BODY-" + names.incrementAndGet(), blockType),
+                    new DataBody(body, checksum)));
+        }
+        return envelopes;
+    }
+}
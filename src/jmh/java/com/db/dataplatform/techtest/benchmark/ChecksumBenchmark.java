@@ -0,0 +1,74 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original per request MD5 implementation of ServerImpl with the checksum algorithms.
+ * Run with {@code ./gradlew jmh}, add {@code -Pjmh.includes=ChecksumBenchmark} to run only this class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    @Param({"73", "1000", "65536"})
+    private int payloadLength;
+
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(payloadLength);
+        for (int i = 0; i < payloadLength; i++) {
+            builder.append((char) ('0' + random.nextInt(75)));
+        }
+        payload = builder.toString();
+    }
+
+    @Benchmark
+    public String legacyMd5() throws NoSuchAlgorithmException {
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update(payload.getBytes());
+        byte[] digest = md5.digest();
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    @Benchmark
+    public String md5() {
+        return ChecksumAlgorithm.MD5.checksum(payload);
+    }
+
+    @Benchmark
+    public String crc32c() {
+        return ChecksumAlgorithm.CRC32C.checksum(payload);
+    }
+
+    @Benchmark
+    public String xxHash64() {
+        return ChecksumAlgorithm.XXHASH64.checksum(payload);
+    }
+}
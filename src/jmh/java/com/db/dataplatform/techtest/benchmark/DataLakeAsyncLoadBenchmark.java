@@ -0,0 +1,134 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeConcurrencyLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.db.dataplatform.techtest.Constant.DUMMY_DATA;
+
+/**
+ * Fires {@code pushes} concurrent Server.pushDataToDataLakeAsync calls at the local HadoopDummyServerController,
+ * which holds each request for 2-4 seconds, and samples the JVM while they are in flight. Each invocation prints
+ * the peak number of concurrent pushes and the thread count before and during the run, without the embedded
+ * Tomcat's request threads, which serve the dummy controller rather than the client. The concurrency limiter and circuit breaker are opened
+ * up so every push is sent, the dummy controller times out about half of them.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=DataLakeAsyncLoadBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 2)
+@Fork(1)
+public class DataLakeAsyncLoadBenchmark {
+
+    private static final String SERVER_THREAD_PREFIX = "http-nio-";
+
+    @Param({"500", "2000"})
+    private int pushes;
+
+    private ConfigurableApplicationContext context;
+    private Server server;
+    private DataLakeConcurrencyLimiter limiter;
+
+    private volatile boolean sampling;
+    private Thread sampler;
+    private int baselineClientThreads;
+    private int peakClientThreads;
+    private int peakConcurrentPushes;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TechTestApplication.class)
+                .properties("datalake.limiter-initial-limit=" + 2 * pushes,
+                        "datalake.limiter-max-limit=" + 2 * pushes,
+                        "datalake.limiter-backoff-ratio=1.0",
+                        "datalake.limiter-latency-threshold-millis=600000",
+                        "datalake.breaker-minimum-calls=" + Integer.MAX_VALUE)
+                .run();
+        server = context.getBean(Server.class);
+        limiter = context.getBean(DataLakeConcurrencyLimiter.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void startSampling() {
+        baselineClientThreads = clientThreads();
+        peakClientThreads = 0;
+        peakConcurrentPushes = 0;
+        sampling = true;
+        sampler = new Thread(() -> {
+            while (sampling) {
+                peakClientThreads = Math.max(peakClientThreads, clientThreads());
+                peakConcurrentPushes = Math.max(peakConcurrentPushes, limiter.getInFlight());
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "load-sampler");
+        sampler.start();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopSampling() throws InterruptedException {
+        sampling = false;
+        sampler.join();
+        System.out.printf("peak concurrent pushes: %d, client threads before: %d, peak client threads: %d%n",
+                peakConcurrentPushes, baselineClientThreads, peakClientThreads);
+    }
+
+    @Benchmark
+    public int push() {
+        List<CompletableFuture<String>> futures = new ArrayList<>(pushes);
+        for (int i = 0; i < pushes; i++) {
+            futures.add(server.pushDataToDataLakeAsync(DUMMY_DATA));
+        }
+        int delivered = 0;
+        for (CompletableFuture<String> future : futures) {
+            if (future.join() != null) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    private static int clientThreads() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int clientThreads = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && !info.getThreadName().startsWith(SERVER_THREAD_PREFIX)) {
+                clientThreads++;
+            }
+        }
+        return clientThreads;
+    }
+}
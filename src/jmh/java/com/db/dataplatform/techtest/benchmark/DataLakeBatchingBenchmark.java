@@ -0,0 +1,88 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.component.HadoopClient;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeBatcher;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.db.dataplatform.techtest.Constant.DUMMY_DATA;
+
+/**
+ * Pushes {@value #RECORDS} records through {@link DataLakeBatcher} to the local HadoopDummyServerController at
+ * several batch sizes and reports the time until every record is acknowledged; batch size 1 is the record per
+ * request behaviour. The dummy server sleeps 2-4 seconds per request and times out half of them, retries are
+ * disabled so failed uploads count as completed records.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=DataLakeBatchingBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 2)
+@Fork(1)
+public class DataLakeBatchingBenchmark {
+
+    private static final int RECORDS = 160;
+
+    @Param({"1", "10", "40", "160"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService uploadExecutor;
+    private DataLakeBatcher batcher;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TechTestApplication.class)
+                .properties("datalake.limiter-initial-limit=" + RECORDS)
+                .run();
+
+        DataLakeProperties dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBatchMaxRecords(batchSize);
+        uploadExecutor = Executors.newFixedThreadPool(RECORDS);
+        batcher = new DataLakeBatcher(context.getBean(HadoopClient.class), uploadExecutor,
+                dataLakeProperties, context.getBean(ObjectMapper.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        batcher.destroy();
+        uploadExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public int push() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            futures.add(batcher.submit("BENCH-" + i, DUMMY_DATA));
+        }
+        int delivered = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            delivered += future.handle((attempts, e) -> e == null ? 1 : 0).join();
+        }
+        return delivered;
+    }
+}
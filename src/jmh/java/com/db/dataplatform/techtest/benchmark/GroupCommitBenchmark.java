@@ -0,0 +1,79 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.api.model.DataBody;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.db.dataplatform.techtest.Constant.DUMMY_DATA;
+
+/**
+ * Single envelope pushes from 32 concurrent callers, each committed on its own or through group commit. The
+ * outbox relay is parked so only the ingest transactions compete for H2.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=GroupCommitBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    @Param({"2"})
+    private long lingerMillis;
+
+    private ConfigurableApplicationContext context;
+    private Server server;
+    private String checksum;
+    private final AtomicLong names = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TechTestApplication.class)
+                .properties("dataserver.ingest.group-commit-enabled=" + groupCommit,
+                        "dataserver.ingest.group-commit-max-linger-millis=" + lingerMillis,
+                        "datalake.outbox-poll-interval-millis=3600000",
+                        "logging.level.com.db.dataplatform.techtest=WARN")
+                .run();
+        server = context.getBean(Server.class);
+        checksum = ChecksumAlgorithm.MD5.checksum(DUMMY_DATA);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean push() {
+        DataEnvelope envelope = new DataEnvelope(new DataHeader("GROUP-" + names.incrementAndGet(), BlockTypeEnum.BLOCKTYPEA),
+                new DataBody(DUMMY_DATA, checksum));
+        return server.saveDataEnvelope(envelope, ChecksumAlgorithm.MD5);
+    }
+}
@@ -0,0 +1,96 @@
+package com.db.dataplatform.techtest.benchmark;
+
+import com.db.dataplatform.techtest.TechTestApplication;
+import com.db.dataplatform.techtest.server.api.model.DataBody;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads every BLOCKTYPEA envelope out of a table of {@code rows} bodies. {@code entityPath} is the read path
+ * before projections: managed entities with their eager headers in a read-write transaction, mapped field by
+ * field (without the two INFO lines it used to log per row). {@code projectionPath} and {@code projectionStream}
+ * go through {@link Server}.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ProjectionReadBenchmark}, port 8090 must be free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProjectionReadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private Server server;
+    private DataStoreRepository dataStoreRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TechTestApplication.class)
+                .properties("dataserver.read.cache-enabled=false")
+                .run();
+        server = context.getBean(Server.class);
+        dataStoreRepository = context.getBean(DataStoreRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        BenchmarkData.insertDataBodies(context.getBean(JdbcTemplate.class), BlockTypeEnum.BLOCKTYPEA, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<DataEnvelope> entityPath() {
+        return transactionTemplate.execute(status -> {
+            List<DataBodyEntity> dataBodyEntities = dataStoreRepository.findByDataHeaderEntity_Blocktype(BlockTypeEnum.BLOCKTYPEA);
+            List<DataEnvelope> dataEnvelopes = new ArrayList<>(dataBodyEntities.size());
+            for (DataBodyEntity dataBodyEntity : dataBodyEntities) {
+                DataHeader dataHeader = new DataHeader(dataBodyEntity.getDataHeaderEntity().getName(),
+                        dataBodyEntity.getDataHeaderEntity().getBlocktype());
+                DataBody dataBody = new DataBody(dataBodyEntity.getDataBody(), dataBodyEntity.getChecksum());
+                dataEnvelopes.add(new DataEnvelope(dataHeader, dataBody));
+            }
+            return dataEnvelopes;
+        });
+    }
+
+    @Benchmark
+    public List<DataEnvelope> projectionPath() throws Exception {
+        return server.getDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEA);
+    }
+
+    @Benchmark
+    public long projectionStream() throws Exception {
+        return server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEA, BenchmarkData.DISCARD);
+    }
+}
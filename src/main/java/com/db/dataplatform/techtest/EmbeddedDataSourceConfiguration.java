@@ -5,6 +5,8 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -14,27 +16,51 @@ import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
 
 @Configuration
 @EnableJpaRepositories("com.db.dataplatform.techtest")
 public class EmbeddedDataSourceConfiguration {
 
     public static final String DATA_SOURCE = "dataSource";
-    public static final String CLASSPATH_DB_MIGRATION_SETUP_SQL = "classpath:db.migration/setup.sql";
+    public static final String CLASSPATH_DB_MIGRATION = "classpath:db.migration/";
+    public static final String DB_MIGRATION_PATTERN = "V*__*.sql";
     public static final String PACKAGE_MODEL = "com.db.dataplatform.techtest.server.persistence.model";
 
     @Bean(name = DATA_SOURCE)
-    DataSource dataSource() {
+    DataSource dataSource() throws IOException {
         HikariConfig hikariConfig = new HikariConfig();
         hikariConfig.setDataSource(new EmbeddedDatabaseBuilder()
                 .setType(EmbeddedDatabaseType.H2)
-                .addScript(CLASSPATH_DB_MIGRATION_SETUP_SQL)
+                .addScripts(migrationScripts())
                 .setName(DATA_SOURCE)
                 .build());
 
         return new HikariDataSource(hikariConfig);
     }
 
+    /**
+     * The versioned migrations, {@code V<version>__<description>.sql}, in version order. The database is created
+     * in memory at startup, so every migration runs once per start.
+     */
+    public static String[] migrationScripts() throws IOException {
+        Resource[] migrations = new PathMatchingResourcePatternResolver().getResources(CLASSPATH_DB_MIGRATION + DB_MIGRATION_PATTERN);
+        Arrays.sort(migrations, Comparator.comparingLong(EmbeddedDataSourceConfiguration::migrationVersion));
+
+        String[] scripts = new String[migrations.length];
+        for (int i = 0; i < migrations.length; i++) {
+            scripts[i] = CLASSPATH_DB_MIGRATION + migrations[i].getFilename();
+        }
+        return scripts;
+    }
+
+    private static long migrationVersion(Resource migration) {
+        String filename = migration.getFilename();
+        return Long.parseLong(filename.substring(1, filename.indexOf("__")));
+    }
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory(EntityManagerFactoryBuilder builder, DataSource dataSource) {
         return builder
@@ -1,5 +1,6 @@
 package com.db.dataplatform.techtest.server.api;
 
+import com.db.dataplatform.techtest.server.exception.AdmissionRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,11 +10,14 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.validation.ConstraintViolationException;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class RestResponseEntityExceptionHandler
         extends ResponseEntityExceptionHandler {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
 
     @ExceptionHandler(value = {ConstraintViolationException.class})
     protected ResponseEntity<Object> handleConflict(Exception ex, WebRequest request) {
@@ -23,4 +27,22 @@ public class RestResponseEntityExceptionHandler
         return handleExceptionInternal(ex, bodyOfResponse,
                 new HttpHeaders(), HttpStatus.CONFLICT, request);
     }
+
+    @ExceptionHandler(value = {RejectedExecutionException.class})
+    protected ResponseEntity<Object> handleOverload(Exception ex, WebRequest request) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return handleExceptionInternal(ex, "Server is busy, retry later",
+                headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
+    @ExceptionHandler(value = {AdmissionRejectedException.class})
+    protected ResponseEntity<Object> handleShed(AdmissionRejectedException ex, WebRequest request) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        return handleExceptionInternal(ex, ex.getMessage(), headers,
+                ex.isRateLimited() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
 }
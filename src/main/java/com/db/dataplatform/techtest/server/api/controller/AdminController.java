@@ -0,0 +1,84 @@
+package com.db.dataplatform.techtest.server.api.controller;
+
+import com.db.dataplatform.techtest.server.api.model.AdmissionLimits;
+import com.db.dataplatform.techtest.server.api.model.DataLakeOutboxEntry;
+import com.db.dataplatform.techtest.server.api.model.DataLakeStatus;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeCircuitBreaker;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeConcurrencyLimiter;
+import com.db.dataplatform.techtest.server.component.impl.IngestAdmission;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Controller
+@RequestMapping("/dataserver/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final DataLakeOutboxService dataLakeOutboxService;
+    private final DataLakeCircuitBreaker dataLakeCircuitBreaker;
+    private final DataLakeConcurrencyLimiter dataLakeConcurrencyLimiter;
+    private final IngestAdmission ingestAdmission;
+
+    @GetMapping(value = "/datalake", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DataLakeStatus> getDataLakeStatus() {
+
+        return ResponseEntity.ok(new DataLakeStatus(dataLakeCircuitBreaker.getState().name(),
+                dataLakeCircuitBreaker.getFailureRate(), dataLakeCircuitBreaker.getRejected(),
+                dataLakeConcurrencyLimiter.getLimit(), dataLakeConcurrencyLimiter.getInFlight(),
+                dataLakeConcurrencyLimiter.getRejected()));
+    }
+
+    @GetMapping(value = "/outbox/deadletter", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<DataLakeOutboxEntry>> getDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+
+        List<DataLakeOutboxEntry> deadLetters = dataLakeOutboxService.getDeadLetters(limit).stream()
+                .map(entry -> new DataLakeOutboxEntry(entry.getOutboxId(), entry.getName(), entry.getAttempts(),
+                        entry.getLastError(), entry.getCreatedTimestamp()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(deadLetters);
+    }
+
+    @PostMapping(value = "/outbox/replay", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Integer> replayDeadLetters() {
+
+        int replayed = dataLakeOutboxService.replayDeadLetters();
+        log.info("Replaying {} data lake dead letters", replayed);
+        return ResponseEntity.ok(replayed);
+    }
+
+    @PostMapping(value = "/outbox/{id}/replay", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Boolean> replayDeadLetter(@PathVariable Long id) {
+
+        boolean replayed = dataLakeOutboxService.replayDeadLetter(id);
+        log.info("Replay of data lake dead letter {}: {}", id, replayed);
+        return ResponseEntity.ok(replayed);
+    }
+
+    @GetMapping(value = "/admission", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AdmissionLimits> getAdmissionLimits() {
+
+        return ResponseEntity.ok(ingestAdmission.getLimits());
+    }
+
+    /**
+     * Replaces the push admission limits; they apply to the next push and are lost on restart.
+     */
+    @PutMapping(value = "/admission", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AdmissionLimits> updateAdmissionLimits(@Valid @RequestBody AdmissionLimits limits) {
+
+        ingestAdmission.setLimits(limits);
+        log.info("Push admission limits changed, rate: {}/s, burst: {}, max in flight: {}, producer rates: {}",
+                limits.getRatePerSecond(), limits.getBurst(), limits.getMaxInFlight(), limits.getProducerRates());
+        return ResponseEntity.ok(ingestAdmission.getLimits());
+    }
+}
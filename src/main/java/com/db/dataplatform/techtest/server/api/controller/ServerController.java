@@ -1,22 +1,43 @@
 package com.db.dataplatform.techtest.server.api.controller;
 
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdate;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdateSummary;
 import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelopePage;
+import com.db.dataplatform.techtest.server.api.model.IngestSummary;
+import com.db.dataplatform.techtest.server.api.model.IngestTicket;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.api.model.Watermark;
+import com.db.dataplatform.techtest.server.api.model.WriteMode;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
 import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.component.impl.DataEnvelopeStream;
+import com.db.dataplatform.techtest.server.component.impl.IngestAdmission;
+import com.db.dataplatform.techtest.server.component.impl.RequestExecutors;
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.security.NoSuchAlgorithmException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Slf4j
 @Controller
@@ -25,48 +46,222 @@ import java.util.concurrent.CompletableFuture;
 @Validated
 public class ServerController {
 
+    public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    public static final String HEADER_NEXT_WATERMARK = "X-Next-Watermark";
+    public static final String HEADER_LAST_EVENT_ID = "Last-Event-ID";
+
     private final Server server;
+    private final RequestExecutors requestExecutors;
+    private final IngestAdmission ingestAdmission;
+    private final DataEnvelopeStream dataEnvelopeStream;
 
     @PostMapping(value = "/pushdata", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Boolean> pushData(@Valid @RequestBody DataEnvelope dataEnvelope) throws IOException, NoSuchAlgorithmException {
+    public CompletableFuture<ResponseEntity<Boolean>> pushData(@Valid @RequestBody DataEnvelope dataEnvelope,
+                                                               @RequestHeader(value = ChecksumAlgorithm.HEADER, defaultValue = "MD5") ChecksumAlgorithm checksumAlgorithm,
+                                                               @RequestHeader(value = WriteMode.HEADER, defaultValue = "INSERT") WriteMode writeMode,
+                                                               @RequestHeader(value = IngestAdmission.PRODUCER_HEADER, required = false) String producer) {
 
         log.info("Data envelope received: {}", dataEnvelope.getDataHeader().getName());
-        boolean checksumPass = server.saveDataEnvelope(dataEnvelope);
-        if(!checksumPass)
-            throw new ConstraintViolationException("Constraint Violation",null);
-        CompletableFuture<String> future = server.pushDataToDataLakeAsync(dataEnvelope.getDataBody().getDataBody());
-        if(future!=null){
-        future.thenAccept(response -> {
-            if (response != null) {
-                System.out.println("Data push was successful. Response: " + response);
-            } else {
-                System.out.println("Data push failed or encountered an error.");
-            }
-        });}
-        log.info("Data envelope persisted. Attribute name: {}", dataEnvelope.getDataHeader().getName());
-        return ResponseEntity.ok(checksumPass);
+        return admitted(Collections.singletonMap(IngestAdmission.producer(producer, dataEnvelope.getDataHeader().getName()), 1), () -> requestExecutors.write("pushData", () -> {
+            boolean checksumPass = writeMode == WriteMode.UPSERT
+                    ? server.upsertDataEnvelope(dataEnvelope, checksumAlgorithm)
+                    : server.saveDataEnvelope(dataEnvelope, checksumAlgorithm);
+            if(!checksumPass)
+                throw new ConstraintViolationException("Constraint Violation",null);
+            log.info("Data envelope persisted. Attribute name: {}", dataEnvelope.getDataHeader().getName());
+            return ResponseEntity.ok(checksumPass);
+        }));
+    }
+
+    /**
+     * Answers 202 with a tracking id once the checksum is verified; the envelope is written in the background and
+     * its progress is polled at the returned location.
+     */
+    @PostMapping(value = "/pushdata/async", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestTicket> pushDataAsync(@Valid @RequestBody DataEnvelope dataEnvelope,
+                                                      @RequestHeader(value = ChecksumAlgorithm.HEADER, defaultValue = "MD5") ChecksumAlgorithm checksumAlgorithm,
+                                                      @RequestHeader(value = IngestAdmission.PRODUCER_HEADER, required = false) String producer) {
+
+        ingestAdmission.admit(IngestAdmission.producer(producer, dataEnvelope.getDataHeader().getName()), 1);
+        IngestTicket ticket;
+        try {
+            ticket = server.saveDataEnvelopeAsync(dataEnvelope, checksumAlgorithm);
+        } finally {
+            ingestAdmission.release();
+        }
+        if (ticket == null)
+            throw new ConstraintViolationException("Constraint Violation", null);
+        log.info("Data envelope queued. Attribute name: {}, tracking id: {}", ticket.getName(), ticket.getId());
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/dataserver/status/{id}")
+                .buildAndExpand(ticket.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(ticket);
+    }
+
+    @GetMapping(value = "/status/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestTicket> getIngestStatus(@PathVariable String id) {
+        return ResponseEntity.of(server.getIngestTicket(id));
+    }
+
+    /**
+     * Status of several tracking ids at once; ids that are unknown or no longer tracked are left out.
+     */
+    @GetMapping(value = "/status", params = "ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<IngestTicket>> getIngestStatuses(@RequestParam List<String> ids) {
+        return ResponseEntity.ok(server.getIngestTickets(ids));
+    }
+
+    @PostMapping(value = "/pushdata/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<PushDataResult>>> pushDataBatch(@Valid @RequestBody List<@Valid DataEnvelope> dataEnvelopes,
+                                                                                 @RequestHeader(value = ChecksumAlgorithm.HEADER, defaultValue = "MD5") ChecksumAlgorithm checksumAlgorithm,
+                                                                                 @RequestHeader(value = WriteMode.HEADER, defaultValue = "INSERT") WriteMode writeMode,
+                                                                                 @RequestHeader(value = IngestAdmission.PRODUCER_HEADER, required = false) String producer) {
+
+        log.info("Data envelope batch received, size: {}, write mode: {}", dataEnvelopes.size(), writeMode);
+        return admitted(IngestAdmission.producers(producer, dataEnvelopes), () -> requestExecutors.write("pushDataBatch", () -> {
+            List<PushDataResult> results = writeMode == WriteMode.UPSERT
+                    ? server.upsertDataEnvelopes(dataEnvelopes, checksumAlgorithm)
+                    : server.saveDataEnvelopes(dataEnvelopes, checksumAlgorithm);
+            return ResponseEntity.ok(results);
+        }));
     }
 
-    @GetMapping(value = "/data/{blockType}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<DataEnvelope>> getData(@PathVariable BlockTypeEnum blockType) throws IOException, NoSuchAlgorithmException {
+    /**
+     * Each chunk of the stream is admitted on its own, see {@link Server#saveDataEnvelopeStream}.
+     */
+    @PostMapping(value = "/pushdata/stream", consumes = {MEDIA_TYPE_NDJSON, MediaType.APPLICATION_STREAM_JSON_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestSummary> pushDataStream(InputStream ndjson,
+                                                        @RequestHeader(value = ChecksumAlgorithm.HEADER, defaultValue = "MD5") ChecksumAlgorithm checksumAlgorithm,
+                                                        @RequestHeader(value = IngestAdmission.PRODUCER_HEADER, required = false) String producer) throws IOException {
+
+        log.info("Data envelope stream received");
+        IngestSummary summary = server.saveDataEnvelopeStream(ndjson, checksumAlgorithm, producer);
+        log.info("Data envelope stream finished, accepted: {}, rejected: {}", summary.getAccepted(), summary.getRejected());
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Streams every envelope of the block type as one JSON array. The body is written by a read worker, which
+     * Spring MVC runs as an async request, see {@link com.db.dataplatform.techtest.server.configuration.WebConfiguration}.
+     */
+    @GetMapping(value = "/data/{blockType}", params = {"!after", "!limit", "!from", "!to", "!since"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getData(@PathVariable BlockTypeEnum blockType) {
 
         log.info(" BlockType received: {}", blockType);
-        //boolean checksumPass = server.saveDataEnvelope(dataEnvelope);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    long written = server.writeDataEnvelopesByBlockType(blockType, out);
+                    log.info("Number of data envelopes which matched block type:{} are: {}", blockType, written);
+                });
+    }
 
-        List<DataEnvelope> dataEnvelopes = server.getDataEnvelopesByBlockType(blockType);
-        log.info("Number of data envelopes which matched block type:{} are: {}", blockType, dataEnvelopes.size());
-        return ResponseEntity.ok(dataEnvelopes);
+    /**
+     * Keyset pagination over the envelopes of the block type, in insertion order. The cursor of the next page is
+     * returned in the {@value #HEADER_NEXT_CURSOR} header, which is absent on the last page.
+     */
+    @GetMapping(value = "/data/{blockType}", params = {"!from", "!to", "!since"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<DataEnvelope>>> getDataPage(@PathVariable BlockTypeEnum blockType,
+                                                                             @RequestParam(required = false) Long after,
+                                                                             @RequestParam(required = false) Integer limit) {
+
+        log.info(" BlockType received: {}, after: {}, limit: {}", blockType, after, limit);
+        return requestExecutors.read("getDataPage", () -> {
+            DataEnvelopePage page = server.getDataEnvelopePageByBlockType(blockType, after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(HEADER_NEXT_CURSOR, page.getNextCursor().toString());
+            }
+            return response.body(page.getDataEnvelopes());
+        });
+    }
+
+    /**
+     * Envelopes created at or after {@code from} and before {@code to}, ISO-8601 instants, in created timestamp
+     * order. For incremental polls pass the {@value #HEADER_NEXT_WATERMARK} of the previous response as
+     * {@code since}, {@code 0} on the first; a page shorter than {@code limit} means the poll has caught up.
+     */
+    @GetMapping(value = "/data/{blockType}", params = "!after", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<DataEnvelope>>> getDataByCreated(@PathVariable BlockTypeEnum blockType,
+                                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                                  @RequestParam(required = false) Watermark since,
+                                                                                  @RequestParam(required = false) Integer limit) {
+
+        log.info(" BlockType received: {}, from: {}, to: {}, since: {}, limit: {}", blockType, from, to, since, limit);
+        return requestExecutors.read("getDataByCreated", () -> {
+            DataEnvelopePage page = server.getDataEnvelopePageByCreated(blockType, from, to, since, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextWatermark() != null) {
+                response.header(HEADER_NEXT_WATERMARK, page.getNextWatermark().toString());
+            }
+            return response.body(page.getDataEnvelopes());
+        });
+    }
+
+    /**
+     * Server-Sent Events of the envelopes saved to, or moved into, the block type once they are committed. A client
+     * reconnecting with the id of the last event it received is sent the ones it missed, or a
+     * {@value DataEnvelopeStream#EVENT_RESET} event if they are no longer known.
+     */
+    @GetMapping(value = "/stream/{blockType}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamData(@PathVariable BlockTypeEnum blockType,
+                                 @RequestHeader(value = HEADER_LAST_EVENT_ID, required = false) String lastEventId) {
+
+        log.info("Stream subscription received, block type: {}, last event id: {}", blockType, lastEventId);
+        return dataEnvelopeStream.subscribe(blockType, lastEventId);
     }
 
     @PatchMapping(value = "/update/{name}/{newBlockType}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Boolean> updateData(@PathVariable String name, @PathVariable String newBlockType) {
+    public CompletableFuture<ResponseEntity<Boolean>> updateData(@PathVariable String name, @PathVariable String newBlockType) {
 
         log.info(" newBlockType and name received: {} :{}", newBlockType, name);
 
-        Boolean updateDone = server.updateDataEnvelope(name, newBlockType);
-        log.info("updateDone for block Name :{} , is : {}", name, updateDone);
-        return ResponseEntity.ok(updateDone);
+        return requestExecutors.write("updateData", () -> {
+            Boolean updateDone = server.updateDataEnvelope(name, newBlockType);
+            log.info("updateDone for block Name :{} , is : {}", name, updateDone);
+            return ResponseEntity.ok(updateDone);
+        });
+    }
+
+    @DeleteMapping(value = "/delete/{name}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<Boolean>> deleteData(@PathVariable String name) {
+
+        log.info("Delete received for block Name :{}", name);
+
+        return requestExecutors.write("deleteData", () -> {
+            Boolean deleted = server.deleteDataEnvelope(name);
+            log.info("delete for block Name :{} , is : {}", name, deleted);
+            return ResponseEntity.ok(deleted);
+        });
     }
 
+    /**
+     * Moves every envelope listed by name, or whose name starts with the prefix, to the block type at once.
+     */
+    @PatchMapping(value = "/update", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<BlockTypeUpdateSummary>> updateDataBlockTypes(@Valid @RequestBody BlockTypeUpdate update) {
+
+        return requestExecutors.write("updateDataBlockTypes", () -> {
+            BlockTypeUpdateSummary summary = server.updateDataEnvelopes(update);
+            log.info("Bulk block type update to {} changed {} envelopes", update.getBlockType(), summary.getUpdated());
+            return ResponseEntity.ok(summary);
+        });
+    }
 
+    /**
+     * Runs the push once admission control lets it in, keeping its in-flight slot until the response is ready. A
+     * batch without {@value IngestAdmission#PRODUCER_HEADER} charges each name prefix for its own envelopes.
+     */
+    private <T> CompletableFuture<T> admitted(Map<String, Integer> envelopesByProducer, Supplier<CompletableFuture<T>> push) {
+        ingestAdmission.admit(envelopesByProducer);
+        try {
+            return push.get().whenComplete((result, failure) -> ingestAdmission.release());
+        } catch (RuntimeException e) {
+            ingestAdmission.release();
+            throw e;
+        }
+    }
 }
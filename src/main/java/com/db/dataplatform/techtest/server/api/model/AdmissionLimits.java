@@ -0,0 +1,37 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.Map;
+
+/**
+ * Push admission limits; a rate or in-flight cap of 0 means no limit.
+ */
+@JsonSerialize(as = AdmissionLimits.class)
+@JsonDeserialize(as = AdmissionLimits.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class AdmissionLimits {
+
+    @PositiveOrZero
+    private double ratePerSecond;
+
+    @DecimalMin("1")
+    private double burst;
+
+    @PositiveOrZero
+    private int maxInFlight;
+
+    /**
+     * Rates of producers that do not get the default one.
+     */
+    private Map<@NotNull String, @NotNull @PositiveOrZero Double> producerRates;
+}
@@ -0,0 +1,40 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@JsonSerialize(as = BlockTypeUpdate.class)
+@JsonDeserialize(as = BlockTypeUpdate.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class BlockTypeUpdate {
+
+    private List<@NotBlank String> names;
+
+    private String namePrefix;
+
+    @NotNull
+    private BlockTypeEnum blockType;
+
+    @JsonIgnore
+    @AssertTrue(message = "exactly one of names or namePrefix is required")
+    public boolean isSelectionValid() {
+        return isByNames() != (namePrefix != null && !namePrefix.isEmpty());
+    }
+
+    @JsonIgnore
+    public boolean isByNames() {
+        return names != null && !names.isEmpty();
+    }
+}
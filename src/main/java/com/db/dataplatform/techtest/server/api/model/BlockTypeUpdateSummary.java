@@ -0,0 +1,17 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@JsonSerialize(as = BlockTypeUpdateSummary.class)
+@JsonDeserialize(as = BlockTypeUpdateSummary.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class BlockTypeUpdateSummary {
+
+    private long updated;
+}
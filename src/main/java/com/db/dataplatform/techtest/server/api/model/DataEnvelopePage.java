@@ -0,0 +1,26 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One keyset page of envelopes. {@code nextCursor} is passed back as {@code after} to read the next page and is
+ * null on the last page. Reads by created timestamp return {@code nextWatermark} instead, passed back as
+ * {@code since}.
+ */
+@AllArgsConstructor
+@Getter
+public class DataEnvelopePage {
+
+    private List<DataEnvelope> dataEnvelopes;
+
+    private Long nextCursor;
+
+    private Watermark nextWatermark;
+
+    public DataEnvelopePage(List<DataEnvelope> dataEnvelopes, Long nextCursor) {
+        this(dataEnvelopes, nextCursor, null);
+    }
+}
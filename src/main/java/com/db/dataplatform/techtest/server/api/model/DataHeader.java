@@ -8,6 +8,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 
 @JsonSerialize(as = DataHeader.class)
 @JsonDeserialize(as = DataHeader.class)
@@ -17,6 +18,7 @@ import javax.validation.constraints.NotBlank;
 public class DataHeader {
 
     @NotBlank
+    @Size(max = 30)
     private String name;
 
     private BlockTypeEnum blockType;
@@ -0,0 +1,27 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@JsonSerialize(as = DataLakeOutboxEntry.class)
+@JsonDeserialize(as = DataLakeOutboxEntry.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class DataLakeOutboxEntry {
+
+    private Long id;
+
+    private String name;
+
+    private int attempts;
+
+    private String lastError;
+
+    private Instant createdTimestamp;
+}
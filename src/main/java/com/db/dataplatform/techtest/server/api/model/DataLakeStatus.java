@@ -0,0 +1,27 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@JsonSerialize(as = DataLakeStatus.class)
+@JsonDeserialize(as = DataLakeStatus.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class DataLakeStatus {
+
+    private String breakerState;
+
+    private double failureRate;
+
+    private long breakerRejected;
+
+    private int concurrencyLimit;
+
+    private int inFlight;
+
+    private long limiterRejected;
+}
@@ -0,0 +1,8 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+public enum IngestStatus {
+    QUEUED,
+    PERSISTED,
+    PUSHED,
+    FAILED
+}
@@ -0,0 +1,19 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@JsonSerialize(as = IngestSummary.class)
+@JsonDeserialize(as = IngestSummary.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class IngestSummary {
+
+    private long accepted;
+
+    private long rejected;
+}
@@ -0,0 +1,31 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an envelope accepted for asynchronous ingest.
+ */
+@JsonSerialize(as = IngestTicket.class)
+@JsonDeserialize(as = IngestTicket.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class IngestTicket {
+
+    private String id;
+
+    private String name;
+
+    private IngestStatus status;
+
+    /**
+     * Why the envelope failed, absent otherwise.
+     */
+    private String reason;
+}
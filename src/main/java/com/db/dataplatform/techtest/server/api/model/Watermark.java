@@ -0,0 +1,37 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Position in the created timestamp order of envelopes, written {@code <epoch micros>-<id>}. The id breaks ties
+ * between envelopes created in the same microsecond; a bare timestamp means before every envelope created then.
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@Getter
+public class Watermark {
+
+    private final Instant createdTimestamp;
+
+    private final long dataStoreId;
+
+    /**
+     * Used by Spring to convert the {@code since} request parameter.
+     */
+    public static Watermark valueOf(String watermark) {
+        int separator = watermark.indexOf('-', 1);
+        long micros = Long.parseLong(separator < 0 ? watermark : watermark.substring(0, separator));
+        long dataStoreId = separator < 0 ? 0 : Long.parseLong(watermark.substring(separator + 1));
+        return new Watermark(Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000),
+                dataStoreId);
+    }
+
+    @Override
+    public String toString() {
+        return (createdTimestamp.getEpochSecond() * 1_000_000 + createdTimestamp.getNano() / 1_000) + "-" + dataStoreId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.db.dataplatform.techtest.server.api.model;
+
+/**
+ * How pushed envelopes are written, selected per request with the {@link #HEADER} header. INSERT, the default,
+ * rejects a name that already exists; UPSERT replaces the stored envelope and skips it when the stored checksum
+ * and block type already match.
+ */
+public enum WriteMode {
+    INSERT,
+    UPSERT;
+
+    public static final String HEADER = "X-Write-Mode";
+}
@@ -0,0 +1,29 @@
+package com.db.dataplatform.techtest.server.checksum;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checksum algorithms a producer can select per request with the {@link #HEADER} header. MD5 remains the default
+ * for existing clients.
+ */
+public enum ChecksumAlgorithm {
+    MD5(new Md5ChecksumFunction()),
+    CRC32C(new Crc32cChecksumFunction()),
+    XXHASH64(new XxHash64ChecksumFunction());
+
+    public static final String HEADER = "X-Checksum-Algorithm";
+
+    private final ChecksumFunction checksumFunction;
+
+    ChecksumAlgorithm(ChecksumFunction checksumFunction) {
+        this.checksumFunction = checksumFunction;
+    }
+
+    public String checksum(String data) {
+        return checksumFunction.checksum(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String checksum(byte[] data) {
+        return checksumFunction.checksum(data);
+    }
+}
@@ -0,0 +1,9 @@
+package com.db.dataplatform.techtest.server.checksum;
+
+/**
+ * Computes the lower case hex checksum of a payload. Implementations must be thread safe.
+ */
+public interface ChecksumFunction {
+
+    String checksum(byte[] data);
+}
@@ -0,0 +1,51 @@
+package com.db.dataplatform.techtest.server.checksum;
+
+/**
+ * CRC-32C (Castagnoli), slicing-by-8. Implemented here because java.util.zip.CRC32C is not available on Java 8.
+ */
+public class Crc32cChecksumFunction implements ChecksumFunction {
+
+    private static final int POLYNOMIAL = 0x82F63B78;
+    private static final int[][] TABLES = new int[8][256];
+
+    static {
+        for (int n = 0; n < 256; n++) {
+            int crc = n;
+            for (int k = 0; k < 8; k++) {
+                crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+            }
+            TABLES[0][n] = crc;
+        }
+        for (int n = 0; n < 256; n++) {
+            for (int t = 1; t < 8; t++) {
+                TABLES[t][n] = (TABLES[t - 1][n] >>> 8) ^ TABLES[0][TABLES[t - 1][n] & 0xFF];
+            }
+        }
+    }
+
+    @Override
+    public String checksum(byte[] data) {
+        return HexEncoder.encode(crc32c(data));
+    }
+
+    public static int crc32c(byte[] data) {
+        int crc = 0xFFFFFFFF;
+        int i = 0;
+        int end8 = data.length & ~7;
+        for (; i < end8; i += 8) {
+            int low = crc ^ ((data[i] & 0xFF) | (data[i + 1] & 0xFF) << 8 | (data[i + 2] & 0xFF) << 16 | (data[i + 3] & 0xFF) << 24);
+            crc = TABLES[7][low & 0xFF]
+                    ^ TABLES[6][(low >>> 8) & 0xFF]
+                    ^ TABLES[5][(low >>> 16) & 0xFF]
+                    ^ TABLES[4][low >>> 24]
+                    ^ TABLES[3][data[i + 4] & 0xFF]
+                    ^ TABLES[2][data[i + 5] & 0xFF]
+                    ^ TABLES[1][data[i + 6] & 0xFF]
+                    ^ TABLES[0][data[i + 7] & 0xFF];
+        }
+        for (; i < data.length; i++) {
+            crc = (crc >>> 8) ^ TABLES[0][(crc ^ data[i]) & 0xFF];
+        }
+        return ~crc;
+    }
+}
@@ -0,0 +1,62 @@
+package com.db.dataplatform.techtest.server.checksum;
+
+/**
+ * Table based lower case hex encoding that writes straight into a char array instead of formatting every byte.
+ */
+public final class HexEncoder {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private HexEncoder() {
+    }
+
+    public static String encode(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xFF;
+            hex[j++] = HEX_DIGITS[b >>> 4];
+            hex[j++] = HEX_DIGITS[b & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    public static String encode(int value) {
+        char[] hex = new char[8];
+        for (int i = 7; i >= 0; i--) {
+            hex[i] = HEX_DIGITS[value & 0x0F];
+            value >>>= 4;
+        }
+        return new String(hex);
+    }
+
+    public static String encode(long value) {
+        char[] hex = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            hex[i] = HEX_DIGITS[(int) (value & 0x0F)];
+            value >>>= 4;
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code hex} has an odd length or a character that is not a hex digit.
+     */
+    public static byte[] decode(String hex) {
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Odd length hex: " + hex);
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (digit(hex, 2 * i) << 4 | digit(hex, 2 * i + 1));
+        }
+        return bytes;
+    }
+
+    private static int digit(String hex, int index) {
+        int digit = Character.digit(hex.charAt(index), 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Not a hex digit at " + index + ": " + hex);
+        }
+        return digit;
+    }
+}
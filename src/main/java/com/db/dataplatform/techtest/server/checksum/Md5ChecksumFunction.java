@@ -0,0 +1,26 @@
+package com.db.dataplatform.techtest.server.checksum;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * MD5 as produced by existing clients. Digests are expensive to look up through the provider framework, so one
+ * instance is kept per thread and reset after use.
+ */
+public class Md5ChecksumFunction implements ChecksumFunction {
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported by this JVM", e);
+        }
+    });
+
+    @Override
+    public String checksum(byte[] data) {
+        MessageDigest md5 = MD5.get();
+        md5.reset();
+        return HexEncoder.encode(md5.digest(data));
+    }
+}
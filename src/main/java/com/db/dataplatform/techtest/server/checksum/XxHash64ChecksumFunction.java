@@ -0,0 +1,101 @@
+package com.db.dataplatform.techtest.server.checksum;
+
+/**
+ * XXH64 with seed 0. A fast non-cryptographic 64 bit hash for producers that only need corruption detection.
+ */
+public class XxHash64ChecksumFunction implements ChecksumFunction {
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    @Override
+    public String checksum(byte[] data) {
+        return HexEncoder.encode(xxHash64(data, 0L));
+    }
+
+    public static long xxHash64(byte[] data, long seed) {
+        int length = data.length;
+        int i = 0;
+        long hash;
+
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            int limit = length - 32;
+            do {
+                v1 = round(v1, readLong(data, i));
+                v2 = round(v2, readLong(data, i + 8));
+                v3 = round(v3, readLong(data, i + 16));
+                v4 = round(v4, readLong(data, i + 24));
+                i += 32;
+            } while (i <= limit);
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME64_5;
+        }
+
+        hash += length;
+
+        while (i + 8 <= length) {
+            hash ^= round(0, readLong(data, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+            i += 8;
+        }
+        if (i + 4 <= length) {
+            hash ^= (readInt(data, i) & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+            i += 4;
+        }
+        while (i < length) {
+            hash ^= (data[i] & 0xFF) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+            i++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    private static long readLong(byte[] data, int i) {
+        return (data[i] & 0xFFL)
+                | (data[i + 1] & 0xFFL) << 8
+                | (data[i + 2] & 0xFFL) << 16
+                | (data[i + 3] & 0xFFL) << 24
+                | (data[i + 4] & 0xFFL) << 32
+                | (data[i + 5] & 0xFFL) << 40
+                | (data[i + 6] & 0xFFL) << 48
+                | (data[i + 7] & 0xFFL) << 56;
+    }
+
+    private static int readInt(byte[] data, int i) {
+        return (data[i] & 0xFF)
+                | (data[i + 1] & 0xFF) << 8
+                | (data[i + 2] & 0xFF) << 16
+                | (data[i + 3] & 0xFF) << 24;
+    }
+}
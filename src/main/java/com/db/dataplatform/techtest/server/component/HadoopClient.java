@@ -0,0 +1,21 @@
+package com.db.dataplatform.techtest.server.component;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface HadoopClient {
+
+    /**
+     * @param payload
+     * @return the data lake response body, completes exceptionally with a
+     * {@link com.db.dataplatform.techtest.server.exception.HadoopClientException} if the push failed.
+     */
+    CompletableFuture<String> pushBigDataAsync(String payload);
+
+    /**
+     * Uploads several records in one request.
+     *
+     * @param ndjson newline delimited records, see {@link com.db.dataplatform.techtest.server.component.impl.DataLakeBatcher}.
+     * @param gzipped whether ndjson is gzip compressed.
+     */
+    CompletableFuture<String> pushBigDataBatchAsync(byte[] ndjson, boolean gzipped);
+}
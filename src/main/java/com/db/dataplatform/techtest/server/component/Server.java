@@ -1,20 +1,77 @@
 package com.db.dataplatform.techtest.server.component;
 
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdate;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdateSummary;
 import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelopePage;
+import com.db.dataplatform.techtest.server.api.model.IngestSummary;
+import com.db.dataplatform.techtest.server.api.model.IngestTicket;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.api.model.Watermark;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.exception.AdmissionRejectedException;
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 public interface Server {
     boolean saveDataEnvelope(DataEnvelope envelope) throws IOException, NoSuchAlgorithmException;
 
+    boolean saveDataEnvelope(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm);
+
+    List<PushDataResult> saveDataEnvelopes(List<DataEnvelope> envelopes, ChecksumAlgorithm checksumAlgorithm);
+
+    boolean upsertDataEnvelope(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm);
+
+    List<PushDataResult> upsertDataEnvelopes(List<DataEnvelope> envelopes, ChecksumAlgorithm checksumAlgorithm);
+
+    /**
+     * @return the tracking ticket of the queued envelope, or null if the checksum does not match.
+     */
+    IngestTicket saveDataEnvelopeAsync(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm);
+
+    Optional<IngestTicket> getIngestTicket(String id);
+
+    /**
+     * @return the tickets of the known ids, in request order; unknown ids are left out.
+     */
+    List<IngestTicket> getIngestTickets(List<String> ids);
+
+    /**
+     * @param producer the X-Producer-Id header, null if not sent.
+     * @throws AdmissionRejectedException if a chunk is refused by admission control; the chunks before it stay
+     *                                    committed, and resending them is answered as duplicates.
+     */
+    IngestSummary saveDataEnvelopeStream(InputStream ndjson, ChecksumAlgorithm checksumAlgorithm, String producer) throws IOException;
+
     List<DataEnvelope> getDataEnvelopesByBlockType(BlockTypeEnum blockTypeEnum) throws IOException, NoSuchAlgorithmException;
 
+    DataEnvelopePage getDataEnvelopePageByBlockType(BlockTypeEnum blockTypeEnum, Long after, Integer limit);
+
+    /**
+     * Envelopes of the block type by created timestamp, for time ranges and incremental polls.
+     */
+    DataEnvelopePage getDataEnvelopePageByCreated(BlockTypeEnum blockTypeEnum, Instant from, Instant to, Watermark since,
+                                                  Integer limit);
+
+    long writeDataEnvelopesByBlockType(BlockTypeEnum blockTypeEnum, OutputStream out) throws IOException;
+
     boolean updateDataEnvelope(String blockName, String newBlockType);
 
+    BlockTypeUpdateSummary updateDataEnvelopes(BlockTypeUpdate update);
+
+    /**
+     * @return false if no envelope of this name is stored.
+     */
+    boolean deleteDataEnvelope(String blockName);
+
 
     CompletableFuture<String> pushDataToDataLakeAsync(String payload);
 }
@@ -0,0 +1,147 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.ReadProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serialized JSON of full block type reads, bounded by entry count and total bytes with least recently used
+ * eviction. A committed write to a block type drops its entry and bumps its generation; a result read before
+ * that commit carries the old generation and is refused by {@link #put}, so a slow reader cannot cache stale data.
+ */
+@Component
+public class BlockTypeResultCache {
+
+    private final ReadProperties readProperties;
+
+    private final LinkedHashMap<BlockTypeEnum, CachedResult> results = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<BlockTypeEnum, Long> generations = new EnumMap<>(BlockTypeEnum.class);
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+    private long invalidations;
+
+    public BlockTypeResultCache(ReadProperties readProperties) {
+        this.readProperties = readProperties;
+    }
+
+    public boolean isEnabled() {
+        return readProperties.isCacheEnabled();
+    }
+
+    /**
+     * @return the cached result, or null on a miss.
+     */
+    public synchronized CachedResult get(BlockTypeEnum blockType) {
+        CachedResult result = results.get(blockType);
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * Must be read before querying the result later handed to {@link #put}.
+     */
+    public synchronized long generation(BlockTypeEnum blockType) {
+        return generations.getOrDefault(blockType, 0L);
+    }
+
+    /**
+     * @return false if the result is too large or the block type was written since {@code generation}.
+     */
+    public synchronized boolean put(BlockTypeEnum blockType, long generation, byte[] json, long count) {
+        if (generation != generation(blockType) || json.length > readProperties.getCacheMaxEntryBytes()
+                || json.length > readProperties.getCacheMaxBytes() || readProperties.getCacheMaxEntries() < 1) {
+            return false;
+        }
+        remove(blockType);
+        results.put(blockType, new CachedResult(json, count));
+        weight += json.length;
+        puts++;
+
+        Iterator<CachedResult> eldest = results.values().iterator();
+        while (results.size() > readProperties.getCacheMaxEntries() || weight > readProperties.getCacheMaxBytes()) {
+            weight -= eldest.next().getJson().length;
+            eldest.remove();
+            evictions++;
+        }
+        return true;
+    }
+
+    public synchronized void invalidate(BlockTypeEnum blockType) {
+        generations.merge(blockType, 1L, Long::sum);
+        if (remove(blockType)) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Runs after the writing transaction commits, or straight away for a write outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataBodyChanged(DataBodyChangedEvent event) {
+        for (BlockTypeEnum blockType : event.getBlockTypes()) {
+            invalidate(blockType);
+        }
+    }
+
+    private boolean remove(BlockTypeEnum blockType) {
+        CachedResult removed = results.remove(blockType);
+        if (removed == null) {
+            return false;
+        }
+        weight -= removed.getJson().length;
+        return true;
+    }
+
+    public synchronized int getSize() {
+        return results.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getPuts() {
+        return puts;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    public static class CachedResult {
+
+        private final byte[] json;
+        private final long count;
+    }
+}
@@ -0,0 +1,327 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.api.model.DataBody;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.configuration.StreamConfiguration;
+import com.db.dataplatform.techtest.server.configuration.StreamProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed of the envelopes committed to each block type. A subscription is an async request, so an
+ * idle subscriber holds no thread; events are written by the stream executor, with at most one task per subscriber
+ * that has something to send. A subscriber whose buffer fills up is disconnected instead of holding up the writers
+ * or the other subscribers.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, the epoch being when this server started. A subscriber resuming with
+ * {@code Last-Event-ID} is sent what it missed from a bounded history per block type. If that is gone, or the id is
+ * from before a restart, it is sent a {@value #EVENT_RESET} event and should read the block type again. A
+ * {@value #EVENT_RESET} event is also sent, live and on replay, to a block type that loses envelopes without
+ * being sent them, i.e. on deletes, purges and block type updates moving envelopes away from it.
+ */
+@Component
+@Slf4j
+public class DataEnvelopeStream {
+
+    public static final String EVENT_ENVELOPE = "envelope";
+    public static final String EVENT_RESET = "reset";
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(0, null, null, null);
+
+    private final StreamProperties streamProperties;
+    private final ObjectMapper objectMapper;
+    private final Executor streamExecutor;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<BlockTypeEnum, Channel> channels = new EnumMap<>(BlockTypeEnum.class);
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public DataEnvelopeStream(StreamProperties streamProperties, ObjectMapper objectMapper,
+                              @Qualifier(StreamConfiguration.STREAM_EXECUTOR) Executor streamExecutor) {
+        this.streamProperties = streamProperties;
+        this.objectMapper = objectMapper;
+        this.streamExecutor = streamExecutor;
+        for (BlockTypeEnum blockType : BlockTypeEnum.values()) {
+            channels.put(blockType, new Channel(blockType));
+        }
+    }
+
+    /**
+     * @param lastEventId id of the last event the client received, null on its first subscription.
+     * @throws RejectedExecutionException if {@link StreamProperties#getMaxSubscribers()} are already subscribed.
+     */
+    public SseEmitter subscribe(BlockTypeEnum blockType, String lastEventId) {
+        if (subscribers.incrementAndGet() > streamProperties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new RejectedExecutionException("Stream subscriber limit reached");
+        }
+        SseEmitter emitter = new SseEmitter(streamProperties.getTimeoutMillis());
+        Subscriber subscriber = new Subscriber(channels.get(blockType), emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(failure -> subscriber.close());
+        channels.get(blockType).subscribe(subscriber, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Runs on the committing thread; it only serializes the envelopes and queues them for the subscribers. A block
+     * type of the change none of its envelopes belong to lost envelopes, to a delete or a move, and is sent a
+     * {@value #EVENT_RESET} event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDataBodyChanged(DataBodyChangedEvent event) {
+        Set<BlockTypeEnum> reset = EnumSet.noneOf(BlockTypeEnum.class);
+        reset.addAll(event.getBlockTypes());
+        for (DataBodyProjection dataBody : event.getDataBodies()) {
+            reset.remove(dataBody.getBlockType());
+        }
+        for (BlockTypeEnum blockType : reset) {
+            Channel channel = channels.get(blockType);
+            if (streamProperties.getReplayEvents() > 0 || !channel.subscribers.isEmpty()) {
+                channel.publish(EVENT_RESET, blockType.name());
+                events.incrementAndGet();
+            }
+        }
+        for (DataBodyProjection dataBody : event.getDataBodies()) {
+            Channel channel = channels.get(dataBody.getBlockType());
+            if (streamProperties.getReplayEvents() < 1 && channel.subscribers.isEmpty()) {
+                continue;
+            }
+            DataEnvelope envelope = new DataEnvelope(new DataHeader(dataBody.getName(), dataBody.getBlockType()),
+                    new DataBody(dataBody.getDataBody(), dataBody.getChecksum()));
+            try {
+                channel.publish(EVENT_ENVELOPE, objectMapper.writeValueAsString(envelope));
+                events.incrementAndGet();
+            } catch (JsonProcessingException e) {
+                log.warn("Envelope {} left out of the stream", dataBody.getName(), e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dataserver.stream.heartbeat-millis:15000}")
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+
+    public long getEvents() {
+        return events.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the sequence of an id this server handed out, or -1.
+     */
+    private long sequenceOf(String eventId) {
+        int separator = eventId.indexOf('-');
+        try {
+            if (separator > 0 && Long.parseLong(eventId.substring(0, separator)) == epoch) {
+                long eventSequence = Long.parseLong(eventId.substring(separator + 1));
+                return eventSequence <= sequence.get() ? eventSequence : -1;
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Unknown stream event id {}", eventId);
+        }
+        return -1;
+    }
+
+    private String eventId(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+
+    /**
+     * The subscribers and recent events of one block type. Sequences are taken under its lock, so they increase
+     * along the history and a subscription sees every event either replayed or live, never both.
+     */
+    private final class Channel {
+
+        private final BlockTypeEnum blockType;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final ArrayDeque<StreamEvent> history = new ArrayDeque<>();
+
+        /**
+         * Sequence of the latest event no longer in the history.
+         */
+        private long forgotten;
+
+        private Channel(BlockTypeEnum blockType) {
+            this.blockType = blockType;
+        }
+
+        private synchronized void publish(String name, String data) {
+            long eventSequence = sequence.incrementAndGet();
+            StreamEvent event = new StreamEvent(eventSequence, eventId(eventSequence), name, data);
+            history.addLast(event);
+            while (history.size() > streamProperties.getReplayEvents()) {
+                forgotten = history.removeFirst().sequence;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+
+        private synchronized void subscribe(Subscriber subscriber, String lastEventId) {
+            if (lastEventId != null) {
+                long last = sequenceOf(lastEventId);
+                if (last < 0 || last < forgotten) {
+                    subscriber.replay(new StreamEvent(0, eventId(sequence.get()), EVENT_RESET, blockType.name()));
+                } else {
+                    for (StreamEvent event : history) {
+                        if (event.sequence > last) {
+                            subscriber.replay(event);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+            if (!subscriber.buffer.isEmpty()) {
+                subscriber.schedule();
+            }
+        }
+    }
+
+    /**
+     * Sends its buffered events in order from whichever stream executor thread runs it. Completing the emitter
+     * is left to that thread too, so a writer dropping a slow subscriber never waits on its connection.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final Channel channel;
+        private final SseEmitter emitter;
+        private final Queue<StreamEvent> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private boolean completed;
+
+        private Subscriber(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        private void offer(StreamEvent event) {
+            if (buffered.incrementAndGet() > streamProperties.getSubscriberBufferEvents()) {
+                buffered.decrementAndGet();
+                dropped.incrementAndGet();
+                log.info("Dropping a stream subscriber of {}, {} events behind", channel.blockType, buffered.get());
+                close();
+                return;
+            }
+            buffer.add(event);
+            schedule();
+        }
+
+        /**
+         * Replayed events may exceed the buffer, a resuming subscriber is given the chance to catch up.
+         */
+        private void replay(StreamEvent event) {
+            buffered.incrementAndGet();
+            buffer.add(event);
+        }
+
+        private void heartbeat() {
+            if (buffered.get() == 0) {
+                offer(HEARTBEAT);
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                channel.subscribers.remove(this);
+                subscribers.decrementAndGet();
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    streamExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                StreamEvent event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    buffered.decrementAndGet();
+                    emitter.send(event.toSse());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Stream subscriber of {} gone", channel.blockType, e);
+                close();
+            }
+            if (closed.get() && !completed) {
+                completed = true;
+                emitter.complete();
+            }
+            scheduled.set(false);
+            if (closed.get() ? !completed : !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class StreamEvent {
+
+        private final long sequence;
+        private final String id;
+        private final String name;
+        private final String data;
+
+        private SseEmitter.SseEventBuilder toSse() {
+            if (name == null) {
+                return SseEmitter.event().comment("");
+            }
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.component.HadoopClient;
+import com.db.dataplatform.techtest.server.configuration.DataLakeCompression;
+import com.db.dataplatform.techtest.server.configuration.DataLakeConfiguration;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.db.dataplatform.techtest.server.exception.DataLakeDeliveryException;
+import com.db.dataplatform.techtest.server.exception.DataLakeRejectedException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coalesces data lake records into multi-record uploads. A batch is sent once it reaches
+ * {@link DataLakeProperties#getBatchMaxBytes()} or {@link DataLakeProperties#getBatchMaxRecords()}, or when its
+ * first record has waited {@link DataLakeProperties#getBatchLingerMillis()}.
+ * <p>
+ * The upload body is one JSON object per line, {@code {"name":...,"payload":...}}, optionally gzip compressed.
+ * Every submitted record gets its own future, completed with the number of upload attempts once its batch is
+ * acknowledged, or failed with a {@link DataLakeDeliveryException} once {@link DataLakeProperties#getRetryMaxAttempts()}
+ * are used up or the push was shed with a {@link DataLakeRejectedException}.
+ * <p>
+ * No thread waits for an upload: an outbox worker only encodes the batch, the response completes the records on
+ * the client's I/O thread, and a retry is scheduled after its exponential backoff instead of sleeping.
+ */
+@Slf4j
+@Component
+public class DataLakeBatcher implements DisposableBean {
+
+    private static final int RECORD_OVERHEAD_BYTES = 24;
+
+    private final HadoopClient hadoopClient;
+    private final Executor dataLakeOutboxExecutor;
+    private final DataLakeProperties dataLakeProperties;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<BatchRecord> currentBatch = new ArrayList<>();
+    private long currentBatchBytes;
+    private ScheduledFuture<?> lingerTimeout;
+
+    public DataLakeBatcher(HadoopClient hadoopClient,
+                           @Qualifier(DataLakeConfiguration.DATA_LAKE_OUTBOX_EXECUTOR) Executor dataLakeOutboxExecutor,
+                           DataLakeProperties dataLakeProperties,
+                           ObjectMapper objectMapper) {
+        this.hadoopClient = hadoopClient;
+        this.dataLakeOutboxExecutor = dataLakeOutboxExecutor;
+        this.dataLakeProperties = dataLakeProperties;
+        this.objectMapper = objectMapper;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-lake-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Integer> submit(String name, String payload) {
+        BatchRecord record = new BatchRecord(name, payload);
+        if (!dataLakeProperties.isBatchEnabled()) {
+            dispatch(singletonBatch(record));
+            return record.future;
+        }
+
+        List<BatchRecord> fullBatch = null;
+        synchronized (lock) {
+            currentBatch.add(record);
+            currentBatchBytes += name.length() + payload.length() + RECORD_OVERHEAD_BYTES;
+            if (currentBatch.size() == 1) {
+                lingerTimeout = scheduler.schedule(this::flush, dataLakeProperties.getBatchLingerMillis(), TimeUnit.MILLISECONDS);
+            }
+            if (currentBatchBytes >= dataLakeProperties.getBatchMaxBytes()
+                    || currentBatch.size() >= dataLakeProperties.getBatchMaxRecords()) {
+                fullBatch = takeCurrentBatch();
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return record.future;
+    }
+
+    public void flush() {
+        List<BatchRecord> batch;
+        synchronized (lock) {
+            batch = takeCurrentBatch();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Pending retries are dropped; their outbox entries stay in flight and are released on the next start.
+     */
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private List<BatchRecord> takeCurrentBatch() {
+        List<BatchRecord> batch = currentBatch;
+        currentBatch = new ArrayList<>();
+        currentBatchBytes = 0;
+        if (lingerTimeout != null) {
+            lingerTimeout.cancel(false);
+            lingerTimeout = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<BatchRecord> batch) {
+        try {
+            dataLakeOutboxExecutor.execute(() -> upload(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, 0, e);
+        }
+    }
+
+    private void upload(List<BatchRecord> batch) {
+        boolean gzipped = dataLakeProperties.getBatchCompression() == DataLakeCompression.GZIP;
+        byte[] body;
+        try {
+            body = dataLakeProperties.isBatchEnabled() ? encode(batch, gzipped) : null;
+        } catch (RuntimeException e) {
+            fail(batch, 0, e);
+            return;
+        }
+        attempt(batch, body, gzipped, 1);
+    }
+
+    /**
+     * @param body the encoded batch, or null to push the single record as it is.
+     */
+    private void attempt(List<BatchRecord> batch, byte[] body, boolean gzipped, int attempt) {
+        CompletableFuture<String> push;
+        try {
+            push = body == null
+                    ? hadoopClient.pushBigDataAsync(batch.get(0).payload)
+                    : hadoopClient.pushBigDataBatchAsync(body, gzipped);
+        } catch (RuntimeException e) {
+            push = new CompletableFuture<>();
+            push.completeExceptionally(e);
+        }
+        push.whenComplete((response, e) -> {
+            if (e == null) {
+                log.debug("Data lake batch of {} records delivered after {} attempts", batch.size(), attempt);
+                for (BatchRecord record : batch) {
+                    record.future.complete(attempt);
+                }
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (attempt >= dataLakeProperties.getRetryMaxAttempts() || isShed(cause)) {
+                fail(batch, attempt, cause);
+                return;
+            }
+            try {
+                scheduler.schedule(() -> attempt(batch, body, gzipped, attempt + 1), backOffMillis(attempt), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                fail(batch, attempt, cause);
+            }
+        });
+    }
+
+    /**
+     * Pushes shed by the circuit breaker or the concurrency limiter are not retried, the outbox defers them instead.
+     */
+    private static boolean isShed(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof DataLakeRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backOffMillis(int attempt) {
+        double interval = dataLakeProperties.getRetryInitialIntervalMillis()
+                * Math.pow(dataLakeProperties.getRetryMultiplier(), attempt - 1);
+        return (long) Math.min(interval, dataLakeProperties.getRetryMaxIntervalMillis());
+    }
+
+    private byte[] encode(List<BatchRecord> batch, boolean gzipped) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream out = gzipped ? new GZIPOutputStream(bytes) : bytes;
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            for (BatchRecord record : batch) {
+                generator.writeStartObject();
+                generator.writeStringField("name", record.name);
+                generator.writeStringField("payload", record.payload);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void fail(List<BatchRecord> batch, int attempts, Throwable cause) {
+        DataLakeDeliveryException exception = new DataLakeDeliveryException(
+                "Data lake upload failed: " + cause.getMessage(), attempts, cause);
+        for (BatchRecord record : batch) {
+            record.future.completeExceptionally(exception);
+        }
+    }
+
+    private static List<BatchRecord> singletonBatch(BatchRecord record) {
+        List<BatchRecord> batch = new ArrayList<>(1);
+        batch.add(record);
+        return batch;
+    }
+
+    private static final class BatchRecord {
+        private final String name;
+        private final String payload;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        private BatchRecord(String name, String payload) {
+            this.name = name;
+            this.payload = payload;
+        }
+    }
+}
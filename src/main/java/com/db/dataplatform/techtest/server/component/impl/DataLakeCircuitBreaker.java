@@ -0,0 +1,157 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Count based circuit breaker for data lake calls. It opens once the failure rate over the last
+ * {@link DataLakeProperties#getBreakerWindowSize()} calls reaches the configured threshold, sheds every call for
+ * {@link DataLakeProperties#getBreakerOpenMillis()}, then lets {@link DataLakeProperties#getBreakerHalfOpenCalls()}
+ * trial calls through. The breaker closes when all trial calls succeed and opens again on the first failure.
+ */
+@Component
+public class DataLakeCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final DataLakeProperties dataLakeProperties;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private long rejected;
+
+    @Autowired
+    public DataLakeCircuitBreaker(DataLakeProperties dataLakeProperties) {
+        this(dataLakeProperties, System::nanoTime);
+    }
+
+    public DataLakeCircuitBreaker(DataLakeProperties dataLakeProperties, LongSupplier nanoClock) {
+        this.dataLakeProperties = dataLakeProperties;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[dataLakeProperties.getBreakerWindowSize()];
+    }
+
+    /**
+     * Returns whether a call may be sent now. Every granted permission must be followed by
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #releasePermission()}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (!openPeriodElapsed()) {
+                rejected++;
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= dataLakeProperties.getBreakerHalfOpenCalls()) {
+                rejected++;
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a permission for a call that was never sent.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= dataLakeProperties.getBreakerHalfOpenCalls()) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= dataLakeProperties.getBreakerMinimumCalls()
+                    && windowFailures * 100 >= dataLakeProperties.getBreakerFailureRatePercent() * windowCount) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a call would currently be let through, without taking a permission.
+     */
+    public synchronized boolean isCallPermitted() {
+        return state == State.CLOSED
+                || state == State.OPEN && openPeriodElapsed()
+                || state == State.HALF_OPEN && halfOpenPermits < dataLakeProperties.getBreakerHalfOpenCalls();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    private boolean openPeriodElapsed() {
+        return nanoClock.getAsLong() - openedAt >= TimeUnit.MILLISECONDS.toNanos(dataLakeProperties.getBreakerOpenMillis());
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+        if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD limit on concurrent data lake calls. Each successful call while the limit is in use grows it by
+ * {@code 1 / limit}, roughly one per round trip. A failed call, or a call slower than
+ * {@link DataLakeProperties#getLimiterLatencyThresholdMillis()}, multiplies it by
+ * {@link DataLakeProperties#getLimiterBackoffRatio()}. Calls over the limit are shed instead of queued.
+ */
+@Component
+public class DataLakeConcurrencyLimiter {
+
+    private final DataLakeProperties dataLakeProperties;
+
+    private double limit;
+    private int inFlight;
+    private long rejected;
+
+    public DataLakeConcurrencyLimiter(DataLakeProperties dataLakeProperties) {
+        this.dataLakeProperties = dataLakeProperties;
+        this.limit = dataLakeProperties.getLimiterInitialLimit();
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= getLimit()) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        if (latencyNanos > TimeUnit.MILLISECONDS.toNanos(dataLakeProperties.getLimiterLatencyThresholdMillis())) {
+            onDropped();
+            return;
+        }
+        // only grow a limit that is actually used
+        if (inFlight * 2 >= limit) {
+            limit = Math.min(dataLakeProperties.getLimiterMaxLimit(), limit + 1 / limit);
+        }
+        inFlight--;
+    }
+
+    public synchronized void onDropped() {
+        limit = Math.max(dataLakeProperties.getLimiterMinLimit(), limit * dataLakeProperties.getLimiterBackoffRatio());
+        inFlight--;
+    }
+
+    /**
+     * Releases a slot whose call was never sent, without adjusting the limit.
+     */
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+}
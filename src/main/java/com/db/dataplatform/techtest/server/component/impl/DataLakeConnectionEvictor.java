@@ -0,0 +1,27 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import lombok.RequiredArgsConstructor;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes pooled data lake connections that expired or sat idle past the keep-alive, so a push never picks a
+ * connection the data lake or a proxy has already dropped. The non-blocking client has no evictor of its own.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataLakeConnectionEvictor {
+
+    private final PoolingNHttpClientConnectionManager dataLakeConnectionManager;
+    private final DataLakeProperties dataLakeProperties;
+
+    @Scheduled(fixedDelayString = "${datalake.connection-eviction-interval-millis:5000}")
+    public void evict() {
+        dataLakeConnectionManager.closeExpiredConnections();
+        dataLakeConnectionManager.closeIdleConnections(dataLakeProperties.getKeepAliveMillis(), TimeUnit.MILLISECONDS);
+    }
+}
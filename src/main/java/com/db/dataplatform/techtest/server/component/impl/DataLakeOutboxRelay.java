@@ -0,0 +1,92 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.db.dataplatform.techtest.server.event.DataLakePushedEvent;
+import com.db.dataplatform.techtest.server.exception.DataLakeDeliveryException;
+import com.db.dataplatform.techtest.server.exception.DataLakeRejectedException;
+import com.db.dataplatform.techtest.server.persistence.model.DataLakeOutboxEntity;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the data lake outbox. Each poll claims the oldest due entries, up to
+ * {@link DataLakeProperties#getOutboxMaxInFlight()} unacknowledged at a time, and hands them to the
+ * {@link DataLakeBatcher}. Entries are deleted once their batch is acknowledged and moved to the dead letter
+ * state once the retry policy is exhausted; dead letters are replayed through the admin API. While the
+ * {@link DataLakeCircuitBreaker} is open nothing is claimed, and entries shed by it are released back to pending.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataLakeOutboxRelay {
+
+    private final DataLakeOutboxService dataLakeOutboxService;
+    private final DataLakeBatcher dataLakeBatcher;
+    private final DataLakeCircuitBreaker dataLakeCircuitBreaker;
+    private final DataLakeProperties dataLakeProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @PostConstruct
+    public void recoverInFlight() {
+        int released = dataLakeOutboxService.releaseInFlight();
+        if (released > 0) {
+            log.info("Released {} unacknowledged data lake outbox entries", released);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datalake.outbox-poll-interval-millis:500}")
+    public void relay() {
+        if (!dataLakeCircuitBreaker.isCallPermitted()) {
+            return;
+        }
+        int capacity = dataLakeProperties.getOutboxMaxInFlight() - inFlight.get();
+        if (capacity <= 0) {
+            return;
+        }
+        List<DataLakeOutboxEntity> entries = dataLakeOutboxService.claimDue(capacity);
+        for (DataLakeOutboxEntity entry : entries) {
+            inFlight.incrementAndGet();
+            dataLakeBatcher.submit(entry.getName(), entry.getPayload())
+                    .whenComplete((attempts, e) -> acknowledge(entry, attempts, e));
+        }
+    }
+
+    private void acknowledge(DataLakeOutboxEntity entry, Integer attempts, Throwable e) {
+        try {
+            if (e == null) {
+                dataLakeOutboxService.markDelivered(entry.getOutboxId());
+                eventPublisher.publishEvent(new DataLakePushedEvent(entry.getName(), true));
+                log.debug("Data lake push delivered, data name: {}, attempts: {}", entry.getName(), attempts);
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            int failedAttempts = cause instanceof DataLakeDeliveryException
+                    ? ((DataLakeDeliveryException) cause).getAttempts() : 0;
+            Throwable reason = cause.getCause() != null ? cause.getCause() : cause;
+            if (failedAttempts == 0 || reason instanceof DataLakeRejectedException) {
+                // never sent, or shed by the breaker or limiter; try again on a later poll
+                dataLakeOutboxService.release(entry.getOutboxId());
+                return;
+            }
+            log.warn("Data lake push moved to dead letter, data name: {}, attempts: {}, cause: {}",
+                    entry.getName(), failedAttempts, reason.getMessage());
+            dataLakeOutboxService.markDeadLetter(entry.getOutboxId(), failedAttempts, reason.toString());
+            eventPublisher.publishEvent(new DataLakePushedEvent(entry.getName(), false));
+        } catch (RuntimeException ex) {
+            log.error("Failed to acknowledge data lake outbox entry {}", entry.getOutboxId(), ex);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
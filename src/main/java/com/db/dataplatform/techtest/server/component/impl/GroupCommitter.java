@@ -0,0 +1,248 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind group commit of single envelope pushes. Callers queue their body and block until it is committed;
+ * one flusher thread takes everything queued, up to {@link IngestProperties#getGroupCommitMaxSize()}, waiting at
+ * most {@link IngestProperties#getGroupCommitMaxLingerMillis()} for a group to fill, and writes the bodies and
+ * their outbox entries in one transaction. A group failing in the database is retried body by body, so only the
+ * offending caller sees the error. A caller gives up after {@link IngestProperties#getGroupCommitTimeoutMillis()}
+ * only if its body has not been taken into a group yet, so a rejected body is never written; once taken, the caller
+ * waits for the group's transaction to finish.
+ */
+@Slf4j
+@Component
+public class GroupCommitter implements DisposableBean {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final IngestProperties ingestProperties;
+    private final DataBodyService dataBodyServiceImpl;
+    private final DataLakeOutboxService dataLakeOutboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public GroupCommitter(IngestProperties ingestProperties, DataBodyService dataBodyServiceImpl,
+                          DataLakeOutboxService dataLakeOutboxService, TransactionTemplate transactionTemplate) {
+        this.ingestProperties = ingestProperties;
+        this.dataBodyServiceImpl = dataBodyServiceImpl;
+        this.dataLakeOutboxService = dataLakeOutboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, ingestProperties.getGroupCommitQueueCapacity()));
+    }
+
+    public boolean isEnabled() {
+        return ingestProperties.isGroupCommitEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "data-body-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops taking new bodies and commits everything already queued.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues the body with its outbox entry and returns once the group holding it has committed.
+     *
+     * @throws DataAccessException        if the body could not be written.
+     * @throws RejectedExecutionException if group commit is stopping, or the body was not taken into a group within
+     *                                    {@link IngestProperties#getGroupCommitTimeoutMillis()}; it is not written.
+     */
+    public void commit(DataBodyEntity dataBody) {
+        if (!running) {
+            throw new RejectedExecutionException("Group commit is not running");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ingestProperties.getGroupCommitTimeoutMillis());
+        PendingWrite write = new PendingWrite(dataBody);
+        try {
+            if (!queue.offer(write, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Group commit queue is full");
+            }
+            // the flusher may have taken its last bodies before this one was queued
+            if (!running && queue.remove(write)) {
+                throw new RejectedExecutionException("Group commit stopped");
+            }
+            try {
+                write.future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (write.claimed.compareAndSet(false, true)) {
+                    queue.remove(write);
+                    throw new RejectedExecutionException("Group commit did not take the data body in time", e);
+                }
+                // already in a group, whose transaction decides the outcome
+                write.future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for group commit", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void flushLoop() {
+        int maxSize = Math.max(1, ingestProperties.getGroupCommitMaxSize());
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(ingestProperties.getGroupCommitMaxLingerMillis());
+        List<PendingWrite> group = new ArrayList<>(maxSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (group.size() < maxSize) {
+                    queue.drainTo(group, maxSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= maxSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                // bodies whose callers gave up are left out
+                group.removeIf(write -> !write.claimed.compareAndSet(false, true));
+                if (!group.isEmpty()) {
+                    flush(group);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                fail(group, new RejectedExecutionException("Group commit stopped"));
+            } catch (RuntimeException e) {
+                log.error("Group commit of {} data bodies failed", group.size(), e);
+                fail(group, e);
+            } finally {
+                group.clear();
+            }
+        }
+        // bodies queued while stopping
+        queue.drainTo(group);
+        fail(group, new RejectedExecutionException("Group commit stopped"));
+    }
+
+    private static void fail(List<PendingWrite> group, RuntimeException cause) {
+        for (PendingWrite write : group) {
+            write.future.completeExceptionally(cause);
+        }
+    }
+
+    private void flush(List<PendingWrite> group) {
+        List<DataBodyEntity> dataBodies = new ArrayList<>(group.size());
+        for (PendingWrite write : group) {
+            dataBodies.add(write.dataBody);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                dataBodyServiceImpl.saveDataBodies(dataBodies);
+                dataLakeOutboxService.enqueueAll(dataBodies);
+            });
+            groups.incrementAndGet();
+            committed.addAndGet(group.size());
+            for (PendingWrite write : group) {
+                write.future.complete(null);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Group commit of {} data bodies failed, committing individually", group.size(), e);
+            for (PendingWrite write : group) {
+                flushIndividually(write);
+            }
+        }
+    }
+
+    private void flushIndividually(PendingWrite write) {
+        // Ids handed out by the rolled back group must not be reused.
+        write.dataBody.setDataStoreId(null);
+        write.dataBody.getDataHeaderEntity().setDataHeaderId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                dataBodyServiceImpl.saveDataBody(write.dataBody);
+                dataLakeOutboxService.enqueue(write.dataBody);
+            });
+            groups.incrementAndGet();
+            committed.incrementAndGet();
+            write.future.complete(null);
+        } catch (DataAccessException e) {
+            write.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return transactions committed by the flusher.
+     */
+    public long getGroups() {
+        return groups.get();
+    }
+
+    /**
+     * @return bodies committed by the flusher.
+     */
+    public long getCommitted() {
+        return committed.get();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    private static final class PendingWrite {
+        private final DataBodyEntity dataBody;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        /**
+         * Set by the flusher taking the body into a group, or by the caller giving up on it, whichever is first.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingWrite(DataBodyEntity dataBody) {
+            this.dataBody = dataBody;
+        }
+    }
+}
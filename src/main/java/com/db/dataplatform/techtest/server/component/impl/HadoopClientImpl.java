@@ -0,0 +1,125 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.component.HadoopClient;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.db.dataplatform.techtest.server.exception.DataLakeRejectedException;
+import com.db.dataplatform.techtest.server.exception.HadoopClientException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pushes payloads to the data lake over the shared non-blocking client. No thread waits for a push: the request
+ * is written and the response read by the client's I/O threads, which complete the returned future, so dependent
+ * stages must not block. Every push passes the {@link DataLakeCircuitBreaker} and the
+ * {@link DataLakeConcurrencyLimiter} first; a shed push fails at once with a {@link DataLakeRejectedException}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HadoopClientImpl implements HadoopClient {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson", StandardCharsets.UTF_8);
+
+    private final CloseableHttpAsyncClient dataLakeHttpClient;
+    private final DataLakeProperties dataLakeProperties;
+    private final DataLakeCircuitBreaker dataLakeCircuitBreaker;
+    private final DataLakeConcurrencyLimiter dataLakeConcurrencyLimiter;
+
+    @Override
+    public CompletableFuture<String> pushBigDataAsync(String payload) {
+        return submit(new StringEntity(payload, ContentType.TEXT_PLAIN));
+    }
+
+    @Override
+    public CompletableFuture<String> pushBigDataBatchAsync(byte[] ndjson, boolean gzipped) {
+        ByteArrayEntity entity = new ByteArrayEntity(ndjson, NDJSON);
+        if (gzipped) {
+            entity.setContentEncoding("gzip");
+        }
+        return submit(entity);
+    }
+
+    private CompletableFuture<String> submit(HttpEntity entity) {
+        if (!dataLakeCircuitBreaker.tryAcquirePermission()) {
+            return failed(new DataLakeRejectedException("Data lake circuit breaker is open"));
+        }
+        if (!dataLakeConcurrencyLimiter.tryAcquire()) {
+            dataLakeCircuitBreaker.releasePermission();
+            return failed(new DataLakeRejectedException("Data lake concurrency limit reached"));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<String> future;
+        try {
+            future = push(entity);
+        } catch (RuntimeException e) {
+            // the client is not running, e.g. during shutdown
+            dataLakeConcurrencyLimiter.onIgnored();
+            dataLakeCircuitBreaker.releasePermission();
+            return failed(new HadoopClientException("Data lake client is unavailable", e));
+        }
+        return future.whenComplete((response, e) -> {
+            if (e == null) {
+                dataLakeConcurrencyLimiter.onSuccess(System.nanoTime() - start);
+                dataLakeCircuitBreaker.onSuccess();
+            } else {
+                dataLakeConcurrencyLimiter.onDropped();
+                dataLakeCircuitBreaker.onFailure();
+            }
+        });
+    }
+
+    private CompletableFuture<String> push(HttpEntity entity) {
+        HttpPost httpPost = new HttpPost(dataLakeProperties.getUrl());
+        httpPost.setEntity(entity);
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        dataLakeHttpClient.execute(httpPost, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode != 200) {
+                    future.completeExceptionally(new HadoopClientException("Data lake responded with status " + statusCode));
+                    return;
+                }
+                try {
+                    HttpEntity responseEntity = response.getEntity();
+                    future.complete(responseEntity == null ? "" : EntityUtils.toString(responseEntity));
+                } catch (IOException e) {
+                    future.completeExceptionally(new HadoopClientException("Data lake push failed", e));
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(new HadoopClientException("Data lake push failed", e));
+            }
+
+            @Override
+            public void cancelled() {
+                future.completeExceptionally(new HadoopClientException("Data lake push was cancelled"));
+            }
+        });
+        return future;
+    }
+
+    private static CompletableFuture<String> failed(HadoopClientException e) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+}
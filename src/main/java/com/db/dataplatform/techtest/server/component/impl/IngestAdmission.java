@@ -0,0 +1,207 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.api.model.AdmissionLimits;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.exception.AdmissionRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of pushes: a token bucket per producer refilled at its rate up to the burst, and a cap
+ * on pushes in flight across all producers. A push over either limit is refused straight away with the time after
+ * which a retry can succeed, rather than queued. The limits start from {@link IngestProperties} and can be changed
+ * while running.
+ */
+@Component
+public class IngestAdmission {
+
+    public static final String PRODUCER_HEADER = "X-Producer-Id";
+
+    /**
+     * Shares one bucket between the pushes that neither send {@value #PRODUCER_HEADER} nor have a name prefix.
+     */
+    public static final String DEFAULT_PRODUCER = "default";
+
+    private final IngestProperties ingestProperties;
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<String, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private double ratePerSecond;
+    private double burst;
+    private int maxInFlight;
+    private Map<String, Double> producerRates = new HashMap<>();
+
+    private int inFlight;
+    private long rateLimited;
+    private long overloaded;
+
+    @Autowired
+    public IngestAdmission(IngestProperties ingestProperties) {
+        this(ingestProperties, System::nanoTime);
+    }
+
+    public IngestAdmission(IngestProperties ingestProperties, LongSupplier nanoClock) {
+        this.ingestProperties = ingestProperties;
+        this.nanoClock = nanoClock;
+        this.ratePerSecond = ingestProperties.getAdmissionRatePerSecond();
+        this.burst = ingestProperties.getAdmissionBurst();
+        this.maxInFlight = ingestProperties.getAdmissionMaxInFlight();
+    }
+
+    /**
+     * The {@value #PRODUCER_HEADER} header when sent, or else the envelope name up to its first dash, or else
+     * {@value #DEFAULT_PRODUCER}.
+     */
+    public static String producer(String producerHeader, String name) {
+        if (producerHeader != null && !producerHeader.trim().isEmpty()) {
+            return producerHeader.trim();
+        }
+        int dash = name.indexOf('-');
+        return dash > 0 ? name.substring(0, dash) : DEFAULT_PRODUCER;
+    }
+
+    /**
+     * @return the number of envelopes of each producer, for a push of several envelopes.
+     */
+    public static Map<String, Integer> producers(String producerHeader, List<DataEnvelope> envelopes) {
+        Map<String, Integer> envelopesByProducer = new LinkedHashMap<>();
+        for (DataEnvelope envelope : envelopes) {
+            envelopesByProducer.merge(producer(producerHeader, envelope.getDataHeader().getName()), 1, Integer::sum);
+        }
+        return envelopesByProducer;
+    }
+
+    /**
+     * Takes {@code envelopes} tokens from the producer's bucket and one in-flight slot. Every admitted push must be
+     * followed by {@link #release()}. A push larger than the burst is admitted once the bucket is full and leaves it
+     * in debt.
+     *
+     * @throws AdmissionRejectedException if the producer is over its rate or too many pushes are in flight.
+     */
+    public void admit(String producer, int envelopes) {
+        admit(Collections.singletonMap(producer, envelopes));
+    }
+
+    /**
+     * Like {@link #admit(String, int)} for a push of several producers' envelopes: each producer is charged its own
+     * envelopes, and the push takes one in-flight slot. Nothing is charged unless every producer is within its rate.
+     *
+     * @throws AdmissionRejectedException if a producer is over its rate or too many pushes are in flight.
+     */
+    public synchronized void admit(Map<String, Integer> envelopesByProducer) {
+        if (!ingestProperties.isAdmissionEnabled()) {
+            inFlight++;
+            return;
+        }
+        if (maxInFlight > 0 && inFlight >= maxInFlight) {
+            overloaded++;
+            throw new AdmissionRejectedException("Too many pushes in flight", false, 1);
+        }
+        Map<TokenBucket, Integer> charges = new HashMap<>();
+        try {
+            for (Map.Entry<String, Integer> producer : envelopesByProducer.entrySet()) {
+                double rate = producerRates.getOrDefault(producer.getKey(), ratePerSecond);
+                if (rate > 0) {
+                    TokenBucket bucket = bucket(producer.getKey());
+                    bucket.refill(rate);
+                    double needed = Math.min(producer.getValue(), burst);
+                    if (bucket.tokens < needed) {
+                        rateLimited++;
+                        long retryAfter = (long) Math.ceil((needed - bucket.tokens) / rate);
+                        throw new AdmissionRejectedException("Producer " + producer.getKey() + " is over its rate limit", true,
+                                Math.max(1, retryAfter));
+                    }
+                    charges.put(bucket, producer.getValue());
+                }
+            }
+            for (Map.Entry<TokenBucket, Integer> charge : charges.entrySet()) {
+                charge.getKey().tokens -= charge.getValue();
+            }
+            inFlight++;
+        } finally {
+            forgetProducers(envelopesByProducer.size());
+        }
+    }
+
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized AdmissionLimits getLimits() {
+        return new AdmissionLimits(ratePerSecond, burst, maxInFlight, new HashMap<>(producerRates));
+    }
+
+    public synchronized void setLimits(AdmissionLimits limits) {
+        ratePerSecond = limits.getRatePerSecond();
+        burst = limits.getBurst();
+        maxInFlight = limits.getMaxInFlight();
+        producerRates = limits.getProducerRates() == null ? new HashMap<>() : new HashMap<>(limits.getProducerRates());
+        for (TokenBucket bucket : buckets.values()) {
+            bucket.tokens = Math.min(bucket.tokens, burst);
+        }
+    }
+
+    private TokenBucket bucket(String producer) {
+        TokenBucket bucket = buckets.get(producer);
+        if (bucket == null) {
+            bucket = new TokenBucket(burst, nanoClock.getAsLong());
+            buckets.put(producer, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Forgets the least recently seen producers over {@link IngestProperties#getAdmissionMaxProducers()}, but never
+     * the ones of the push just admitted or refused, the most recently seen, so a bucket left in debt is not
+     * replaced by a full one within the same push.
+     */
+    private void forgetProducers(int pushProducers) {
+        int excess = Math.min(buckets.size() - ingestProperties.getAdmissionMaxProducers(), buckets.size() - pushProducers);
+        Iterator<TokenBucket> eldest = buckets.values().iterator();
+        for (int i = 0; i < excess; i++) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRateLimited() {
+        return rateLimited;
+    }
+
+    public synchronized long getOverloaded() {
+        return overloaded;
+    }
+
+    private class TokenBucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private void refill(double rate) {
+            long now = nanoClock.getAsLong();
+            double elapsedSeconds = (now - refilledAt) / (double) TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(burst, tokens + elapsedSeconds * rate);
+            refilledAt = now;
+        }
+    }
+}
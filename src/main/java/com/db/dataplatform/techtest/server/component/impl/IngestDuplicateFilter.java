@@ -0,0 +1,184 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyPurgedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers, without touching the database, whether a pushed envelope was already stored. A Bloom filter over every
+ * stored name tells names that were definitely never stored; a least recently used map from stored names to their
+ * block type and checksum recognises retries of recent pushes. A push only counts as a duplicate if both match, one
+ * moving the name to another block type is stored. Both only learn from committed writes and are rebuilt from
+ * DATA_HEADER at startup. A Bloom filter cannot forget names, so a false "maybe stored" only costs a lookup.
+ */
+@Slf4j
+@Component
+public class IngestDuplicateFilter {
+
+    private final IngestProperties ingestProperties;
+    private final DataBodyService dataBodyServiceImpl;
+
+    private final long[] bits;
+    private final int hashFunctions;
+    private final LinkedHashMap<String, DataBodyChecksum> recentChecksums;
+
+    private long duplicates;
+    private long newNames;
+
+    public IngestDuplicateFilter(IngestProperties ingestProperties, DataBodyService dataBodyServiceImpl) {
+        this.ingestProperties = ingestProperties;
+        this.dataBodyServiceImpl = dataBodyServiceImpl;
+
+        // optimal Bloom filter size and hash count for the expected names and false positive rate
+        double expectedNames = Math.max(1, ingestProperties.getDuplicateFilterExpectedNames());
+        double ln2 = Math.log(2);
+        long size = (long) Math.ceil(-expectedNames * Math.log(ingestProperties.getDuplicateFilterFalsePositiveRate()) / (ln2 * ln2));
+        this.bits = new long[(int) Math.max(1, (size + 63) / 64)];
+        this.hashFunctions = (int) Math.max(1, Math.round(bits.length * 64L / expectedNames * ln2));
+
+        int maxEntries = ingestProperties.getDuplicateCacheMaxEntries();
+        this.recentChecksums = new LinkedHashMap<String, DataBodyChecksum>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DataBodyChecksum> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return ingestProperties.isDuplicateFilterEnabled();
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        long names = dataBodyServiceImpl.forEachBlockName(this::addName);
+        log.info("Ingest duplicate filter loaded {} stored names into {} KiB", names, bits.length * 8 / 1024);
+    }
+
+    /**
+     * @return false only if no envelope of this name was ever stored.
+     */
+    public synchronized boolean mightBeStored(String name) {
+        long hash = hash(name);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = bit(hash, i);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                newNames++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the envelope was recently stored with this block type and checksum.
+     */
+    public synchronized boolean isRecentDuplicate(String name, BlockTypeEnum blockType, String checksum) {
+        DataBodyChecksum stored = recentChecksums.get(name);
+        if (checksum != null && stored != null && stored.matches(blockType, checksum)) {
+            duplicates++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Must only be called once the write is committed.
+     */
+    public synchronized void recordStored(String name, BlockTypeEnum blockType, String checksum) {
+        addName(name);
+        recentChecksums.put(name, new DataBodyChecksum(blockType, checksum));
+    }
+
+    /**
+     * Records a duplicate found by looking up the stored block type and checksum.
+     */
+    public synchronized void recordDuplicate(String name, DataBodyChecksum stored) {
+        recentChecksums.put(name, stored);
+        duplicates++;
+    }
+
+    /**
+     * Forgets the checksum of a deleted or moved envelope. Its name stays in the Bloom filter, so the next push of it is
+     * looked up.
+     */
+    public synchronized void forget(String name) {
+        recentChecksums.remove(name);
+    }
+
+    /**
+     * Forgets the block type and checksum of every recent name with the prefix, for envelopes moved in bulk.
+     */
+    public synchronized void forgetPrefix(String namePrefix) {
+        recentChecksums.keySet().removeIf(name -> name.startsWith(namePrefix));
+    }
+
+    @EventListener
+    public synchronized void onDataBodyPurged(DataBodyPurgedEvent event) {
+        for (String name : event.getNames()) {
+            recentChecksums.remove(name);
+        }
+    }
+
+    private synchronized void addName(String name) {
+        long hash = hash(name);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = bit(hash, i);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * The i-th of the hash functions, derived from the two halves of one 64 bit hash (Kirsch and Mitzenmacher).
+     */
+    private long bit(long hash, int i) {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        return ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % (bits.length * 64L);
+    }
+
+    /**
+     * 64 bit FNV-1a of the UTF-8 name, finished with the SplitMix64 mixer so both halves are usable as hashes.
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * @return pushes answered as duplicates, from the recent map or a lookup.
+     */
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return pushes whose name was definitely new, so the stored checksum lookup was skipped.
+     */
+    public synchronized long getNewNames() {
+        return newNames;
+    }
+
+    public synchronized int getRecentSize() {
+        return recentChecksums.size();
+    }
+}
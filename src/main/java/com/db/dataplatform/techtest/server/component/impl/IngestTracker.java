@@ -0,0 +1,123 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.api.model.IngestStatus;
+import com.db.dataplatform.techtest.server.api.model.IngestTicket;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.event.DataLakePushedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Status of asynchronously ingested envelopes by tracking id. Only the latest
+ * {@link IngestProperties#getAsyncMaxTracked()} tickets are kept; older ids are forgotten.
+ */
+@Component
+public class IngestTracker {
+
+    private final IngestProperties ingestProperties;
+
+    private final LinkedHashMap<String, IngestTicket> tickets = new LinkedHashMap<>();
+    // envelopes being or already persisted whose data lake push is still outstanding, by name
+    private final Map<String, List<String>> awaitingPush = new HashMap<>();
+
+    public IngestTracker(IngestProperties ingestProperties) {
+        this.ingestProperties = ingestProperties;
+    }
+
+    public synchronized IngestTicket queued(String name) {
+        IngestTicket ticket = new IngestTicket(UUID.randomUUID().toString(), name, IngestStatus.QUEUED, null);
+        tickets.put(ticket.getId(), ticket);
+        Iterator<IngestTicket> eldest = tickets.values().iterator();
+        while (tickets.size() > Math.max(1, ingestProperties.getAsyncMaxTracked())) {
+            IngestTicket evicted = eldest.next();
+            eldest.remove();
+            removeAwaitingPush(evicted);
+        }
+        return ticket;
+    }
+
+    /**
+     * Called before the write commits, so a data lake push the relay finishes first still finds the ticket.
+     */
+    public synchronized void awaitingPush(String id) {
+        IngestTicket ticket = tickets.get(id);
+        if (ticket != null) {
+            awaitingPush.computeIfAbsent(ticket.getName(), name -> new ArrayList<>(1)).add(id);
+        }
+    }
+
+    /**
+     * Leaves a ticket whose push already finished as it is.
+     */
+    public synchronized void persisted(String id) {
+        IngestTicket ticket = tickets.get(id);
+        if (ticket != null && ticket.getStatus() == IngestStatus.QUEUED) {
+            update(id, IngestStatus.PERSISTED, null);
+        }
+    }
+
+    public synchronized void failed(String id, String reason) {
+        IngestTicket ticket = update(id, IngestStatus.FAILED, reason);
+        if (ticket != null) {
+            removeAwaitingPush(ticket);
+        }
+    }
+
+    public synchronized void forget(String id) {
+        IngestTicket ticket = tickets.remove(id);
+        if (ticket != null) {
+            removeAwaitingPush(ticket);
+        }
+    }
+
+    /**
+     * @return the ticket, or null if the id is unknown or was forgotten.
+     */
+    public synchronized IngestTicket get(String id) {
+        return tickets.get(id);
+    }
+
+    @EventListener
+    public synchronized void onDataLakePushed(DataLakePushedEvent event) {
+        List<String> ids = awaitingPush.remove(event.getName());
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            if (event.isDelivered()) {
+                update(id, IngestStatus.PUSHED, null);
+            } else {
+                update(id, IngestStatus.FAILED, "Data lake push failed, the envelope is persisted");
+            }
+        }
+    }
+
+    public synchronized int getTracked() {
+        return tickets.size();
+    }
+
+    private IngestTicket update(String id, IngestStatus status, String reason) {
+        IngestTicket ticket = tickets.get(id);
+        if (ticket == null) {
+            return null;
+        }
+        IngestTicket updated = new IngestTicket(id, ticket.getName(), status, reason);
+        tickets.put(id, updated);
+        return updated;
+    }
+
+    private void removeAwaitingPush(IngestTicket ticket) {
+        List<String> ids = awaitingPush.get(ticket.getName());
+        if (ids != null && ids.remove(ticket.getId()) && ids.isEmpty()) {
+            awaitingPush.remove(ticket.getName());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.db.dataplatform.techtest.server.component.impl;
+
+import com.db.dataplatform.techtest.server.configuration.IngestConfiguration;
+import com.db.dataplatform.techtest.server.configuration.ReadConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs controller work off the servlet threads, reads and writes on separately sized executors. The time each
+ * request waits for a worker is recorded per endpoint as {@code dataserver.request.queue}, requests refused by a
+ * full executor as {@code dataserver.request.rejected}.
+ */
+@Component
+public class RequestExecutors {
+
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public RequestExecutors(@Qualifier(ReadConfiguration.READ_EXECUTOR) Executor readExecutor,
+                            @Qualifier(IngestConfiguration.WRITE_EXECUTOR) Executor writeExecutor,
+                            MeterRegistry meterRegistry) {
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> CompletableFuture<T> read(String endpoint, Supplier<T> work) {
+        return submit(readExecutor, ReadConfiguration.READ_METRIC_NAME, endpoint, work);
+    }
+
+    public <T> CompletableFuture<T> write(String endpoint, Supplier<T> work) {
+        return submit(writeExecutor, IngestConfiguration.WRITE_METRIC_NAME, endpoint, work);
+    }
+
+    private <T> CompletableFuture<T> submit(Executor executor, String executorName, String endpoint, Supplier<T> work) {
+        Timer queue = Timer.builder("dataserver.request.queue")
+                .tag("executor", executorName)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queue.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return work.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("dataserver.request.rejected", "executor", executorName, "endpoint", endpoint)
+                    .increment();
+            throw e;
+        }
+    }
+}
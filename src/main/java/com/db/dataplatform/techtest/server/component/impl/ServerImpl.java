@@ -1,34 +1,61 @@
 package com.db.dataplatform.techtest.server.component.impl;
 
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdate;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdateSummary;
 import com.db.dataplatform.techtest.server.api.model.DataBody;
 import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelopePage;
 import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.api.model.IngestSummary;
+import com.db.dataplatform.techtest.server.api.model.IngestTicket;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.api.model.PushDataStatus;
+import com.db.dataplatform.techtest.server.api.model.Watermark;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.component.HadoopClient;
 import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.configuration.IngestConfiguration;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.configuration.ReadProperties;
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
 import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
 import com.db.dataplatform.techtest.server.service.DataBodyService;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.HttpEntity;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @Service
@@ -37,6 +64,19 @@ public class ServerImpl implements Server {
 
     private final DataBodyService dataBodyServiceImpl;
     private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
+    private final IngestProperties ingestProperties;
+    private final ReadProperties readProperties;
+    private final BlockTypeResultCache blockTypeResultCache;
+    private final IngestDuplicateFilter ingestDuplicateFilter;
+    private final GroupCommitter groupCommitter;
+    private final IngestTracker ingestTracker;
+    @Qualifier(IngestConfiguration.INGEST_EXECUTOR)
+    private final Executor ingestExecutor;
+    private final HadoopClient hadoopClient;
+    private final DataLakeOutboxService dataLakeOutboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestAdmission ingestAdmission;
 
     /**
      * @param envelope
@@ -44,9 +84,23 @@ public class ServerImpl implements Server {
      */
     @Override
     public boolean saveDataEnvelope(DataEnvelope envelope) {
+        return saveDataEnvelope(envelope, ChecksumAlgorithm.MD5);
+    }
+
+    /**
+     * @param envelope
+     * @param checksumAlgorithm algorithm the client used to produce the checksum.
+     * @return true if there is a match with the client provided checksum.
+     */
+    @Override
+    public boolean saveDataEnvelope(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm) {
 
         // Save to persistence.
-        if (Objects.equals(calculateMD5(envelope.getDataBody().getDataBody()), envelope.getDataBody().getCheckSum())) {
+        if (checksumMatches(envelope, checksumAlgorithm)) {
+            if (isStoredDuplicate(envelope)) {
+                log.info("Data already stored, data name: {}", envelope.getDataHeader().getName());
+                return true;
+            }
             persist(envelope);
 
             log.info("Data persisted successfully, data name: {}", envelope.getDataHeader().getName());
@@ -56,11 +110,402 @@ public class ServerImpl implements Server {
         return false;
     }
 
+    /**
+     * Checks the checksum on the calling thread and hands the envelope to the ingest executor, so the request is
+     * answered before anything is written. Progress is polled through {@link #getIngestTicket(String)}.
+     *
+     * @throws RejectedExecutionException if the ingest queue is full.
+     */
+    @Override
+    public IngestTicket saveDataEnvelopeAsync(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm) {
+        if (!checksumMatches(envelope, checksumAlgorithm)) {
+            log.info("Data CheckSum Mismatch, data name: {}", envelope.getDataHeader().getName());
+            return null;
+        }
+        IngestTicket ticket = ingestTracker.queued(envelope.getDataHeader().getName());
+        try {
+            ingestExecutor.execute(() -> persistTracked(envelope, ticket.getId()));
+        } catch (RejectedExecutionException e) {
+            ingestTracker.forget(ticket.getId());
+            throw e;
+        }
+        return ticket;
+    }
+
+    private void persistTracked(DataEnvelope envelope, String id) {
+        String name = envelope.getDataHeader().getName();
+        try {
+            if (!isStoredDuplicate(envelope)) {
+                ingestTracker.awaitingPush(id);
+                persist(envelope);
+            }
+            ingestTracker.persisted(id);
+            log.info("Data persisted successfully, data name: {}, tracking id: {}", name, id);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Data persistence failed, data name: {}", name, e);
+            ingestTracker.failed(id, "Rejected by the database, the name may already be stored with another body");
+        } catch (RuntimeException e) {
+            log.warn("Data persistence failed, data name: {}", name, e);
+            ingestTracker.failed(id, "Data persistence failed");
+        }
+    }
+
+    @Override
+    public Optional<IngestTicket> getIngestTicket(String id) {
+        return Optional.ofNullable(ingestTracker.get(id));
+    }
+
+    @Override
+    public List<IngestTicket> getIngestTickets(List<String> ids) {
+        List<IngestTicket> tickets = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            IngestTicket ticket = ingestTracker.get(id);
+            if (ticket != null) {
+                tickets.add(ticket);
+            }
+        }
+        return tickets;
+    }
+
+    /**
+     * Validates the checksum of every envelope and writes all matching ones in a single batch. A batch failing
+     * in the database (e.g. a duplicate name) is retried one envelope at a time so only the offending items fail.
+     *
+     * @param envelopes
+     * @return one result per envelope, in request order.
+     */
+    @Override
+    public List<PushDataResult> saveDataEnvelopes(List<DataEnvelope> envelopes, ChecksumAlgorithm checksumAlgorithm) {
+        List<PushDataResult> results = new ArrayList<>(envelopes.size());
+        List<DataBodyEntity> accepted = new ArrayList<>(envelopes.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(envelopes.size());
+        validateChecksums(envelopes, checksumAlgorithm, results, accepted, acceptedIndexes);
+
+        if (!accepted.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    dataBodyServiceImpl.saveDataBodies(accepted);
+                    dataLakeOutboxService.enqueueAll(accepted);
+                });
+                recordStored(accepted);
+            } catch (DataAccessException e) {
+                log.warn("Batch of {} data envelopes failed, retrying individually", accepted.size(), e);
+                saveIndividually(accepted, acceptedIndexes, results);
+            }
+        }
+        log.info("Data batch processed, {} of {} envelopes accepted", accepted.size(), envelopes.size());
+        return results;
+    }
+
+    /**
+     * Like {@link #saveDataEnvelope(DataEnvelope, ChecksumAlgorithm)}, but replaces a stored envelope of the same
+     * name instead of failing on it. Resending an unchanged envelope writes nothing.
+     *
+     * @return true if there is a match with the client provided checksum.
+     */
+    @Override
+    public boolean upsertDataEnvelope(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm) {
+        String name = envelope.getDataHeader().getName();
+        if (!checksumMatches(envelope, checksumAlgorithm)) {
+            log.info("Data CheckSum Mismatch, data name: {}", name);
+            return false;
+        }
+        if (upsertWithOutbox(Collections.singletonList(toDataBodyEntity(envelope)))[0]) {
+            log.info("Data persisted successfully, data name: {}", name);
+        } else {
+            log.info("Data unchanged, data name: {}", name);
+        }
+        return true;
+    }
+
+    /**
+     * Merges all envelopes with a matching checksum in one batch per table. Envelopes whose stored checksum and
+     * block type already match are reported {@link PushDataStatus#UNCHANGED} and not sent to the data lake again.
+     * A failing batch, e.g. two requests racing to create the same name, is retried one envelope at a time.
+     *
+     * @return one result per envelope, in request order.
+     */
+    @Override
+    public List<PushDataResult> upsertDataEnvelopes(List<DataEnvelope> envelopes, ChecksumAlgorithm checksumAlgorithm) {
+        List<PushDataResult> results = new ArrayList<>(envelopes.size());
+        List<DataBodyEntity> accepted = new ArrayList<>(envelopes.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(envelopes.size());
+        validateChecksums(envelopes, checksumAlgorithm, results, accepted, acceptedIndexes);
+
+        if (!accepted.isEmpty()) {
+            try {
+                markUnchanged(upsertWithOutbox(accepted), acceptedIndexes, results);
+            } catch (DataAccessException e) {
+                log.warn("Upsert of {} data envelopes failed, retrying individually", accepted.size(), e);
+                upsertIndividually(accepted, acceptedIndexes, results);
+            }
+        }
+        log.info("Data upsert batch processed, {} of {} envelopes accepted", accepted.size(), envelopes.size());
+        return results;
+    }
+
+    private void validateChecksums(List<DataEnvelope> envelopes, ChecksumAlgorithm checksumAlgorithm, List<PushDataResult> results,
+                                   List<DataBodyEntity> accepted, List<Integer> acceptedIndexes) {
+        for (DataEnvelope envelope : envelopes) {
+            String name = envelope.getDataHeader().getName();
+            if (checksumMatches(envelope, checksumAlgorithm)) {
+                acceptedIndexes.add(results.size());
+                accepted.add(toDataBodyEntity(envelope));
+                results.add(new PushDataResult(name, PushDataStatus.PERSISTED));
+            } else {
+                log.info("Data CheckSum Mismatch, data name: {}", name);
+                results.add(new PushDataResult(name, PushDataStatus.CHECKSUM_MISMATCH));
+            }
+        }
+    }
+
+    /**
+     * Merges the bodies and queues only the ones actually written for the data lake, in one transaction.
+     */
+    private boolean[] upsertWithOutbox(List<DataBodyEntity> dataBodyEntities) {
+        boolean[] written = transactionTemplate.execute(status -> {
+            boolean[] bodiesWritten = dataBodyServiceImpl.upsertDataBodies(dataBodyEntities);
+            List<DataBodyEntity> changed = new ArrayList<>(dataBodyEntities.size());
+            for (int i = 0; i < bodiesWritten.length; i++) {
+                if (bodiesWritten[i]) {
+                    changed.add(dataBodyEntities.get(i));
+                }
+            }
+            if (!changed.isEmpty()) {
+                dataLakeOutboxService.enqueueAll(changed);
+            }
+            return bodiesWritten;
+        });
+        // unchanged envelopes are stored with this checksum as well
+        recordStored(dataBodyEntities);
+        return written;
+    }
+
+    private void upsertIndividually(List<DataBodyEntity> dataBodyEntities, List<Integer> indexes, List<PushDataResult> results) {
+        for (int i = 0; i < dataBodyEntities.size(); i++) {
+            DataBodyEntity dataBodyEntity = dataBodyEntities.get(i);
+            try {
+                boolean[] written = upsertWithOutbox(Collections.singletonList(dataBodyEntity));
+                markUnchanged(written, Collections.singletonList(indexes.get(i)), results);
+            } catch (DataAccessException e) {
+                String name = dataBodyEntity.getDataHeaderEntity().getName();
+                log.warn("Data persistence failed, data name: {}", name, e);
+                results.set(indexes.get(i), new PushDataResult(name, PushDataStatus.FAILED));
+            }
+        }
+    }
+
+    private static void markUnchanged(boolean[] written, List<Integer> indexes, List<PushDataResult> results) {
+        for (int i = 0; i < written.length; i++) {
+            if (!written[i]) {
+                int index = indexes.get(i);
+                results.set(index, new PushDataResult(results.get(index).getName(), PushDataStatus.UNCHANGED));
+            }
+        }
+    }
+
+    /**
+     * Reads newline delimited envelopes and persists them in chunks of {@link IngestProperties#getStreamChunkSize()}
+     * while the upload is still arriving. The next chunk is only read once the previous one has been written, so
+     * a slow database throttles the client through TCP flow control instead of growing the heap. Every chunk goes
+     * through {@link IngestAdmission} like a batch push, charged to its producers and holding an in-flight slot
+     * while it is written.
+     *
+     * @param ndjson
+     * @return accepted and rejected counts; unparseable lines and lines over
+     * {@link IngestProperties#getStreamMaxLineChars()} count as rejected.
+     */
+    @Override
+    public IngestSummary saveDataEnvelopeStream(InputStream ndjson, ChecksumAlgorithm checksumAlgorithm, String producer) throws IOException {
+        ObjectReader envelopeReader = objectMapper.readerFor(DataEnvelope.class);
+        int chunkSize = Math.max(1, ingestProperties.getStreamChunkSize());
+        List<DataEnvelope> chunk = new ArrayList<>(chunkSize);
+        long accepted = 0;
+        long rejected = 0;
+
+        BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8),
+                ingestProperties.getStreamMaxLineChars());
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (reader.isOverLong()) {
+                log.info("Skipping data envelope line over {} characters", ingestProperties.getStreamMaxLineChars());
+                rejected++;
+                continue;
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            DataEnvelope envelope = parseEnvelope(envelopeReader, line);
+            if (envelope == null) {
+                rejected++;
+                continue;
+            }
+            chunk.add(envelope);
+            if (chunk.size() == chunkSize) {
+                long persisted = saveChunk(chunk, checksumAlgorithm, producer);
+                accepted += persisted;
+                rejected += chunk.size() - persisted;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            long persisted = saveChunk(chunk, checksumAlgorithm, producer);
+            accepted += persisted;
+            rejected += chunk.size() - persisted;
+        }
+        log.info("Data stream processed, accepted: {}, rejected: {}", accepted, rejected);
+        return new IngestSummary(accepted, rejected);
+    }
+
+    private DataEnvelope parseEnvelope(ObjectReader envelopeReader, String line) {
+        try {
+            DataEnvelope envelope = envelopeReader.readValue(line);
+            if (envelope.getDataHeader() == null || envelope.getDataBody() == null
+                    || envelope.getDataHeader().getName() == null || envelope.getDataBody().getDataBody() == null) {
+                return null;
+            }
+            return envelope;
+        } catch (JsonProcessingException e) {
+            log.debug("Skipping malformed data envelope line", e);
+            return null;
+        }
+    }
+
+    private long saveChunk(List<DataEnvelope> chunk, ChecksumAlgorithm checksumAlgorithm, String producer) {
+        List<PushDataResult> results;
+        ingestAdmission.admit(IngestAdmission.producers(producer, chunk));
+        try {
+            results = saveDataEnvelopes(chunk, checksumAlgorithm);
+        } finally {
+            ingestAdmission.release();
+        }
+        long persisted = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).getStatus() == PushDataStatus.PERSISTED) {
+                persisted++;
+            }
+        }
+        return persisted;
+    }
+
+    private void saveIndividually(List<DataBodyEntity> dataBodyEntities, List<Integer> indexes, List<PushDataResult> results) {
+        for (int i = 0; i < dataBodyEntities.size(); i++) {
+            DataBodyEntity dataBodyEntity = dataBodyEntities.get(i);
+            // Ids handed out by the rolled back batch must not be reused.
+            dataBodyEntity.setDataStoreId(null);
+            dataBodyEntity.getDataHeaderEntity().setDataHeaderId(null);
+            try {
+                saveWithOutbox(dataBodyEntity);
+            } catch (DataAccessException e) {
+                String name = dataBodyEntity.getDataHeaderEntity().getName();
+                log.warn("Data persistence failed, data name: {}", name, e);
+                results.set(indexes.get(i), new PushDataResult(name, PushDataStatus.FAILED));
+            }
+        }
+    }
+
     @Override
     public List<DataEnvelope> getDataEnvelopesByBlockType(BlockTypeEnum blockTypeEnum) throws IOException, NoSuchAlgorithmException {
-        List<DataBodyEntity> dataBodyEntityList = dataBodyServiceImpl.getDataByBlockType(blockTypeEnum);
+        List<DataBodyProjection> dataBodies = dataBodyServiceImpl.getDataByBlockType(blockTypeEnum);
 
-        return mapDataBodiesToDataEnvelopes(dataBodyEntityList);
+        return mapDataBodiesToDataEnvelopes(dataBodies);
+    }
+
+    /**
+     * @param after  cursor of the previous page, null for the first page.
+     * @param limit  page size, null for the configured default; capped at the configured maximum.
+     */
+    @Override
+    public DataEnvelopePage getDataEnvelopePageByBlockType(BlockTypeEnum blockTypeEnum, Long after, Integer limit) {
+        int pageSize = pageSize(limit);
+
+        // one extra row tells whether there is a next page
+        List<DataBodyProjection> dataBodies = dataBodyServiceImpl.getDataByBlockType(
+                blockTypeEnum, after == null ? 0 : after, pageSize + 1);
+        Long nextCursor = null;
+        if (dataBodies.size() > pageSize) {
+            dataBodies = dataBodies.subList(0, pageSize);
+            nextCursor = dataBodies.get(pageSize - 1).getDataStoreId();
+        }
+        return new DataEnvelopePage(mapDataBodiesToDataEnvelopes(dataBodies), nextCursor);
+    }
+
+    /**
+     * With {@code since}, only envelopes created at least the settle time ago are returned: a body's created
+     * timestamp is taken before its transaction commits, so a younger one may still be joined by others with an
+     * earlier timestamp, which a watermark already past them would skip. Replacing a body or changing its block
+     * type keeps its created timestamp, so neither is seen by a poll past it.
+     *
+     * @param since watermark of the previous poll, null for the first.
+     * @return the page and the watermark to poll from next, the given one again if nothing new was found.
+     */
+    @Override
+    public DataEnvelopePage getDataEnvelopePageByCreated(BlockTypeEnum blockTypeEnum, Instant from, Instant to,
+                                                         Watermark since, Integer limit) {
+        int pageSize = pageSize(limit);
+        if (since != null) {
+            Instant settled = Instant.now().minusMillis(readProperties.getWatermarkSettleMillis());
+            to = to == null || settled.isBefore(to) ? settled : to;
+        }
+        List<DataBodyProjection> dataBodies = dataBodyServiceImpl.getDataByBlockTypeCreated(blockTypeEnum, from, to,
+                since == null ? null : since.getCreatedTimestamp(), since == null ? 0 : since.getDataStoreId(), pageSize);
+        Watermark nextWatermark = since;
+        if (!dataBodies.isEmpty()) {
+            DataBodyProjection last = dataBodies.get(dataBodies.size() - 1);
+            nextWatermark = new Watermark(last.getCreatedTimestamp(), last.getDataStoreId());
+        }
+        return new DataEnvelopePage(mapDataBodiesToDataEnvelopes(dataBodies), null, nextWatermark);
+    }
+
+    private int pageSize(Integer limit) {
+        return Math.min(limit == null ? readProperties.getPageSize() : Math.max(limit, 1), readProperties.getMaxPageSize());
+    }
+
+    /**
+     * Writes every envelope of the block type as one JSON array, envelope by envelope, so neither the entities
+     * nor the serialized response are held in memory. Results up to the cache entry limit are kept as bytes and
+     * served from {@link BlockTypeResultCache} until the next write to the block type.
+     *
+     * @return the number of envelopes written.
+     */
+    @Override
+    public long writeDataEnvelopesByBlockType(BlockTypeEnum blockTypeEnum, OutputStream out) throws IOException {
+        if (!blockTypeResultCache.isEnabled()) {
+            return writeDataEnvelopes(blockTypeEnum, out);
+        }
+        BlockTypeResultCache.CachedResult cached = blockTypeResultCache.get(blockTypeEnum);
+        if (cached != null) {
+            out.write(cached.getJson());
+            return cached.getCount();
+        }
+
+        long generation = blockTypeResultCache.generation(blockTypeEnum);
+        CopyingOutputStream copy = new CopyingOutputStream(out, readProperties.getCacheMaxEntryBytes());
+        long written = writeDataEnvelopes(blockTypeEnum, copy);
+        if (copy.getCopy() != null) {
+            blockTypeResultCache.put(blockTypeEnum, generation, copy.getCopy().toByteArray(), written);
+        }
+        return written;
+    }
+
+    private long writeDataEnvelopes(BlockTypeEnum blockTypeEnum, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // leave the array open on failure, a truncated response must not parse as a complete one
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            long written = dataBodyServiceImpl.forEachDataByBlockType(blockTypeEnum, dataBody -> {
+                try {
+                    generator.writeObject(mapDataBodyToDataEnvelope(dataBody));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            return written;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
@@ -72,96 +517,266 @@ public class ServerImpl implements Server {
     public boolean updateDataEnvelope(String blockName, String newBlockType) {
         Optional<DataBodyEntity> dataBodyOptional = dataBodyServiceImpl.getDataByBlockName(blockName);
         if (dataBodyOptional.isPresent()) {
-            DataBodyEntity dataBodyEntity = dataBodyOptional.get();
-            DataHeaderEntity dataHeaderEntity = dataBodyEntity.getDataHeaderEntity();
-            dataHeaderEntity.setBlocktype(BlockTypeEnum.valueOf(newBlockType));
-            dataBodyEntity.setDataHeaderEntity(dataHeaderEntity);
-            saveData(dataBodyEntity);
+            dataBodyServiceImpl.updateBlockType(dataBodyOptional.get(), BlockTypeEnum.valueOf(newBlockType));
+            ingestDuplicateFilter.forget(blockName);
             return true;
         }
         return false;
     }
 
-    public List<DataEnvelope> mapDataBodiesToDataEnvelopes(List<DataBodyEntity> dataBodyEntities) {
-        return dataBodyEntities.stream()
-                .map(this::mapDataBodyToDataEnvelope)
-                .collect(Collectors.toList());
+    /**
+     * Reclassifies every envelope selected by name or name prefix in a single update. The moved names are
+     * forgotten by the duplicate filter, a push with their old block type is looked up again.
+     */
+    @Override
+    public BlockTypeUpdateSummary updateDataEnvelopes(BlockTypeUpdate update) {
+        int updated;
+        if (update.isByNames()) {
+            updated = dataBodyServiceImpl.updateBlockTypes(update.getNames(), update.getBlockType());
+            update.getNames().forEach(ingestDuplicateFilter::forget);
+        } else {
+            updated = dataBodyServiceImpl.updateBlockTypesByNamePrefix(update.getNamePrefix(), update.getBlockType());
+            ingestDuplicateFilter.forgetPrefix(update.getNamePrefix());
+        }
+        log.info("Data envelopes moved to block type {}: {}", update.getBlockType(), updated);
+        return new BlockTypeUpdateSummary(updated);
     }
 
-    private DataEnvelope mapDataBodyToDataEnvelope(DataBodyEntity dataBodyEntity) {
-        log.info("blockType found :{}", dataBodyEntity.getDataBody());
-        DataHeader dataHeader = new DataHeader(dataBodyEntity.getDataHeaderEntity().getName(), dataBodyEntity.getDataHeaderEntity().getBlocktype());
-        DataBody dataBody = new DataBody(dataBodyEntity.getDataBody(), dataBodyEntity.getChecksum());
-        DataEnvelope dataEnvelope = new DataEnvelope(dataHeader, dataBody);
-        log.info("Data Envelope created with Dataheader Name :{},dataBody :{}", dataHeader.getName(), dataBody.getDataBody());
-        return dataEnvelope;
+    /**
+     * Deletes the envelope; its body content is deleted too unless other envelopes share it. A push of the same
+     * envelope afterwards is stored again rather than answered as a duplicate.
+     */
+    @Override
+    public boolean deleteDataEnvelope(String blockName) {
+        boolean deleted = dataBodyServiceImpl.deleteDataBody(blockName);
+        if (deleted) {
+            ingestDuplicateFilter.forget(blockName);
+        }
+        log.info("Data envelope delete, data name: {}, deleted: {}", blockName, deleted);
+        return deleted;
+    }
+
+    public List<DataEnvelope> mapDataBodiesToDataEnvelopes(List<DataBodyProjection> dataBodies) {
+        List<DataEnvelope> dataEnvelopes = new ArrayList<>(dataBodies.size());
+        for (DataBodyProjection dataBody : dataBodies) {
+            dataEnvelopes.add(mapDataBodyToDataEnvelope(dataBody));
+        }
+        return dataEnvelopes;
+    }
+
+    private static DataEnvelope mapDataBodyToDataEnvelope(DataBodyProjection dataBody) {
+        return new DataEnvelope(new DataHeader(dataBody.getName(), dataBody.getBlockType()),
+                new DataBody(dataBody.getDataBody(), dataBody.getChecksum()));
     }
 
     private void persist(DataEnvelope envelope) {
         log.info("Persisting data with attribute name: {}", envelope.getDataHeader().getName());
-        DataHeaderEntity dataHeaderEntity = modelMapper.map(envelope.getDataHeader(), DataHeaderEntity.class);
-
-        DataBodyEntity dataBodyEntity = modelMapper.map(envelope.getDataBody(), DataBodyEntity.class);
-        dataBodyEntity.setDataHeaderEntity(dataHeaderEntity);
-        dataBodyEntity.setChecksum(envelope.getDataBody().getCheckSum());
-        saveData(dataBodyEntity);
+        saveWithOutbox(toDataBodyEntity(envelope));
     }
 
-    private String calculateMD5(String dataBody) {
-        try {
-            MessageDigest md5 = MessageDigest.getInstance("MD5");
+    /**
+     * Writes the body and its data lake outbox entry in one transaction, the relay pushes it once committed. With
+     * group commit the transaction is shared with other requests and this blocks until it has committed.
+     */
+    private void saveWithOutbox(DataBodyEntity dataBodyEntity) {
+        if (groupCommitter.isEnabled()) {
+            groupCommitter.commit(dataBodyEntity);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                saveData(dataBodyEntity);
+                dataLakeOutboxService.enqueue(dataBodyEntity);
+            });
+        }
+        recordStored(Collections.singletonList(dataBodyEntity));
+    }
 
-            md5.update(dataBody.getBytes());
+    /**
+     * Exact retries, same block type and checksum, are answered from {@link IngestDuplicateFilter}; the stored ones
+     * are only looked up for names the filter cannot rule out, so a new name goes straight to the insert. Anything
+     * that differs goes on to the insert, which the unique name rejects as before.
+     */
+    private boolean isStoredDuplicate(DataEnvelope envelope) {
+        if (!ingestDuplicateFilter.isEnabled()) {
+            return false;
+        }
+        String name = envelope.getDataHeader().getName();
+        BlockTypeEnum blockType = envelope.getDataHeader().getBlockType();
+        String checksum = envelope.getDataBody().getCheckSum();
+        if (ingestDuplicateFilter.isRecentDuplicate(name, blockType, checksum)) {
+            return true;
+        }
+        if (!ingestDuplicateFilter.mightBeStored(name)) {
+            return false;
+        }
+        Optional<DataBodyChecksum> stored = dataBodyServiceImpl.getChecksumByBlockName(name)
+                .filter(storedChecksum -> storedChecksum.matches(blockType, checksum));
+        if (stored.isPresent()) {
+            ingestDuplicateFilter.recordDuplicate(name, stored.get());
+            return true;
+        }
+        return false;
+    }
 
-            byte[] digest = md5.digest();
+    private void recordStored(List<DataBodyEntity> dataBodyEntities) {
+        if (!ingestDuplicateFilter.isEnabled()) {
+            return;
+        }
+        for (DataBodyEntity dataBodyEntity : dataBodyEntities) {
+            DataHeaderEntity dataHeaderEntity = dataBodyEntity.getDataHeaderEntity();
+            ingestDuplicateFilter.recordStored(dataHeaderEntity.getName(), dataHeaderEntity.getBlocktype(), dataBodyEntity.getChecksum());
+        }
+    }
 
-            StringBuilder result = new StringBuilder();
-            for (byte b : digest) {
-                result.append(String.format("%02x", b));
-            }
+    private DataBodyEntity toDataBodyEntity(DataEnvelope envelope) {
+        DataHeaderEntity dataHeaderEntity = modelMapper.map(envelope.getDataHeader(), DataHeaderEntity.class);
 
-            return result.toString();
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-            return null;
+        DataBodyEntity dataBodyEntity = modelMapper.map(envelope.getDataBody(), DataBodyEntity.class);
+        dataBodyEntity.setDataHeaderEntity(dataHeaderEntity);
+        dataBodyEntity.setChecksum(envelope.getDataBody().getCheckSum());
+        String body = envelope.getDataBody().getDataBody();
+        if (body.length() >= ingestProperties.getBodyCompressionMinChars()) {
+            dataBodyEntity.setDataBody(body, ingestProperties.getBodyCodec());
         }
+        return dataBodyEntity;
+    }
+
+    private boolean checksumMatches(DataEnvelope envelope, ChecksumAlgorithm checksumAlgorithm) {
+        return Objects.equals(checksumAlgorithm.checksum(envelope.getDataBody().getDataBody()), envelope.getDataBody().getCheckSum());
     }
 
     private void saveData(DataBodyEntity dataBodyEntity) {
         dataBodyServiceImpl.saveDataBody(dataBodyEntity);
     }
 
-    private static final String DATA_LAKE_URL = "http://localhost:8090/hadoopserver/pushbigdata";
-
+    /**
+     * @param payload
+     * @return the data lake response, or null if the push failed.
+     */
     @Override
     public CompletableFuture<String> pushDataToDataLakeAsync(String payload) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpPost httpPost = new HttpPost(DATA_LAKE_URL);
-                httpPost.setEntity(new StringEntity(payload));
-
-                // Configure request timeout and connection timeout
-                RequestConfig requestConfig = RequestConfig.custom()
-                        .setSocketTimeout(60000)  // Socket timeout (adjust as needed)
-                        .setConnectTimeout(10000) // Connection timeout (adjust as needed)
-                        .build();
-                httpPost.setConfig(requestConfig);
-
-                // Execute the request and get the response
-                CloseableHttpResponse response = httpClient.execute(httpPost);
-                int statusCode = response.getStatusLine().getStatusCode();
-
-                if (statusCode == 200) {
-                    HttpEntity responseEntity = response.getEntity();
-                    return EntityUtils.toString(responseEntity);
-                } else {
-                    log.info("Data Lake persistence  Failed");
+        return hadoopClient.pushBigDataAsync(payload)
+                .exceptionally(e -> {
+                    log.warn("Data Lake persistence failed: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+
+    /**
+     * Reads lines of at most {@code maxChars}; the rest of a longer line is read past up to its newline without
+     * being kept, so one oversized line costs no more memory than a valid one.
+     */
+    private static final class BoundedLineReader {
+
+        private final Reader reader;
+        private final int maxChars;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean overLong;
+
+        private BoundedLineReader(Reader reader, int maxChars) {
+            this.reader = reader;
+            this.maxChars = maxChars;
+        }
+
+        /**
+         * @return the next line without its terminator, empty if it was over the limit, null at the end.
+         */
+        private String readLine() throws IOException {
+            line.setLength(0);
+            overLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(0, reader.read(buffer, 0, buffer.length));
+                    position = 0;
+                    if (limit == 0) {
+                        return read ? finish() : null;
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                read = true;
+                // a CR ending the line is not part of it
+                int end = position < limit && position > start && buffer[position - 1] == '\r' ? position - 1 : position;
+                if (!overLong && line.length() + end - start > maxChars) {
+                    overLong = true;
+                    line.setLength(0);
+                } else if (!overLong) {
+                    line.append(buffer, start, end - start);
+                }
+                if (position < limit) {
+                    position++;
+                    return finish();
                 }
-            } catch (Exception e) {
-                // Handle exceptions and retries here
             }
-            return null;
-        });
+        }
+
+        private boolean isOverLong() {
+            return overLong;
+        }
+
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
     }
 
+    /**
+     * Passes everything through and keeps a copy until it grows past {@code limit} bytes.
+     */
+    private static final class CopyingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CopyingOutputStream(OutputStream out, long limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+
+        /**
+         * @return everything written so far, or null once the limit was exceeded.
+         */
+        private ByteArrayOutputStream getCopy() {
+            return copy;
+        }
+    }
 }
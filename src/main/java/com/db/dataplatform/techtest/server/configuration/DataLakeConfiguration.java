@@ -0,0 +1,131 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import com.db.dataplatform.techtest.server.component.impl.DataLakeCircuitBreaker;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeConcurrencyLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.apache.http.HeaderElement;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HTTP;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+
+/**
+ * Long lived non-blocking HTTP client shared by all data lake pushes, and the executor running outbox uploads.
+ */
+@Configuration
+public class DataLakeConfiguration {
+
+    public static final String DATA_LAKE_OUTBOX_EXECUTOR = "dataLakeOutboxExecutor";
+    public static final String DATA_LAKE_METRIC_NAME = "dataLake";
+
+    @Bean(destroyMethod = "shutdown")
+    public PoolingNHttpClientConnectionManager dataLakeConnectionManager(DataLakeProperties dataLakeProperties)
+            throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(dataLakeProperties.getIoThreads())
+                .setConnectTimeout(dataLakeProperties.getConnectTimeoutMillis())
+                .setSoTimeout(dataLakeProperties.getSocketTimeoutMillis())
+                .build();
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                new DefaultConnectingIOReactor(ioReactorConfig, new CustomizableThreadFactory("data-lake-io-")));
+        connectionManager.setMaxTotal(dataLakeProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(dataLakeProperties.getMaxConnectionsPerRoute());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient dataLakeHttpClient(PoolingNHttpClientConnectionManager dataLakeConnectionManager,
+                                                       DataLakeProperties dataLakeProperties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(dataLakeProperties.getConnectTimeoutMillis())
+                .setSocketTimeout(dataLakeProperties.getSocketTimeoutMillis())
+                .setConnectionRequestTimeout(dataLakeProperties.getConnectionRequestTimeoutMillis())
+                .build();
+
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(dataLakeConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(dataLakeProperties.getKeepAliveMillis()))
+                .setThreadFactory(new CustomizableThreadFactory("data-lake-reactor-"))
+                .build();
+        httpClient.start();
+        return httpClient;
+    }
+
+    /**
+     * Encodes outbox batches and starts their uploads, which do not wait for the response. The queue can hold one
+     * upload per in-flight entry, which the relay already bounds.
+     */
+    @Bean(name = DATA_LAKE_OUTBOX_EXECUTOR)
+    public ThreadPoolTaskExecutor dataLakeOutboxExecutor(DataLakeProperties dataLakeProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(dataLakeProperties.getOutboxWorkers());
+        executor.setMaxPoolSize(dataLakeProperties.getOutboxWorkers());
+        executor.setQueueCapacity(dataLakeProperties.getOutboxMaxInFlight());
+        executor.setThreadNamePrefix("data-lake-outbox-");
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder dataLakeMetrics(@Qualifier(DATA_LAKE_OUTBOX_EXECUTOR) ThreadPoolTaskExecutor dataLakeOutboxExecutor,
+                                       PoolingNHttpClientConnectionManager dataLakeConnectionManager,
+                                       DataLakeCircuitBreaker dataLakeCircuitBreaker,
+                                       DataLakeConcurrencyLimiter dataLakeConcurrencyLimiter) {
+        return registry -> {
+            new ExecutorServiceMetrics(dataLakeOutboxExecutor.getThreadPoolExecutor(), DATA_LAKE_METRIC_NAME, Collections.emptyList())
+                    .bindTo(registry);
+            new PoolingHttpClientConnectionManagerMetricsBinder(dataLakeConnectionManager, DATA_LAKE_METRIC_NAME)
+                    .bindTo(registry);
+
+            for (DataLakeCircuitBreaker.State state : DataLakeCircuitBreaker.State.values()) {
+                Gauge.builder("datalake.breaker.state", dataLakeCircuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                        .tag("state", state.name().toLowerCase())
+                        .register(registry);
+            }
+            Gauge.builder("datalake.breaker.failure.rate", dataLakeCircuitBreaker, DataLakeCircuitBreaker::getFailureRate)
+                    .register(registry);
+            FunctionCounter.builder("datalake.breaker.rejected", dataLakeCircuitBreaker, DataLakeCircuitBreaker::getRejected)
+                    .register(registry);
+            Gauge.builder("datalake.limiter.limit", dataLakeConcurrencyLimiter, DataLakeConcurrencyLimiter::getLimit)
+                    .register(registry);
+            Gauge.builder("datalake.limiter.inflight", dataLakeConcurrencyLimiter, DataLakeConcurrencyLimiter::getInFlight)
+                    .register(registry);
+            FunctionCounter.builder("datalake.limiter.rejected", dataLakeConcurrencyLimiter, DataLakeConcurrencyLimiter::getRejected)
+                    .register(registry);
+        };
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveMillis) {
+        return (response, context) -> {
+            BasicHeaderElementIterator iterator = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (iterator.hasNext()) {
+                HeaderElement element = iterator.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Long.parseLong(element.getValue()) * 1000;
+                    } catch (NumberFormatException ignored) {
+                        // fall back to the configured keep-alive
+                    }
+                }
+            }
+            return defaultKeepAliveMillis;
+        };
+    }
+}
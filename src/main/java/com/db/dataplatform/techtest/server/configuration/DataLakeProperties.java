@@ -0,0 +1,120 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "datalake")
+@Getter
+@Setter
+public class DataLakeProperties {
+
+    private String url = "http://localhost:8090/hadoopserver/pushbigdata";
+
+    private int connectTimeoutMillis = 10000;
+
+    private int socketTimeoutMillis = 60000;
+
+    /**
+     * How long a push waits for a free pooled connection before failing.
+     */
+    private int connectionRequestTimeoutMillis = 5000;
+
+    /**
+     * Every in-flight push holds its own connection, the I/O threads multiplex all of them.
+     */
+    private int maxConnections = 2000;
+
+    private int maxConnectionsPerRoute = 2000;
+
+    /**
+     * Keep-alive used when the data lake does not announce one.
+     */
+    private long keepAliveMillis = 30000;
+
+    /**
+     * How often pooled connections past their keep-alive, or idle for longer than it, are closed.
+     */
+    private long connectionEvictionIntervalMillis = 5000;
+
+    /**
+     * Threads of the non-blocking HTTP client; they only move bytes, so a few are enough for thousands of pushes.
+     */
+    private int ioThreads = 2;
+
+    private long outboxPollIntervalMillis = 500;
+
+    /**
+     * Parallel relay workers, each uploads one batch at a time.
+     */
+    private int outboxWorkers = 8;
+
+    /**
+     * Outbox entries claimed by the relay and not yet acknowledged.
+     */
+    private int outboxMaxInFlight = 2000;
+
+    /**
+     * Delivery attempts per outbox entry before it is moved to the dead letter state.
+     */
+    private int retryMaxAttempts = 5;
+
+    private long retryInitialIntervalMillis = 500;
+
+    private double retryMultiplier = 2.0;
+
+    private long retryMaxIntervalMillis = 10000;
+
+    /**
+     * Coalesce outbox entries into multi-record uploads. When disabled every entry is pushed on its own.
+     */
+    private boolean batchEnabled = true;
+
+    private long batchMaxBytes = 1024 * 1024;
+
+    private int batchMaxRecords = 1000;
+
+    /**
+     * How long the first record of a batch waits for more records before the batch is sent anyway.
+     */
+    private long batchLingerMillis = 200;
+
+    private DataLakeCompression batchCompression = DataLakeCompression.GZIP;
+
+    /**
+     * Failure rate, in percent of the last {@code breakerWindowSize} calls, that opens the circuit breaker.
+     */
+    private int breakerFailureRatePercent = 75;
+
+    private int breakerWindowSize = 20;
+
+    /**
+     * Calls recorded before the failure rate is evaluated.
+     */
+    private int breakerMinimumCalls = 10;
+
+    /**
+     * How long an open breaker sheds calls before letting trial calls through.
+     */
+    private long breakerOpenMillis = 10000;
+
+    private int breakerHalfOpenCalls = 3;
+
+    private int limiterInitialLimit = 50;
+
+    private int limiterMinLimit = 1;
+
+    private int limiterMaxLimit = 2000;
+
+    /**
+     * Factor applied to the concurrency limit on a failed or slow call.
+     */
+    private double limiterBackoffRatio = 0.9;
+
+    /**
+     * Successful calls slower than this are treated like failures by the concurrency limiter.
+     */
+    private long limiterLatencyThresholdMillis = 5000;
+}
@@ -0,0 +1,114 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import com.db.dataplatform.techtest.server.component.impl.GroupCommitter;
+import com.db.dataplatform.techtest.server.component.impl.IngestAdmission;
+import com.db.dataplatform.techtest.server.component.impl.IngestDuplicateFilter;
+import com.db.dataplatform.techtest.server.component.impl.IngestTracker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+
+/**
+ * The executors behind asynchronous and synchronous pushes, and metrics of admission control, the ingest duplicate
+ * filter and group commit.
+ */
+@Configuration
+public class IngestConfiguration {
+
+    public static final String INGEST_EXECUTOR = "ingestExecutor";
+    public static final String INGEST_METRIC_NAME = "ingest";
+    public static final String WRITE_EXECUTOR = "writeExecutor";
+    public static final String WRITE_METRIC_NAME = "write";
+
+    @Bean(name = INGEST_EXECUTOR)
+    public ThreadPoolTaskExecutor ingestExecutor(IngestProperties ingestProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestProperties.getAsyncWorkers());
+        executor.setMaxPoolSize(ingestProperties.getAsyncWorkers());
+        executor.setQueueCapacity(ingestProperties.getAsyncQueueCapacity());
+        executor.setThreadNamePrefix("ingest-");
+        // finish accepted envelopes before the database shuts down
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean(name = WRITE_EXECUTOR)
+    public ThreadPoolTaskExecutor writeExecutor(IngestProperties ingestProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestProperties.getWriteWorkers());
+        executor.setMaxPoolSize(ingestProperties.getWriteWorkers());
+        executor.setQueueCapacity(ingestProperties.getWriteQueueCapacity());
+        executor.setThreadNamePrefix("write-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder writeExecutorMetrics(@Qualifier(WRITE_EXECUTOR) ThreadPoolTaskExecutor writeExecutor) {
+        return registry -> new ExecutorServiceMetrics(writeExecutor.getThreadPoolExecutor(), WRITE_METRIC_NAME,
+                Collections.emptyList()).bindTo(registry);
+    }
+
+    @Bean
+    public MeterBinder asyncIngestMetrics(@Qualifier(INGEST_EXECUTOR) ThreadPoolTaskExecutor ingestExecutor, IngestTracker ingestTracker) {
+        return registry -> {
+            new ExecutorServiceMetrics(ingestExecutor.getThreadPoolExecutor(), INGEST_METRIC_NAME, Collections.emptyList())
+                    .bindTo(registry);
+            Gauge.builder("ingest.tracked", ingestTracker, IngestTracker::getTracked)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder ingestDuplicateFilterMetrics(IngestDuplicateFilter ingestDuplicateFilter) {
+        return registry -> {
+            FunctionCounter.builder("ingest.duplicates", ingestDuplicateFilter, IngestDuplicateFilter::getDuplicates)
+                    .description("Pushes answered as already stored without writing")
+                    .register(registry);
+            FunctionCounter.builder("ingest.new.names", ingestDuplicateFilter, IngestDuplicateFilter::getNewNames)
+                    .description("Pushes whose name the Bloom filter ruled out, skipping the stored checksum lookup")
+                    .register(registry);
+            Gauge.builder("ingest.recent.size", ingestDuplicateFilter, IngestDuplicateFilter::getRecentSize)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder groupCommitMetrics(GroupCommitter groupCommitter) {
+        return registry -> {
+            FunctionCounter.builder("ingest.group.commits", groupCommitter, GroupCommitter::getGroups)
+                    .description("Transactions committed by the group commit flusher")
+                    .register(registry);
+            FunctionCounter.builder("ingest.group.committed", groupCommitter, GroupCommitter::getCommitted)
+                    .description("Envelopes committed by the group commit flusher")
+                    .register(registry);
+            Gauge.builder("ingest.group.queued", groupCommitter, GroupCommitter::getQueued)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder ingestAdmissionMetrics(IngestAdmission ingestAdmission) {
+        return registry -> {
+            FunctionCounter.builder("ingest.admission.rejected", ingestAdmission, IngestAdmission::getRateLimited)
+                    .description("Pushes shed by admission control")
+                    .tag("reason", "rate")
+                    .register(registry);
+            FunctionCounter.builder("ingest.admission.rejected", ingestAdmission, IngestAdmission::getOverloaded)
+                    .description("Pushes shed by admission control")
+                    .tag("reason", "inFlight")
+                    .register(registry);
+            Gauge.builder("ingest.admission.in.flight", ingestAdmission, IngestAdmission::getInFlight)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dataserver.ingest")
+@Getter
+@Setter
+public class IngestProperties {
+
+    /**
+     * Number of envelopes parsed from an NDJSON upload before they are written as one batch. This is also the
+     * upper bound of envelopes held in memory per streaming request.
+     */
+    private int streamChunkSize = 500;
+
+    /**
+     * Longest NDJSON line read as an envelope. A longer line is skipped up to its newline and counted as rejected,
+     * so neither a huge envelope nor a missing newline can make a streaming request buffer the whole upload.
+     */
+    private int streamMaxLineChars = 1024 * 1024;
+
+    /**
+     * Answer retries of envelopes already stored with the same checksum without writing them again, and skip the
+     * stored checksum lookup for names that were never stored.
+     */
+    private boolean duplicateFilterEnabled = true;
+
+    /**
+     * Names the Bloom filter is sized for; beyond this its false positive rate rises and more pushes pay the lookup.
+     */
+    private int duplicateFilterExpectedNames = 1_000_000;
+
+    /**
+     * Share of never stored names the Bloom filter reports as possibly stored.
+     */
+    private double duplicateFilterFalsePositiveRate = 0.01;
+
+    /**
+     * Most recently stored (name, checksum) pairs kept to answer exact retries without a lookup.
+     */
+    private int duplicateCacheMaxEntries = 10_000;
+
+    /**
+     * Commit single envelope pushes in groups on one flusher thread instead of one transaction per request. A
+     * request is still only acknowledged once its group has committed.
+     */
+    private boolean groupCommitEnabled = false;
+
+    /**
+     * Most envelopes committed in one transaction.
+     */
+    private int groupCommitMaxSize = 100;
+
+    /**
+     * Longest a queued envelope waits for more to join its group; the latency traded for fewer commits.
+     */
+    private long groupCommitMaxLingerMillis = 2;
+
+    /**
+     * Envelopes waiting for the flusher; further requests block until there is room.
+     */
+    private int groupCommitQueueCapacity = 10_000;
+
+    /**
+     * Longest a request waits for room in the queue and for its envelope to be taken into a group before it is
+     * answered 503, with nothing written. An envelope already taken waits for its group's transaction.
+     */
+    private long groupCommitTimeoutMillis = 30_000;
+
+    /**
+     * Threads writing envelopes accepted by the asynchronous push.
+     */
+    private int asyncWorkers = 8;
+
+    /**
+     * Accepted envelopes waiting for a worker; further asynchronous pushes are refused with 503.
+     */
+    private int asyncQueueCapacity = 10_000;
+
+    /**
+     * Tracking ids whose status is kept for polling, the oldest are forgotten first.
+     */
+    private int asyncMaxTracked = 100_000;
+
+    /**
+     * Threads running synchronous pushes and block type updates, so servlet threads are not held by the database.
+     */
+    private int writeWorkers = 32;
+
+    /**
+     * Synchronous writes waiting for a worker; further writes are refused with 503.
+     */
+    private int writeQueueCapacity = 1_000;
+
+    /**
+     * Shed pushes over the producer rate limits or the in-flight cap instead of queuing them. Off by default, as
+     * clients sending neither {@code X-Producer-Id} nor dashed names would all share the one default producer's rate.
+     */
+    private boolean admissionEnabled = false;
+
+    /**
+     * Envelopes per second each producer may push, 0 for no limit. Producers are told apart by the
+     * {@code X-Producer-Id} header, or else by the envelope name up to its first dash.
+     */
+    private double admissionRatePerSecond = 500;
+
+    /**
+     * Envelopes a producer may push at once after being idle.
+     */
+    private double admissionBurst = 1_000;
+
+    /**
+     * Push requests admitted but not yet answered, across all producers, 0 for no cap.
+     */
+    private int admissionMaxInFlight = 256;
+
+    /**
+     * Producers whose rate limit state is kept, the least recently seen are forgotten first.
+     */
+    private int admissionMaxProducers = 10_000;
+
+    /**
+     * Codec for stored bodies of at least {@link #bodyCompressionMinChars}; a body the codec does not shrink is
+     * stored as plain UTF-8. Deflate cuts repetitive JSON to a fraction but costs CPU on every write and full read.
+     */
+    private BodyCodec bodyCodec = BodyCodec.DEFLATE;
+
+    /**
+     * Shorter bodies are stored as plain UTF-8 without trying the codec.
+     */
+    private int bodyCompressionMinChars = 128;
+}
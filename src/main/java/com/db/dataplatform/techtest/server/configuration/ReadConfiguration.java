@@ -0,0 +1,70 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import com.db.dataplatform.techtest.server.component.impl.BlockTypeResultCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+
+/**
+ * The executor running reads, and metrics of the block type result cache under Micrometer's usual cache meter names.
+ */
+@Configuration
+public class ReadConfiguration {
+
+    public static final String BLOCK_TYPE_CACHE_METRIC_NAME = "blockTypeResults";
+    public static final String READ_EXECUTOR = "readExecutor";
+    public static final String READ_METRIC_NAME = "read";
+
+    @Bean(name = READ_EXECUTOR)
+    public ThreadPoolTaskExecutor readExecutor(ReadProperties readProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(readProperties.getWorkers());
+        executor.setMaxPoolSize(readProperties.getWorkers());
+        executor.setQueueCapacity(readProperties.getQueueCapacity());
+        executor.setThreadNamePrefix("read-");
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder readExecutorMetrics(@Qualifier(READ_EXECUTOR) ThreadPoolTaskExecutor readExecutor) {
+        return registry -> new ExecutorServiceMetrics(readExecutor.getThreadPoolExecutor(), READ_METRIC_NAME,
+                Collections.emptyList()).bindTo(registry);
+    }
+
+    @Bean
+    public MeterBinder blockTypeResultCacheMetrics(BlockTypeResultCache blockTypeResultCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", blockTypeResultCache, BlockTypeResultCache::getHits)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", blockTypeResultCache, BlockTypeResultCache::getMisses)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cache.puts", blockTypeResultCache, BlockTypeResultCache::getPuts)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", blockTypeResultCache, BlockTypeResultCache::getEvictions)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .register(registry);
+            FunctionCounter.builder("cache.invalidations", blockTypeResultCache, BlockTypeResultCache::getInvalidations)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .register(registry);
+            Gauge.builder("cache.size", blockTypeResultCache, BlockTypeResultCache::getSize)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .register(registry);
+            Gauge.builder("cache.weight", blockTypeResultCache, BlockTypeResultCache::getWeight)
+                    .tag("cache", BLOCK_TYPE_CACHE_METRIC_NAME)
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
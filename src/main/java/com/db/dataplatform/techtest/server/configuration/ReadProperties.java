@@ -0,0 +1,65 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dataserver.read")
+@Getter
+@Setter
+public class ReadProperties {
+
+    /**
+     * Envelopes per page when a paginated read does not ask for a limit.
+     */
+    private int pageSize = 500;
+
+    /**
+     * Upper bound for the limit a client may ask for.
+     */
+    private int maxPageSize = 5000;
+
+    /**
+     * How old an envelope must be before an incremental {@code since} poll returns it and moves its watermark past
+     * it. Should exceed the longest write transaction, so envelopes still committing are not skipped.
+     */
+    private long watermarkSettleMillis = 2_000;
+
+    /**
+     * Keep the serialized JSON of full block type reads in memory until a write to that block type commits.
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * Most block type results held at once.
+     */
+    private int cacheMaxEntries = 16;
+
+    /**
+     * Most bytes of serialized results held at once, least recently used results are evicted first.
+     */
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    /**
+     * Results larger than this are streamed to the client but not cached.
+     */
+    private long cacheMaxEntryBytes = 16L * 1024 * 1024;
+
+    /**
+     * Threads running reads, sized apart from the writers so a burst of pushes cannot hold them up.
+     */
+    private int workers = 16;
+
+    /**
+     * Reads waiting for a worker; further reads are refused with 503.
+     */
+    private int queueCapacity = 1_000;
+
+    /**
+     * Longest an async request, such as a full block type read, may run before Spring MVC times it out. Stream
+     * subscriptions have their own timeout.
+     */
+    private long asyncTimeoutMillis = 10 * 60 * 1000;
+}
@@ -0,0 +1,6 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+public enum StorageEngine {
+    DATABASE,
+    SEGMENTS
+}
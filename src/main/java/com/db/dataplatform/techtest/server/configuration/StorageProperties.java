@@ -0,0 +1,68 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "dataserver.storage")
+@Getter
+@Setter
+public class StorageProperties {
+
+    /**
+     * Where bodies are stored. {@link StorageEngine#SEGMENTS} appends them to memory-mapped files instead of the
+     * database; the data lake outbox stays in the database either way.
+     */
+    private StorageEngine engine = StorageEngine.DATABASE;
+
+    /**
+     * Directory of the segment files, created if missing. Bodies stored there are read back on restart.
+     */
+    private String segmentDirectory = "data/segments";
+
+    /**
+     * Size each segment file is mapped at; a body larger than this gets a segment of its own.
+     */
+    private int segmentBytes = 64 * 1024 * 1024;
+
+    /**
+     * Force every write to disk before acknowledging it. Otherwise the OS writes mapped pages back on its own, which
+     * survives a crash of the JVM but not of the machine.
+     */
+    private boolean segmentSyncOnWrite = false;
+
+    /**
+     * How often sealed segments are checked for compaction.
+     */
+    private long compactionIntervalMillis = 30_000;
+
+    /**
+     * Share of sealed segment bytes taken by replaced or deleted bodies before their live bodies are copied to new
+     * segments and the old ones deleted.
+     */
+    private double compactionMinGarbageRatio = 0.5;
+
+    /**
+     * Window of the time partitions of the segments engine. Each block type and window gets segments of its own,
+     * so retention drops whole files; a body is kept until the whole window of its created timestamp has expired.
+     */
+    private long partitionMillis = 24 * 60 * 60 * 1000L;
+
+    /**
+     * How long bodies of a block type are kept after their created timestamp, e.g. {@code 7d}. Block types not
+     * listed are kept forever. Only the segments engine enforces this; the database engine keeps everything.
+     */
+    private Map<BlockTypeEnum, Duration> retention = new EnumMap<>(BlockTypeEnum.class);
+
+    /**
+     * How often expired partitions are dropped.
+     */
+    private long purgeIntervalMillis = 60_000;
+}
@@ -0,0 +1,44 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import com.db.dataplatform.techtest.server.component.impl.DataEnvelopeStream;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * The executor sending change feed events, and metrics of its subscribers.
+ */
+@Configuration
+public class StreamConfiguration {
+
+    public static final String STREAM_EXECUTOR = "streamExecutor";
+
+    /**
+     * Each subscriber has at most one task queued or running, so the queue is bounded by the subscribers.
+     */
+    @Bean(name = STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor streamExecutor(StreamProperties streamProperties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamProperties.getSenderThreads());
+        executor.setMaxPoolSize(streamProperties.getSenderThreads());
+        executor.setThreadNamePrefix("stream-");
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder dataEnvelopeStreamMetrics(DataEnvelopeStream dataEnvelopeStream) {
+        return registry -> {
+            Gauge.builder("stream.subscribers", dataEnvelopeStream, DataEnvelopeStream::getSubscribers)
+                    .register(registry);
+            FunctionCounter.builder("stream.events", dataEnvelopeStream, DataEnvelopeStream::getEvents)
+                    .description("Envelopes published to the change feed")
+                    .register(registry);
+            FunctionCounter.builder("stream.dropped", dataEnvelopeStream, DataEnvelopeStream::getDropped)
+                    .description("Subscribers disconnected for falling behind")
+                    .register(registry);
+        };
+    }
+}
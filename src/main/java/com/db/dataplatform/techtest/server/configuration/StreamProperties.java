@@ -0,0 +1,44 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "dataserver.stream")
+@Getter
+@Setter
+public class StreamProperties {
+
+    /**
+     * Recent events kept per block type for subscribers resuming with {@code Last-Event-ID}. A subscriber further
+     * behind is told to reset and read the block type again.
+     */
+    private int replayEvents = 1_000;
+
+    /**
+     * Events waiting to be sent to one subscriber; a subscriber falling further behind is disconnected.
+     */
+    private int subscriberBufferEvents = 256;
+
+    /**
+     * Most subscribers across all block types; further subscriptions are refused with 503.
+     */
+    private int maxSubscribers = 10_000;
+
+    /**
+     * A comment is sent to idle subscribers this often, so proxies keep the connection and dead ones are noticed.
+     */
+    private long heartbeatMillis = 15_000;
+
+    /**
+     * Subscriptions are closed after this long, clients reconnect with their last event id.
+     */
+    private long timeoutMillis = 30L * 60 * 1000;
+
+    /**
+     * Threads writing events to subscribers. Idle subscribers hold none.
+     */
+    private int senderThreads = 4;
+}
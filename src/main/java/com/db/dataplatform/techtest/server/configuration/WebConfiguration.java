@@ -0,0 +1,27 @@
+package com.db.dataplatform.techtest.server.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streaming response bodies are written by the read executor within Spring MVC's async request lifecycle, so a
+ * timed out or dropped request is completed by the container rather than written to after it has been recycled.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfiguration implements WebMvcConfigurer {
+
+    @Qualifier(ReadConfiguration.READ_EXECUTOR)
+    private final ThreadPoolTaskExecutor readExecutor;
+    private final ReadProperties readProperties;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(readExecutor);
+        configurer.setDefaultTimeout(readProperties.getAsyncTimeoutMillis());
+    }
+}
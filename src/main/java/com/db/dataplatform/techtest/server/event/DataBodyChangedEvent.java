@@ -0,0 +1,31 @@
+package com.db.dataplatform.techtest.server.event;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published when bodies of the given block types were written. Listeners should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener} so they only see committed changes.
+ */
+@AllArgsConstructor
+@Getter
+public class DataBodyChangedEvent {
+
+    private final Set<BlockTypeEnum> blockTypes;
+
+    /**
+     * The bodies stored, replaced or moved, each in the block type it has now. Empty where the write does not tell,
+     * i.e. deletes and set-based block type updates.
+     */
+    private final List<DataBodyProjection> dataBodies;
+
+    public DataBodyChangedEvent(Set<BlockTypeEnum> blockTypes) {
+        this(blockTypes, Collections.emptyList());
+    }
+}
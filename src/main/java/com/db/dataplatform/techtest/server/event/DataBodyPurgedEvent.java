@@ -0,0 +1,20 @@
+package com.db.dataplatform.techtest.server.event;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published when bodies were dropped because their block type's retention expired. Unlike a delete, this does not
+ * go through {@link com.db.dataplatform.techtest.server.component.Server}.
+ */
+@AllArgsConstructor
+@Getter
+public class DataBodyPurgedEvent {
+
+    private final BlockTypeEnum blockType;
+
+    private final List<String> names;
+}
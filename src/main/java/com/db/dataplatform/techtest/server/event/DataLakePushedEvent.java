@@ -0,0 +1,16 @@
+package com.db.dataplatform.techtest.server.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published once the data lake outbox entry of a body was acknowledged, or moved to the dead letter state.
+ */
+@AllArgsConstructor
+@Getter
+public class DataLakePushedEvent {
+
+    private final String name;
+
+    private final boolean delivered;
+}
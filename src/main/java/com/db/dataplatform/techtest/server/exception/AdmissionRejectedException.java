@@ -0,0 +1,20 @@
+package com.db.dataplatform.techtest.server.exception;
+
+import lombok.Getter;
+
+/**
+ * A push was shed by admission control, either because its producer is over its rate limit or because too many
+ * pushes are in flight.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final boolean rateLimited;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(final String message, final boolean rateLimited, final long retryAfterSeconds) {
+        super(message);
+        this.rateLimited = rateLimited;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.db.dataplatform.techtest.server.exception;
+
+public class DataLakeDeliveryException extends Exception {
+
+    private final int attempts;
+
+    public DataLakeDeliveryException(final String message, final int attempts, final Throwable cause) {
+        super(message, cause);
+        this.attempts = attempts;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,11 @@
+package com.db.dataplatform.techtest.server.exception;
+
+/**
+ * The data lake call was shed before it was sent, by the circuit breaker or the concurrency limiter.
+ */
+public class DataLakeRejectedException extends HadoopClientException {
+
+    public DataLakeRejectedException(final String message) {
+        super(message);
+    }
+}
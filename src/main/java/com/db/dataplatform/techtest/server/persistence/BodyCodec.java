@@ -0,0 +1,93 @@
+package com.db.dataplatform.techtest.server.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of a stored body, kept beside it as a one byte tag so rows written with different codecs can be read
+ * side by side. Deflate is raw, without zlib header or trailer; the envelope checksum already covers the content.
+ */
+public enum BodyCodec {
+
+    NONE(0) {
+        @Override
+        public byte[] encode(byte[] utf8) {
+            return utf8;
+        }
+
+        @Override
+        public String decode(byte[] encoded) {
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+    },
+
+    DEFLATE(1) {
+        @Override
+        public byte[] encode(byte[] utf8) {
+            Deflater deflater = DEFLATERS.get();
+            deflater.reset();
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length);
+            byte[] buffer = new byte[Math.max(64, utf8.length)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public String decode(byte[] encoded) {
+            Inflater inflater = INFLATERS.get();
+            inflater.reset();
+            inflater.setInput(encoded);
+            byte[] buffer = new byte[Math.max(256, encoded.length * 8)];
+            int length = 0;
+            try {
+                while (!inflater.finished()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    int inflated = inflater.inflate(buffer, length, buffer.length - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalStateException("Truncated deflate body");
+                    }
+                    length += inflated;
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt deflate body", e);
+            }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final int code;
+
+    BodyCodec(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public abstract byte[] encode(byte[] utf8);
+
+    public abstract String decode(byte[] encoded);
+
+    public static BodyCodec of(int code) {
+        for (BodyCodec codec : values()) {
+            if (codec.code == code) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown body codec " + code);
+    }
+}
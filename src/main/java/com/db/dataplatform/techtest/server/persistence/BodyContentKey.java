@@ -0,0 +1,30 @@
+package com.db.dataplatform.techtest.server.persistence;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of a body's UTF-8 bytes, the key its content is stored and shared under. The envelope checksum is not
+ * used because producers pick its algorithm, and a 32 bit CRC is far too short to tell bodies apart.
+ */
+public final class BodyContentKey {
+
+    public static final int LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    });
+
+    private BodyContentKey() {
+    }
+
+    public static byte[] of(byte[] utf8) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        return sha256.digest(utf8);
+    }
+}
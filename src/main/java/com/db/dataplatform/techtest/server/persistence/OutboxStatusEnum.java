@@ -0,0 +1,7 @@
+package com.db.dataplatform.techtest.server.persistence;
+
+public enum OutboxStatusEnum {
+    PENDING,
+    IN_FLIGHT,
+    DEAD_LETTER
+}
@@ -0,0 +1,20 @@
+package com.db.dataplatform.techtest.server.persistence.model;
+
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class BodyCodecConverter implements AttributeConverter<BodyCodec, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(BodyCodec codec) {
+        return codec == null ? null : codec.getCode();
+    }
+
+    @Override
+    public BodyCodec convertToEntityAttribute(Integer code) {
+        return code == null ? null : BodyCodec.of(code);
+    }
+}
@@ -0,0 +1,23 @@
+package com.db.dataplatform.techtest.server.persistence.model;
+
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Checksums travel as lower case hex and are stored as their raw bytes, half the size.
+ */
+@Converter
+public class ChecksumConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String checksum) {
+        return checksum == null ? null : HexEncoder.decode(checksum);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] checksum) {
+        return checksum == null ? null : HexEncoder.encode(checksum);
+    }
+}
@@ -0,0 +1,27 @@
+package com.db.dataplatform.techtest.server.persistence.model;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * What a push is compared against to tell whether it is already stored: the block type and checksum stored
+ * under its name. Selected with a constructor expression, so the body is never read.
+ */
+@Getter
+@AllArgsConstructor
+public class DataBodyChecksum {
+
+    private final BlockTypeEnum blockType;
+
+    private final String checksum;
+
+    /**
+     * @return true if an envelope of this block type and checksum would store nothing new.
+     */
+    public boolean matches(BlockTypeEnum blockType, String checksum) {
+        return this.blockType == blockType && Objects.equals(this.checksum, checksum);
+    }
+}
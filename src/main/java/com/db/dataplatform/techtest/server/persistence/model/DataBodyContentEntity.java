@@ -0,0 +1,49 @@
+package com.db.dataplatform.techtest.server.persistence.model;
+
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * A body stored once for every envelope whose body has the same {@link com.db.dataplatform.techtest.server.persistence.BodyContentKey}.
+ * Rows and their reference counts are only written through
+ * {@link com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentReferenceRepository}.
+ */
+@Entity
+@Immutable
+@Table(name = "DATA_BODY_CONTENT")
+@Getter
+public class DataBodyContentEntity {
+
+    @Id
+    @Column(name = "CONTENT_KEY")
+    private byte[] contentKey;
+
+    @Column(name = "BODY_CODEC")
+    @Convert(converter = BodyCodecConverter.class)
+    private BodyCodec bodyCodec;
+
+    @Column(name = "DATA_BODY")
+    private byte[] encodedBody;
+
+    @Column(name = "REF_COUNT")
+    private long refCount;
+
+    @Column(name = "CREATED_TIMESTAMP")
+    private Instant createdTimestamp;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private String dataBody;
+
+    public String getDataBody() {
+        if (dataBody == null && encodedBody != null) {
+            dataBody = bodyCodec.decode(encodedBody);
+        }
+        return dataBody;
+    }
+}
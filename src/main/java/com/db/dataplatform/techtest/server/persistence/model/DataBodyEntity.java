@@ -1,11 +1,20 @@
 package com.db.dataplatform.techtest.server.persistence.model;
 
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import com.db.dataplatform.techtest.server.persistence.BodyContentKey;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import javax.persistence.*;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
+/**
+ * The body itself is stored once per distinct content in {@link DataBodyContentEntity}, this row only holds its
+ * {@link BodyContentKey}. A body set for writing is encoded, see {@link BodyCodec}, only when its content turns out
+ * not to be stored yet; a loaded entity decodes the shared content on the first {@link #getDataBody()} call.
+ */
 @Entity
 @Table(name = "DATA_STORE")
 @Setter
@@ -13,7 +22,7 @@ import java.time.Instant;
 public class DataBodyEntity {
 
     @Id
-    @SequenceGenerator(name = "dataStoreSequenceGenerator", sequenceName = "SEQ_DATA_STORE", allocationSize = 1)
+    @SequenceGenerator(name = "dataStoreSequenceGenerator", sequenceName = "SEQ_DATA_STORE", allocationSize = 50)
     @GeneratedValue(generator = "dataStoreSequenceGenerator")
     @Column(name = "DATA_STORE_ID")
     private Long dataStoreId;
@@ -22,15 +31,85 @@ public class DataBodyEntity {
     @JoinColumn(name = "DATA_HEADER_ID")
     private DataHeaderEntity dataHeaderEntity;
 
-    @Column(name = "DATA_BODY")
+    @Column(name = "CONTENT_KEY")
+    @Setter(AccessLevel.NONE)
+    private byte[] contentKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "CONTENT_KEY", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    private DataBodyContentEntity content;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    private BodyCodec bodyCodec;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    private byte[] encodedBody;
+
+    @Transient
     private String dataBody;
 
     @Column(name = "CREATED_TIMESTAMP")
     private Instant createdTimestamp;
 
     @Column(name = "CHECKSUM")
+    @Convert(converter = ChecksumConverter.class)
     private String checksum;
 
+    public String getDataBody() {
+        if (dataBody == null && content != null) {
+            dataBody = content.getDataBody();
+        }
+        return dataBody;
+    }
+
+    public void setDataBody(String dataBody) {
+        setDataBody(dataBody, BodyCodec.NONE);
+    }
+
+    /**
+     * Keys the body by its content and remembers {@code codec} for when it has to be encoded.
+     */
+    public void setDataBody(String dataBody, BodyCodec codec) {
+        this.dataBody = dataBody;
+        this.content = null;
+        this.bodyCodec = dataBody == null ? null : codec;
+        this.encodedBody = null;
+        this.contentKey = dataBody == null ? null : BodyContentKey.of(dataBody.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public BodyCodec getBodyCodec() {
+        encode();
+        return bodyCodec;
+    }
+
+    public byte[] getEncodedBody() {
+        encode();
+        return encodedBody;
+    }
+
+    /**
+     * Encodes the body with the requested codec, or keeps it as plain UTF-8 when the codec does not make it smaller.
+     */
+    private void encode() {
+        if (encodedBody != null || dataBody == null || bodyCodec == null) {
+            return;
+        }
+        byte[] utf8 = dataBody.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = bodyCodec.encode(utf8);
+        if (encoded.length < utf8.length) {
+            encodedBody = encoded;
+        } else {
+            bodyCodec = BodyCodec.NONE;
+            encodedBody = utf8;
+        }
+    }
+
     @PrePersist
     public void setTimestamps() {
         if (createdTimestamp == null) {
@@ -0,0 +1,82 @@
+package com.db.dataplatform.techtest.server.persistence.model;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Read-only view of a stored envelope, selected with a constructor expression so reads never hydrate
+ * {@link DataBodyEntity} and {@link DataHeaderEntity} or put them in the persistence context. The body is
+ * decoded when first asked for, from the row's bytes or from a memory-mapped segment.
+ */
+@Getter
+public class DataBodyProjection {
+
+    private final Long dataStoreId;
+
+    private final String name;
+
+    private final BlockTypeEnum blockType;
+
+    @Getter(AccessLevel.NONE)
+    private final BodyCodec bodyCodec;
+
+    @Getter(AccessLevel.NONE)
+    private final byte[] encodedBody;
+
+    @Getter(AccessLevel.NONE)
+    private final ByteBuffer mappedBody;
+
+    @Getter(AccessLevel.NONE)
+    private String dataBody;
+
+    private final String checksum;
+
+    private final Instant createdTimestamp;
+
+    public DataBodyProjection(Long dataStoreId, String name, BlockTypeEnum blockType, BodyCodec bodyCodec,
+                              byte[] encodedBody, String checksum, Instant createdTimestamp) {
+        this.dataStoreId = dataStoreId;
+        this.name = name;
+        this.blockType = blockType;
+        this.bodyCodec = bodyCodec;
+        this.encodedBody = encodedBody;
+        this.mappedBody = null;
+        this.checksum = checksum;
+        this.createdTimestamp = createdTimestamp;
+    }
+
+    /**
+     * @param mappedBody UTF-8 bytes of the body, decoded straight from this buffer without copying them first.
+     */
+    public DataBodyProjection(Long dataStoreId, String name, BlockTypeEnum blockType, ByteBuffer mappedBody, String checksum,
+                              Instant createdTimestamp) {
+        this.dataStoreId = dataStoreId;
+        this.name = name;
+        this.blockType = blockType;
+        this.bodyCodec = null;
+        this.encodedBody = null;
+        this.mappedBody = mappedBody;
+        this.checksum = checksum;
+        this.createdTimestamp = createdTimestamp;
+    }
+
+    public DataBodyProjection(Long dataStoreId, String name, BlockTypeEnum blockType, String dataBody, String checksum) {
+        this(dataStoreId, name, blockType, null, null, checksum, null);
+        this.dataBody = dataBody;
+    }
+
+    public String getDataBody() {
+        if (dataBody == null && encodedBody != null) {
+            dataBody = bodyCodec.decode(encodedBody);
+        } else if (dataBody == null && mappedBody != null) {
+            dataBody = StandardCharsets.UTF_8.decode(mappedBody.duplicate()).toString();
+        }
+        return dataBody;
+    }
+}
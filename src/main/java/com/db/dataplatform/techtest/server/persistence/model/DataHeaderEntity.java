@@ -17,7 +17,7 @@ import java.time.Instant;
 public class DataHeaderEntity {
 
     @Id
-    @SequenceGenerator(name = "dataHeaderSequenceGenerator", sequenceName = "SEQ_DATA_HEADER", allocationSize = 1)
+    @SequenceGenerator(name = "dataHeaderSequenceGenerator", sequenceName = "SEQ_DATA_HEADER", allocationSize = 50)
     @GeneratedValue(generator = "dataHeaderSequenceGenerator")
     @Column(name = "DATA_HEADER_ID")
     private Long dataHeaderId;
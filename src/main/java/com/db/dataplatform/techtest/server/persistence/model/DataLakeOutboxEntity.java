@@ -0,0 +1,57 @@
+package com.db.dataplatform.techtest.server.persistence.model;
+
+import com.db.dataplatform.techtest.server.persistence.OutboxStatusEnum;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * A data lake push that still has to be delivered. Rows are written in the same transaction as the data they
+ * carry and removed once the data lake acknowledged them.
+ */
+@Entity
+@Table(name = "DATA_LAKE_OUTBOX")
+@Setter
+@Getter
+public class DataLakeOutboxEntity {
+
+    @Id
+    @SequenceGenerator(name = "dataLakeOutboxSequenceGenerator", sequenceName = "SEQ_DATA_LAKE_OUTBOX", allocationSize = 50)
+    @GeneratedValue(generator = "dataLakeOutboxSequenceGenerator")
+    @Column(name = "OUTBOX_ID")
+    private Long outboxId;
+
+    @Column(name = "NAME")
+    private String name;
+
+    @Column(name = "PAYLOAD")
+    private String payload;
+
+    @Column(name = "STATUS")
+    @Enumerated(EnumType.STRING)
+    private OutboxStatusEnum status;
+
+    @Column(name = "ATTEMPTS")
+    private int attempts;
+
+    @Column(name = "NEXT_ATTEMPT_TIMESTAMP")
+    private Instant nextAttemptTimestamp;
+
+    @Column(name = "LAST_ERROR")
+    private String lastError;
+
+    @Column(name = "CREATED_TIMESTAMP")
+    private Instant createdTimestamp;
+
+    @PrePersist
+    public void setTimestamps() {
+        if (createdTimestamp == null) {
+            createdTimestamp = Instant.now();
+        }
+        if (nextAttemptTimestamp == null) {
+            nextAttemptTimestamp = createdTimestamp;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+
+import java.util.List;
+
+public interface DataBodyContentReferenceRepository {
+
+    /**
+     * Takes one reference on the stored content of every body, in one batch, and inserts the content that is not
+     * stored yet. Only inserted bodies are encoded and sent to the database. Must run in the transaction that
+     * writes the bodies.
+     *
+     * @return the number of contents inserted.
+     */
+    int acquireContent(List<DataBodyEntity> dataBodies);
+
+    /**
+     * Drops one reference per key, a key listed twice drops two, and deletes the content no body refers to any
+     * more. Must run after the rows that referred to the keys were changed or deleted.
+     *
+     * @return the number of contents deleted.
+     */
+    int releaseContent(List<byte[]> contentKeys);
+}
@@ -0,0 +1,101 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class DataBodyContentReferenceRepositoryImpl implements DataBodyContentReferenceRepository {
+
+    public static final String INCREMENT_REFERENCES = "update DATA_BODY_CONTENT set REF_COUNT = REF_COUNT + ? where CONTENT_KEY = ?";
+
+    // content inserted by a concurrent transaction since the increment missed it is matched and referenced instead
+    public static final String MERGE_CONTENT = "merge into DATA_BODY_CONTENT c "
+            + "using (select cast(? as varbinary(32)) CONTENT_KEY, cast(? as tinyint) BODY_CODEC, cast(? as varbinary) DATA_BODY, "
+            + "cast(? as bigint) REF_COUNT, cast(? as timestamp(6)) CREATED_TIMESTAMP) s "
+            + "on c.CONTENT_KEY = s.CONTENT_KEY "
+            + "when matched then update set REF_COUNT = c.REF_COUNT + s.REF_COUNT "
+            + "when not matched then insert (CONTENT_KEY, BODY_CODEC, DATA_BODY, REF_COUNT, CREATED_TIMESTAMP) "
+            + "values (s.CONTENT_KEY, s.BODY_CODEC, s.DATA_BODY, s.REF_COUNT, s.CREATED_TIMESTAMP)";
+
+    public static final String DECREMENT_REFERENCES = "update DATA_BODY_CONTENT set REF_COUNT = REF_COUNT - ? where CONTENT_KEY = ?";
+
+    // the reference check guards against a count that drifted, content still referred to is never deleted
+    public static final String DELETE_UNREFERENCED = "delete from DATA_BODY_CONTENT c where c.CONTENT_KEY = ? and c.REF_COUNT <= 0 "
+            + "and not exists (select 1 from DATA_STORE b where b.CONTENT_KEY = c.CONTENT_KEY)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int acquireContent(List<DataBodyEntity> dataBodies) {
+        if (dataBodies.isEmpty()) {
+            return 0;
+        }
+        Map<ByteBuffer, ContentReferences> references = new LinkedHashMap<>();
+        for (DataBodyEntity dataBody : dataBodies) {
+            references.computeIfAbsent(ByteBuffer.wrap(dataBody.getContentKey()), key -> new ContentReferences(dataBody)).count++;
+        }
+        List<ContentReferences> contents = new ArrayList<>(references.values());
+        List<Object[]> increments = new ArrayList<>(contents.size());
+        for (ContentReferences content : contents) {
+            increments.add(new Object[]{content.count, content.dataBody.getContentKey()});
+        }
+
+        int[] incremented = jdbcTemplate.batchUpdate(INCREMENT_REFERENCES, increments);
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < incremented.length; i++) {
+            if (incremented[i] == 0) {
+                DataBodyEntity dataBody = contents.get(i).dataBody;
+                inserts.add(new Object[]{dataBody.getContentKey(), dataBody.getBodyCodec().getCode(), dataBody.getEncodedBody(),
+                        contents.get(i).count, now});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE_CONTENT, inserts);
+        }
+        return inserts.size();
+    }
+
+    @Override
+    public int releaseContent(List<byte[]> contentKeys) {
+        if (contentKeys.isEmpty()) {
+            return 0;
+        }
+        Map<ByteBuffer, Integer> references = new LinkedHashMap<>();
+        for (byte[] contentKey : contentKeys) {
+            references.merge(ByteBuffer.wrap(contentKey), 1, Integer::sum);
+        }
+        List<Object[]> decrements = new ArrayList<>(references.size());
+        List<Object[]> keys = new ArrayList<>(references.size());
+        for (Map.Entry<ByteBuffer, Integer> reference : references.entrySet()) {
+            decrements.add(new Object[]{reference.getValue(), reference.getKey().array()});
+            keys.add(new Object[]{reference.getKey().array()});
+        }
+
+        jdbcTemplate.batchUpdate(DECREMENT_REFERENCES, decrements);
+        int deleted = 0;
+        for (int count : jdbcTemplate.batchUpdate(DELETE_UNREFERENCED, keys)) {
+            deleted += count;
+        }
+        return deleted;
+    }
+
+    private static final class ContentReferences {
+
+        private final DataBodyEntity dataBody;
+        private int count;
+
+        private ContentReferences(DataBodyEntity dataBody) {
+            this.dataBody = dataBody;
+        }
+    }
+}
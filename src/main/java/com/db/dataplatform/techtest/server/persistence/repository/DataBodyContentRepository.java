@@ -0,0 +1,9 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyContentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataBodyContentRepository extends JpaRepository<DataBodyContentEntity, byte[]>, DataBodyContentReferenceRepository {
+}
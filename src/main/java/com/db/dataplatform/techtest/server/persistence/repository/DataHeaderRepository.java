@@ -1,10 +1,45 @@
 package com.db.dataplatform.techtest.server.persistence.repository;
 
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
 import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface DataHeaderRepository extends JpaRepository<DataHeaderEntity, Long> {
 
+    char LIKE_ESCAPE = '!';
+
+    /**
+     * @return the number of headers whose block type changed.
+     */
+    @Modifying
+    @Query("update DataHeaderEntity h set h.blocktype = :blockType where h.name in :names and h.blocktype <> :blockType")
+    int updateBlockTypeByNames(@Param("names") Collection<String> names, @Param("blockType") BlockTypeEnum blockType);
+
+    /**
+     * @param pattern a LIKE pattern escaped with {@link #LIKE_ESCAPE}.
+     * @return the number of headers whose block type changed.
+     */
+    @Modifying
+    @Query("update DataHeaderEntity h set h.blocktype = :blockType where h.name like :pattern escape '" + LIKE_ESCAPE + "' "
+            + "and h.blocktype <> :blockType")
+    int updateBlockTypeByNamePattern(@Param("pattern") String pattern, @Param("blockType") BlockTypeEnum blockType);
+
+    /**
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = DataStoreRepository.STREAM_FETCH_SIZE))
+    @Query("select h.name from DataHeaderEntity h")
+    Stream<String> streamNames();
 }
@@ -0,0 +1,29 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.persistence.OutboxStatusEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataLakeOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface DataLakeOutboxRepository extends JpaRepository<DataLakeOutboxEntity, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<DataLakeOutboxEntity> findByStatusAndNextAttemptTimestampLessThanEqualOrderByOutboxIdAsc(
+            OutboxStatusEnum status, Instant now, Pageable pageable);
+
+    List<DataLakeOutboxEntity> findByStatusOrderByOutboxIdAsc(OutboxStatusEnum status, Pageable pageable);
+
+    @Modifying
+    @Query("update DataLakeOutboxEntity o set o.status = :to, o.nextAttemptTimestamp = :now where o.status = :from")
+    int updateStatus(@Param("from") OutboxStatusEnum from, @Param("to") OutboxStatusEnum to, @Param("now") Instant now);
+}
@@ -0,0 +1,18 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DataStoreCreatedRepository {
+
+    /**
+     * Keyset page in created timestamp order: bodies of the block type created in [{@code from}, {@code to}) and
+     * after the position ({@code afterCreated}, {@code afterId}). {@code from} should be no earlier than
+     * {@code afterCreated}, it is where the index seek starts.
+     */
+    List<DataBodyProjection> findPageByBlockTypeCreated(BlockTypeEnum blockType, Instant from, Instant to,
+                                                        Instant afterCreated, long afterId, int limit);
+}
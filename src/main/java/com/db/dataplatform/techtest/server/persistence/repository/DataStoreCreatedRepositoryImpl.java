@@ -0,0 +1,44 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class DataStoreCreatedRepositoryImpl implements DataStoreCreatedRepository {
+
+    /**
+     * Pinned to IDX_DATA_STORE_CREATED: the planner cannot see the bound values and would otherwise start from
+     * every header of the block type. Walking the index in order also ends the read at the page size, so a poll
+     * costs the bodies created since its watermark, whatever the block type holds.
+     */
+    public static final String SELECT_PAGE_BY_BLOCKTYPE_CREATED = "select b.DATA_STORE_ID, h.NAME, h.BLOCKTYPE, "
+            + "c.BODY_CODEC, c.DATA_BODY, b.CHECKSUM, b.CREATED_TIMESTAMP "
+            + "from DATA_STORE b use index (IDX_DATA_STORE_CREATED) "
+            + "join DATA_HEADER h on h.DATA_HEADER_ID = b.DATA_HEADER_ID "
+            + "join DATA_BODY_CONTENT c on c.CONTENT_KEY = b.CONTENT_KEY "
+            + "where b.CREATED_TIMESTAMP >= ? and b.CREATED_TIMESTAMP < ? "
+            + "and (b.CREATED_TIMESTAMP > ? or (b.CREATED_TIMESTAMP = ? and b.DATA_STORE_ID > ?)) "
+            + "and h.BLOCKTYPE = ? "
+            + "order by b.CREATED_TIMESTAMP, b.DATA_STORE_ID fetch first ? rows only";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<DataBodyProjection> findPageByBlockTypeCreated(BlockTypeEnum blockType, Instant from, Instant to,
+                                                               Instant afterCreated, long afterId, int limit) {
+        Timestamp after = Timestamp.from(afterCreated);
+        return jdbcTemplate.query(SELECT_PAGE_BY_BLOCKTYPE_CREATED, (row, rowNum) -> new DataBodyProjection(
+                        row.getLong("DATA_STORE_ID"), row.getString("NAME"), BlockTypeEnum.valueOf(row.getString("BLOCKTYPE")),
+                        BodyCodec.of(row.getInt("BODY_CODEC")), row.getBytes("DATA_BODY"),
+                        HexEncoder.encode(row.getBytes("CHECKSUM")), row.getTimestamp("CREATED_TIMESTAMP").toInstant()),
+                Timestamp.from(from), Timestamp.from(to), after, after, afterId, blockType.name(), limit);
+    }
+}
@@ -1,17 +1,61 @@
 package com.db.dataplatform.techtest.server.persistence.repository;
 
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface DataStoreRepository extends JpaRepository<DataBodyEntity, Long> {
+public interface DataStoreRepository extends JpaRepository<DataBodyEntity, Long>, DataStoreUpsertRepository,
+        DataStoreCreatedRepository {
+
+    String STREAM_FETCH_SIZE = "500";
+
+    String SELECT_PROJECTION = "select new com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection("
+            + "b.dataStoreId, h.name, h.blocktype, c.bodyCodec, c.encodedBody, b.checksum, b.createdTimestamp) "
+            + "from DataBodyEntity b join b.dataHeaderEntity h join b.content c ";
+
     List<DataBodyEntity> findByDataHeaderEntity_Blocktype(BlockTypeEnum blockType);
 
-    Optional<DataBodyEntity> findByDataHeaderEntity_Name(String name);
+    @Query(SELECT_PROJECTION + "where h.blocktype = :blockType order by b.dataStoreId")
+    List<DataBodyProjection> findProjectionsByBlockType(@Param("blockType") BlockTypeEnum blockType);
+
+    /**
+     * Keyset page: bodies of the block type with an id greater than {@code afterId}, in id order. Only the
+     * page size of {@code pageable} is used.
+     */
+    @Query(SELECT_PROJECTION + "where h.blocktype = :blockType and b.dataStoreId > :afterId order by b.dataStoreId")
+    List<DataBodyProjection> findPageByBlockType(@Param("blockType") BlockTypeEnum blockType,
+                                                 @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_PROJECTION + "where h.blocktype = :blockType order by b.dataStoreId")
+    Stream<DataBodyProjection> streamByBlockType(@Param("blockType") BlockTypeEnum blockType);
+
+    /**
+     * Inner join so the unique name index drives the lookup; the derived query's outer join scanned DATA_STORE.
+     */
+    @Query("select b from DataBodyEntity b join fetch b.dataHeaderEntity h where h.name = :name")
+    Optional<DataBodyEntity> findByDataHeaderEntity_Name(@Param("name") String name);
+
+    @Query("select new com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum(h.blocktype, b.checksum) "
+            + "from DataBodyEntity b join b.dataHeaderEntity h where h.name = :name")
+    Optional<DataBodyChecksum> findChecksumByName(@Param("name") String name);
 
 }
@@ -0,0 +1,20 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+
+import java.util.List;
+import java.util.Set;
+
+public interface DataStoreUpsertRepository {
+
+    /**
+     * Merges the headers and bodies by name in one JDBC batch per table. A stored envelope with the same block type
+     * and checksum is left untouched; a written body takes a reference on its content and releases the content it
+     * replaced.
+     *
+     * @param movedFrom collects the block types stored envelopes are moved away from by the merge.
+     * @return per body, in order, whether its header or body was written.
+     */
+    boolean[] upsert(List<DataBodyEntity> dataBodies, Set<BlockTypeEnum> movedFrom);
+}
@@ -0,0 +1,120 @@
+package com.db.dataplatform.techtest.server.persistence.repository;
+
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class DataStoreUpsertRepositoryImpl implements DataStoreUpsertRepository {
+
+    // the name is not narrowed to the column, a cast would truncate an over-long name onto another envelope's name
+    public static final String MERGE_HEADER = "merge into DATA_HEADER h "
+            + "using (select cast(? as varchar) NAME, cast(? as varchar(11)) BLOCKTYPE, cast(? as timestamp(6)) CREATED_TIMESTAMP) s "
+            + "on h.NAME = s.NAME "
+            + "when matched and h.BLOCKTYPE <> s.BLOCKTYPE then update set BLOCKTYPE = s.BLOCKTYPE "
+            + "when not matched then insert (DATA_HEADER_ID, NAME, BLOCKTYPE, CREATED_TIMESTAMP) "
+            + "values (next value for SEQ_DATA_HEADER, s.NAME, s.BLOCKTYPE, s.CREATED_TIMESTAMP)";
+
+    public static final String MERGE_BODY = "merge into DATA_STORE b "
+            + "using (select h.DATA_HEADER_ID, cast(? as varbinary(32)) CONTENT_KEY, cast(? as varbinary(32)) CHECKSUM, "
+            + "cast(? as timestamp(6)) CREATED_TIMESTAMP from DATA_HEADER h where h.NAME = ?) s "
+            + "on b.DATA_HEADER_ID = s.DATA_HEADER_ID "
+            + "when matched and b.CHECKSUM <> s.CHECKSUM then update set CONTENT_KEY = s.CONTENT_KEY, CHECKSUM = s.CHECKSUM "
+            + "when not matched then insert (DATA_STORE_ID, DATA_HEADER_ID, CONTENT_KEY, CHECKSUM, CREATED_TIMESTAMP) "
+            + "values (next value for SEQ_DATA_STORE, s.DATA_HEADER_ID, s.CONTENT_KEY, s.CHECKSUM, s.CREATED_TIMESTAMP)";
+
+    // locked so a concurrent upsert of the same name cannot replace the content between this read and the merge
+    public static final String LOCK_STORED_BODIES = "select h.NAME, h.BLOCKTYPE, b.CONTENT_KEY, b.CHECKSUM from DATA_HEADER h "
+            + "join DATA_STORE b on b.DATA_HEADER_ID = h.DATA_HEADER_ID where h.NAME in (%s) for update";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataBodyContentRepository dataBodyContentRepository;
+
+    /**
+     * Ids come straight from the sequences; each sequence value stands for its own block of the pooled optimizer,
+     * so they never collide with ids Hibernate hands out.
+     */
+    @Override
+    public boolean[] upsert(List<DataBodyEntity> dataBodies, Set<BlockTypeEnum> movedFrom) {
+        Timestamp now = Timestamp.from(Instant.now());
+        Map<String, StoredBody> stored = lockStoredBodies(dataBodies);
+        List<Object[]> headers = new ArrayList<>(dataBodies.size());
+        List<Object[]> bodies = new ArrayList<>(dataBodies.size());
+        List<DataBodyEntity> acquired = new ArrayList<>(dataBodies.size());
+        List<byte[]> released = new ArrayList<>();
+        for (DataBodyEntity dataBody : dataBodies) {
+            String name = dataBody.getDataHeaderEntity().getName();
+            BlockTypeEnum blockType = dataBody.getDataHeaderEntity().getBlocktype();
+            byte[] checksum = HexEncoder.decode(dataBody.getChecksum());
+            headers.add(new Object[]{name, blockType.name(), now});
+            bodies.add(new Object[]{dataBody.getContentKey(), checksum, now, name});
+
+            // mirrors the match conditions of the merges, bodies replaced or added take a reference
+            StoredBody storedBody = stored.get(name);
+            if (storedBody != null && storedBody.blockType != blockType) {
+                movedFrom.add(storedBody.blockType);
+            }
+            if (storedBody == null || !Arrays.equals(storedBody.checksum, checksum)) {
+                acquired.add(dataBody);
+                if (storedBody != null) {
+                    released.add(storedBody.contentKey);
+                }
+                stored.put(name, new StoredBody(blockType, dataBody.getContentKey(), checksum));
+            } else {
+                stored.put(name, new StoredBody(blockType, storedBody.contentKey, storedBody.checksum));
+            }
+        }
+
+        dataBodyContentRepository.acquireContent(acquired);
+        int[] headersWritten = jdbcTemplate.batchUpdate(MERGE_HEADER, headers);
+        int[] bodiesWritten = jdbcTemplate.batchUpdate(MERGE_BODY, bodies);
+        dataBodyContentRepository.releaseContent(released);
+        boolean[] written = new boolean[dataBodies.size()];
+        for (int i = 0; i < written.length; i++) {
+            written[i] = headersWritten[i] > 0 || bodiesWritten[i] > 0;
+        }
+        return written;
+    }
+
+    private Map<String, StoredBody> lockStoredBodies(List<DataBodyEntity> dataBodies) {
+        Map<String, StoredBody> stored = new HashMap<>();
+        if (dataBodies.isEmpty()) {
+            return stored;
+        }
+        Object[] names = new Object[dataBodies.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = dataBodies.get(i).getDataHeaderEntity().getName();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(names.length, "?"));
+        jdbcTemplate.query(String.format(LOCK_STORED_BODIES, placeholders), (RowCallbackHandler) row -> stored.put(
+                row.getString("NAME"), new StoredBody(BlockTypeEnum.valueOf(row.getString("BLOCKTYPE")),
+                row.getBytes("CONTENT_KEY"), row.getBytes("CHECKSUM"))), names);
+        return stored;
+    }
+
+    private static final class StoredBody {
+
+        private final BlockTypeEnum blockType;
+        private final byte[] contentKey;
+        private final byte[] checksum;
+
+        private StoredBody(BlockTypeEnum blockType, byte[] contentKey, byte[] checksum) {
+            this.blockType = blockType;
+            this.contentKey = contentKey;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.db.dataplatform.techtest.server.persistence.segment;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * The bodies of one block type created within one time window. Windows are aligned to the epoch, a partition's
+ * segments hold nothing else, so dropping the partition is deleting its files.
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+@Getter
+final class Partition implements Comparable<Partition> {
+
+    private static final Comparator<Partition> ORDER = Comparator.comparingLong(Partition::getStartMillis)
+            .thenComparingLong(Partition::getLengthMillis)
+            .thenComparing(Partition::getBlockType);
+
+    private final BlockTypeEnum blockType;
+
+    private final long startMillis;
+
+    private final long lengthMillis;
+
+    static Partition of(BlockTypeEnum blockType, Instant createdTimestamp, long lengthMillis) {
+        long startMillis = Math.floorDiv(createdTimestamp.toEpochMilli(), lengthMillis) * lengthMillis;
+        return new Partition(blockType, startMillis, lengthMillis);
+    }
+
+    long getEndMillis() {
+        return startMillis + lengthMillis;
+    }
+
+    /**
+     * @return whether bodies created at or after {@code from} and before {@code to} may be in this partition, either
+     * bound may be null.
+     */
+    boolean overlaps(Instant from, Instant to) {
+        return (from == null || Instant.ofEpochMilli(getEndMillis()).isAfter(from))
+                && (to == null || Instant.ofEpochMilli(startMillis).isBefore(to));
+    }
+
+    /**
+     * The name carries the window, so recovery needs nothing but the file and a changed partition length only
+     * affects new partitions.
+     */
+    String fileName(long segmentNumber) {
+        return String.format("%s_%d_%d_%020d%s", blockType.name(), startMillis, lengthMillis, segmentNumber, Segment.SUFFIX);
+    }
+
+    static Partition parse(String fileName) {
+        String[] parts = fileName.substring(0, fileName.length() - Segment.SUFFIX.length()).split("_");
+        return new Partition(BlockTypeEnum.valueOf(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    static long parseSegmentNumber(String fileName) {
+        String[] parts = fileName.substring(0, fileName.length() - Segment.SUFFIX.length()).split("_");
+        return Long.parseLong(parts[3]);
+    }
+
+    @Override
+    public int compareTo(Partition other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public String toString() {
+        return blockType + "@" + Instant.ofEpochMilli(startMillis) + "+" + lengthMillis + "ms";
+    }
+}
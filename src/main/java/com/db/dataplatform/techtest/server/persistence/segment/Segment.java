@@ -0,0 +1,208 @@
+package com.db.dataplatform.techtest.server.persistence.segment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only file of a {@link Partition} of the {@link SegmentStore}, mapped whole. A record is
+ * <pre>
+ * int length | int crc | byte type | long sequence | long id | byte blockType | long created
+ *     | short nameLength | name | short checksumLength | checksum | int bodyLength | body
+ * </pre>
+ * where length counts the bytes after the crc and the crc covers them. The unwritten tail of a file reads as zero,
+ * so a length of zero, or a record running past the file or failing its crc, ends the segment.
+ * <p>
+ * The channel is closed once mapped; the mapping stays valid until the buffer is garbage collected, even after the
+ * file is deleted by compaction or a purge, so body slices handed to readers never dangle.
+ */
+final class Segment {
+
+    static final String SUFFIX = ".seg";
+
+    static final byte PUT = 1;
+    static final byte DELETE = 3;
+
+    private static final int PREFIX_BYTES = 8;
+    private static final int FIXED_BYTES = PREFIX_BYTES + 1 + 8 + 8 + 1 + 8 + 2 + 2 + 4;
+
+    private final Partition partition;
+    private final long number;
+    private final Path path;
+    private final ByteBuffer buffer;
+
+    // appended to by one writer at a time, the store hands out offsets below it only after they are written
+    private int end;
+
+    // bytes of records still referenced by the index, kept by the store under its write lock
+    private long liveBytes;
+
+    private Segment(Partition partition, long number, Path path, ByteBuffer buffer) {
+        this.partition = partition;
+        this.number = number;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static Segment create(Path directory, Partition partition, long number, int capacity) throws IOException {
+        Path path = directory.resolve(partition.fileName(number));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new Segment(partition, number, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        }
+    }
+
+    /**
+     * Maps an existing segment read-only, recovered segments are never appended to.
+     */
+    static Segment open(Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Segment(Partition.parse(fileName), Partition.parseSegmentNumber(fileName), path,
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static int recordBytes(byte[] name, byte[] checksum, int bodyLength) {
+        return FIXED_BYTES + name.length + (checksum == null ? 0 : checksum.length) + bodyLength;
+    }
+
+    Partition getPartition() {
+        return partition;
+    }
+
+    long getNumber() {
+        return number;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    void setEnd(int end) {
+        this.end = end;
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    long getLiveBytes() {
+        return liveBytes;
+    }
+
+    void addLiveBytes(long bytes) {
+        liveBytes += bytes;
+    }
+
+    boolean fits(int recordBytes) {
+        return buffer.capacity() - end >= recordBytes;
+    }
+
+    /**
+     * Appends a record, {@code checksum} may be null and {@code body} is copied from its position to its limit.
+     *
+     * @return the offset of the record.
+     */
+    int append(byte type, long sequence, long id, int blockType, long createdMicros, byte[] name, byte[] checksum,
+               ByteBuffer body) {
+        int offset = end;
+        int length = recordBytes(name, checksum, body.remaining());
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        record.putInt(length - PREFIX_BYTES);
+        record.putInt(0);
+        record.put(type);
+        record.putLong(sequence);
+        record.putLong(id);
+        record.put((byte) blockType);
+        record.putLong(createdMicros);
+        record.putShort((short) name.length);
+        record.put(name);
+        if (checksum == null) {
+            record.putShort((short) -1);
+        } else {
+            record.putShort((short) checksum.length);
+            record.put(checksum);
+        }
+        record.putInt(body.remaining());
+        record.put(body.duplicate());
+
+        record.putInt(offset + 4, crc(offset, length));
+        end = offset + length;
+        return offset;
+    }
+
+    /**
+     * @return the record at {@code offset}, or null if the segment's records end there.
+     */
+    SegmentRecord read(int offset) {
+        if (buffer.capacity() - offset < FIXED_BYTES) {
+            return null;
+        }
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset);
+        int length = record.getInt() + PREFIX_BYTES;
+        if (length < FIXED_BYTES || length > buffer.capacity() - offset || record.getInt() != crc(offset, length)) {
+            return null;
+        }
+        byte type = record.get();
+        long sequence = record.getLong();
+        long id = record.getLong();
+        int blockType = record.get();
+        long createdMicros = record.getLong();
+        byte[] name = new byte[record.getShort() & 0xFFFF];
+        record.get(name);
+        short checksumLength = record.getShort();
+        byte[] checksum = null;
+        if (checksumLength >= 0) {
+            checksum = new byte[checksumLength];
+            record.get(checksum);
+        }
+        int bodyLength = record.getInt();
+        return new SegmentRecord(offset, length, type, sequence, id, blockType, createdMicros, name, checksum,
+                record.position(), bodyLength);
+    }
+
+    /**
+     * Positions a read-only view on the given bytes; nothing is copied.
+     */
+    ByteBuffer slice(int offset, int length) {
+        ByteBuffer slice = buffer.asReadOnlyBuffer();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice();
+    }
+
+    /**
+     * Recovery stops at the first record that fails this, so a torn write at the end is dropped.
+     */
+    private int crc(int offset, int length) {
+        ByteBuffer covered = buffer.duplicate();
+        covered.position(offset + PREFIX_BYTES);
+        covered.limit(offset + length);
+        CRC32 crc = new CRC32();
+        crc.update(covered);
+        return (int) crc.getValue();
+    }
+
+    void force() {
+        if (buffer instanceof MappedByteBuffer && !buffer.isReadOnly()) {
+            ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public String toString() {
+        return path.getFileName().toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.db.dataplatform.techtest.server.persistence.segment;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The entry of a name before and after a write, null where there was none. {@link SegmentStore#revert(java.util.List)}
+ * puts the previous one back.
+ */
+@AllArgsConstructor
+@Getter
+public class SegmentChange {
+
+    private final String name;
+
+    private final SegmentEntry previous;
+
+    private final SegmentEntry current;
+
+    public boolean isWritten() {
+        return previous != current;
+    }
+}
@@ -0,0 +1,68 @@
+package com.db.dataplatform.techtest.server.persistence.segment;
+
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Index entry of a stored body: what reads need without touching the segment, and where its latest record is.
+ * Entries are immutable, every write replaces the entry of its name.
+ */
+@Getter
+public final class SegmentEntry {
+
+    private final String name;
+
+    private final long id;
+
+    /**
+     * Of the last record applied to this name; on recovery only records with a higher sequence replace it.
+     */
+    private final long sequence;
+
+    private final BlockTypeEnum blockType;
+
+    private final String checksum;
+
+    private final Instant createdTimestamp;
+
+    @Getter(AccessLevel.NONE)
+    final Segment segment;
+
+    @Getter(AccessLevel.NONE)
+    final int recordLength;
+
+    @Getter(AccessLevel.NONE)
+    final int bodyOffset;
+
+    private final int bodyLength;
+
+    SegmentEntry(String name, long id, long sequence, BlockTypeEnum blockType, String checksum, Instant createdTimestamp,
+                 Segment segment, int recordLength, int bodyOffset, int bodyLength) {
+        this.name = name;
+        this.id = id;
+        this.sequence = sequence;
+        this.blockType = blockType;
+        this.checksum = checksum;
+        this.createdTimestamp = createdTimestamp;
+        this.segment = segment;
+        this.recordLength = recordLength;
+        this.bodyOffset = bodyOffset;
+        this.bodyLength = bodyLength;
+    }
+
+    /**
+     * @return a read-only view of the body's UTF-8 bytes in the mapped segment; nothing is copied.
+     */
+    public ByteBuffer getBody() {
+        return segment.slice(bodyOffset, bodyLength);
+    }
+
+    SegmentEntry withBlockType(BlockTypeEnum blockType) {
+        return new SegmentEntry(name, id, sequence, blockType, checksum, createdTimestamp, segment, recordLength,
+                bodyOffset, bodyLength);
+    }
+}
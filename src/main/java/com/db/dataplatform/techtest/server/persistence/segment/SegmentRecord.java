@@ -0,0 +1,34 @@
+package com.db.dataplatform.techtest.server.persistence.segment;
+
+/**
+ * A record as read back from a {@link Segment} during recovery; the body stays in the segment.
+ */
+final class SegmentRecord {
+
+    final int offset;
+    final int length;
+    final byte type;
+    final long sequence;
+    final long id;
+    final int blockType;
+    final long createdMicros;
+    final byte[] name;
+    final byte[] checksum;
+    final int bodyOffset;
+    final int bodyLength;
+
+    SegmentRecord(int offset, int length, byte type, long sequence, long id, int blockType, long createdMicros,
+                  byte[] name, byte[] checksum, int bodyOffset, int bodyLength) {
+        this.offset = offset;
+        this.length = length;
+        this.type = type;
+        this.sequence = sequence;
+        this.id = id;
+        this.blockType = blockType;
+        this.createdMicros = createdMicros;
+        this.name = name;
+        this.checksum = checksum;
+        this.bodyOffset = bodyOffset;
+        this.bodyLength = bodyLength;
+    }
+}
@@ -0,0 +1,633 @@
+package com.db.dataplatform.techtest.server.persistence.segment;
+
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bodies in append-only, memory-mapped {@link Segment} files with the whole index in memory: name to the entry of
+ * its latest record, per block type the entries in id order, and per {@link Partition} its entries. A record goes
+ * to the active segment of the partition of its block type and created timestamp. Writes append under a single
+ * lock; reads never lock and get bodies as slices of the mapping.
+ * <p>
+ * Replacing or deleting a body leaves its old record behind. A body that changes partition, because its block type
+ * changed, is copied to the new one and a delete record is left in the old one, so in every partition the latest
+ * record of a name is a put only if that put is live. That is what lets {@link #purge(BlockTypeEnum, Instant)} drop
+ * a partition by deleting its files: nothing they shadowed can come back from another partition.
+ * {@link #compact(double)} copies the live records of all sealed segments of a partition to new ones and deletes
+ * the old files, so a delete record is only dropped together with the older records of its name in the partition.
+ * Recovery resolves records by their sequence rather than by file order, compacted copies keep the sequence of what
+ * they copy.
+ */
+@Slf4j
+public class SegmentStore implements Closeable {
+
+    private static final ByteBuffer NO_BODY = ByteBuffer.allocate(0);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long partitionMillis;
+    private final boolean syncOnWrite;
+
+    private final ConcurrentNavigableMap<String, SegmentEntry> byName = new ConcurrentSkipListMap<>();
+    private final Map<BlockTypeEnum, ConcurrentNavigableMap<Long, SegmentEntry>> byBlockType = new EnumMap<>(BlockTypeEnum.class);
+    private final ConcurrentNavigableMap<Partition, ConcurrentNavigableMap<Long, SegmentEntry>> byPartition = new ConcurrentSkipListMap<>();
+
+    private final Object writeLock = new Object();
+    private final Object compactionLock = new Object();
+    private final AtomicLong nextSegmentNumber = new AtomicLong(1);
+
+    // guarded by writeLock
+    private final List<Segment> sealed = new ArrayList<>();
+    private final Map<Partition, Segment> active = new HashMap<>();
+    private final Set<Segment> unsynced = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long nextId = 1;
+    private long nextSequence = 1;
+
+    private SegmentStore(Path directory, int segmentBytes, long partitionMillis, boolean syncOnWrite) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.partitionMillis = partitionMillis;
+        this.syncOnWrite = syncOnWrite;
+        for (BlockTypeEnum blockType : BlockTypeEnum.values()) {
+            byBlockType.put(blockType, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Maps every segment in {@code directory} and rebuilds the index from their records. New records always go to
+     * a new segment. {@code partitionMillis} is the window of new partitions, recovered ones keep their own.
+     */
+    public static SegmentStore open(Path directory, int segmentBytes, long partitionMillis, boolean syncOnWrite)
+            throws IOException {
+        Files.createDirectories(directory);
+        SegmentStore store = new SegmentStore(directory, segmentBytes, partitionMillis, syncOnWrite);
+        store.recover();
+        return store;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.getFileName().toString().endsWith(Segment.SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Map<String, SegmentEntry> puts = new HashMap<>();
+        Map<String, Long> deletes = new HashMap<>();
+        long records = 0;
+        for (Path file : files) {
+            Segment segment = Segment.open(file);
+            int offset = 0;
+            SegmentRecord record;
+            while ((record = segment.read(offset)) != null) {
+                collect(segment, record, puts, deletes);
+                offset += record.length;
+                records++;
+            }
+            segment.setEnd(offset);
+            sealed.add(segment);
+            nextSegmentNumber.set(Math.max(nextSegmentNumber.get(), segment.getNumber() + 1));
+        }
+        for (SegmentEntry put : puts.values()) {
+            Long deleted = deletes.get(put.getName());
+            if (deleted == null || deleted < put.getSequence()) {
+                index(null, put);
+            }
+        }
+        log.info("Recovered {} bodies from {} records in {} segments", byName.size(), records, sealed.size());
+    }
+
+    /**
+     * Keeps the most recent put and delete of every name. Compacted copies sit in newer files than records written
+     * after them, so the final state is only known once all segments are read: the latest put, unless a later delete
+     * removed it.
+     */
+    private void collect(Segment segment, SegmentRecord record, Map<String, SegmentEntry> puts,
+                         Map<String, Long> deletes) {
+        nextId = Math.max(nextId, record.id + 1);
+        nextSequence = Math.max(nextSequence, record.sequence + 1);
+        String name = new String(record.name, StandardCharsets.UTF_8);
+        if (record.type == Segment.PUT) {
+            SegmentEntry put = puts.get(name);
+            if (put == null || record.sequence > put.getSequence()) {
+                puts.put(name, new SegmentEntry(name, record.id, record.sequence, BlockTypeEnum.values()[record.blockType],
+                        record.checksum == null ? null : HexEncoder.encode(record.checksum),
+                        fromMicros(record.createdMicros), segment, record.length, record.bodyOffset, record.bodyLength));
+            }
+        } else if (record.type == Segment.DELETE) {
+            deletes.merge(name, record.sequence, Math::max);
+        }
+    }
+
+    public SegmentEntry get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * @return a live view of the entries of the block type with an id greater than {@code afterId}, in id order.
+     */
+    public NavigableMap<Long, SegmentEntry> getByBlockType(BlockTypeEnum blockType, long afterId) {
+        return Collections.unmodifiableNavigableMap(byBlockType.get(blockType).tailMap(afterId, false));
+    }
+
+    /**
+     * Visits only the partitions of the block type whose window overlaps the range.
+     *
+     * @return the entries of the block type created at or after {@code from} and before {@code to}, either may be
+     * null for no bound, in created timestamp then id order.
+     */
+    public List<SegmentEntry> getByBlockType(BlockTypeEnum blockType, Instant from, Instant to) {
+        List<SegmentEntry> entries = new ArrayList<>();
+        for (Map.Entry<Partition, ConcurrentNavigableMap<Long, SegmentEntry>> partition : byPartition.entrySet()) {
+            if (partition.getKey().getBlockType() != blockType || !partition.getKey().overlaps(from, to)) {
+                continue;
+            }
+            for (SegmentEntry entry : partition.getValue().values()) {
+                Instant createdTimestamp = entry.getCreatedTimestamp();
+                if ((from == null || !createdTimestamp.isBefore(from)) && (to == null || createdTimestamp.isBefore(to))) {
+                    entries.add(entry);
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(SegmentEntry::getCreatedTimestamp).thenComparingLong(SegmentEntry::getId));
+        return entries;
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(byName.keySet());
+    }
+
+    public int getSegmentCount() {
+        synchronized (writeLock) {
+            return sealed.size() + active.size();
+        }
+    }
+
+    public int getPartitionCount() {
+        synchronized (writeLock) {
+            Set<Partition> partitions = new HashSet<>(active.keySet());
+            for (Segment segment : sealed) {
+                partitions.add(segment.getPartition());
+            }
+            return partitions.size();
+        }
+    }
+
+    /**
+     * Appends all bodies or none.
+     *
+     * @throws DuplicateKeyException if a name is stored already or repeated in {@code dataBodies}.
+     */
+    public List<SegmentChange> insert(List<DataBodyEntity> dataBodies) {
+        synchronized (writeLock) {
+            Set<String> names = new HashSet<>();
+            for (DataBodyEntity dataBody : dataBodies) {
+                String name = dataBody.getDataHeaderEntity().getName();
+                if (byName.containsKey(name) || !names.add(name)) {
+                    throw new DuplicateKeyException("Data body already stored, data name: " + name);
+                }
+            }
+            List<SegmentChange> changes = new ArrayList<>(dataBodies.size());
+            for (DataBodyEntity dataBody : dataBodies) {
+                changes.add(put(null, dataBody, nextId++, createdTimestamp(dataBody)));
+            }
+            synced();
+            return changes;
+        }
+    }
+
+    /**
+     * Stores each body unless one of its name is stored with the same checksum and block type. A replaced body
+     * keeps its id and created timestamp; a body whose checksum matches only has its block type changed.
+     *
+     * @return one change per body, in order, not written where nothing differed.
+     */
+    public List<SegmentChange> upsert(List<DataBodyEntity> dataBodies) {
+        synchronized (writeLock) {
+            List<SegmentChange> changes = new ArrayList<>(dataBodies.size());
+            for (DataBodyEntity dataBody : dataBodies) {
+                String name = dataBody.getDataHeaderEntity().getName();
+                BlockTypeEnum blockType = dataBody.getDataHeaderEntity().getBlocktype();
+                SegmentEntry stored = byName.get(name);
+                if (stored == null) {
+                    changes.add(put(null, dataBody, nextId++, createdTimestamp(dataBody)));
+                } else if (!Objects.equals(stored.getChecksum(), normalized(dataBody.getChecksum()))) {
+                    changes.add(put(stored, dataBody, stored.getId(), stored.getCreatedTimestamp()));
+                } else if (stored.getBlockType() != blockType) {
+                    changes.add(move(stored, blockType));
+                } else {
+                    changes.add(new SegmentChange(name, stored, stored));
+                }
+            }
+            synced();
+            return changes;
+        }
+    }
+
+    /**
+     * @return the change, or null if no body of this name is stored.
+     */
+    public SegmentChange delete(String name) {
+        synchronized (writeLock) {
+            SegmentEntry stored = byName.get(name);
+            if (stored == null) {
+                return null;
+            }
+            SegmentChange change = delete(stored);
+            synced();
+            return change;
+        }
+    }
+
+    /**
+     * @return the changes of the bodies whose block type differed.
+     */
+    public List<SegmentChange> move(Collection<String> names, BlockTypeEnum blockType) {
+        synchronized (writeLock) {
+            List<SegmentChange> changes = new ArrayList<>();
+            for (String name : new HashSet<>(names)) {
+                SegmentEntry stored = byName.get(name);
+                if (stored != null && stored.getBlockType() != blockType) {
+                    changes.add(move(stored, blockType));
+                }
+            }
+            synced();
+            return changes;
+        }
+    }
+
+    /**
+     * Walks the names in order from {@code namePrefix}, the skip list index makes this a range scan.
+     *
+     * @return the changes of the bodies whose block type differed.
+     */
+    public List<SegmentChange> moveByNamePrefix(String namePrefix, BlockTypeEnum blockType) {
+        synchronized (writeLock) {
+            List<SegmentChange> changes = new ArrayList<>();
+            for (SegmentEntry stored : byName.tailMap(namePrefix).values()) {
+                if (!stored.getName().startsWith(namePrefix)) {
+                    break;
+                }
+                if (stored.getBlockType() != blockType) {
+                    changes.add(move(stored, blockType));
+                }
+            }
+            synced();
+            return changes;
+        }
+    }
+
+    /**
+     * Undoes written changes, last first, by appending records that restore the previous entries. A name written
+     * again since is left alone, as is one purged since.
+     */
+    public void revert(List<SegmentChange> changes) {
+        synchronized (writeLock) {
+            for (int i = changes.size() - 1; i >= 0; i--) {
+                SegmentChange change = changes.get(i);
+                SegmentEntry stored = byName.get(change.getName());
+                if (!change.isWritten() || stored != change.getCurrent()) {
+                    continue;
+                }
+                SegmentEntry previous = change.getPrevious();
+                if (previous == null) {
+                    delete(stored);
+                } else {
+                    write(stored, previous, previous.getBody());
+                }
+            }
+            synced();
+        }
+    }
+
+    private SegmentChange put(SegmentEntry stored, DataBodyEntity dataBody, long id, Instant createdTimestamp) {
+        String name = dataBody.getDataHeaderEntity().getName();
+        byte[] body = dataBody.getDataBody().getBytes(StandardCharsets.UTF_8);
+        SegmentEntry entry = new SegmentEntry(name, id, 0, dataBody.getDataHeaderEntity().getBlocktype(),
+                normalized(dataBody.getChecksum()), createdTimestamp, null, 0, 0, 0);
+        SegmentEntry current = write(stored, entry, ByteBuffer.wrap(body));
+        dataBody.setDataStoreId(id);
+        dataBody.setCreatedTimestamp(createdTimestamp);
+        return new SegmentChange(name, stored, current);
+    }
+
+    /**
+     * Copies the body to the partition of its new block type.
+     */
+    private SegmentChange move(SegmentEntry stored, BlockTypeEnum blockType) {
+        SegmentEntry current = write(stored, stored.withBlockType(blockType), stored.getBody());
+        return new SegmentChange(stored.getName(), stored, current);
+    }
+
+    private SegmentChange delete(SegmentEntry stored) {
+        tombstone(stored);
+        index(stored, null);
+        return new SegmentChange(stored.getName(), stored, null);
+    }
+
+    /**
+     * Appends a put of the entry's fields to its partition, after a delete record in the partition of
+     * {@code stored} if that is another one, and points the index at it.
+     */
+    private SegmentEntry write(SegmentEntry stored, SegmentEntry entry, ByteBuffer body) {
+        Partition partition = Partition.of(entry.getBlockType(), entry.getCreatedTimestamp(), partitionMillis);
+        if (stored != null && !stored.segment.getPartition().equals(partition)) {
+            tombstone(stored);
+        }
+        SegmentEntry current = append(Segment.PUT, nextSequence++, entry, body,
+                writable(partition, recordBytes(entry, body.remaining())));
+        index(stored, current);
+        return current;
+    }
+
+    private void tombstone(SegmentEntry stored) {
+        append(Segment.DELETE, nextSequence++, stored, NO_BODY,
+                writable(stored.segment.getPartition(), recordBytes(stored, 0)));
+    }
+
+    /**
+     * Appends a record carrying the entry's fields.
+     *
+     * @return the entry of the appended record, meaningful for puts only.
+     */
+    private static SegmentEntry append(byte type, long sequence, SegmentEntry entry, ByteBuffer body, Segment segment) {
+        byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] checksum = type == Segment.PUT && entry.getChecksum() != null ? HexEncoder.decode(entry.getChecksum()) : null;
+        int bodyLength = body.remaining();
+        int offset = segment.append(type, sequence, entry.getId(), entry.getBlockType().ordinal(),
+                toMicros(entry.getCreatedTimestamp()), name, checksum, body);
+        int recordLength = segment.getEnd() - offset;
+        return new SegmentEntry(entry.getName(), entry.getId(), sequence, entry.getBlockType(), entry.getChecksum(),
+                entry.getCreatedTimestamp(), segment, recordLength, segment.getEnd() - bodyLength, bodyLength);
+    }
+
+    private static int recordBytes(SegmentEntry entry, int bodyLength) {
+        byte[] checksum = entry.getChecksum() == null ? null : HexEncoder.decode(entry.getChecksum());
+        return Segment.recordBytes(entry.getName().getBytes(StandardCharsets.UTF_8), checksum, bodyLength);
+    }
+
+    /**
+     * @return the active segment of the partition, sealed and replaced by a new one if the record does not fit.
+     */
+    private Segment writable(Partition partition, int recordBytes) {
+        Segment segment = active.get(partition);
+        if (segment == null || !segment.fits(recordBytes)) {
+            if (segment != null) {
+                seal(segment);
+            }
+            segment = newSegment(partition, recordBytes);
+            active.put(partition, segment);
+        }
+        if (syncOnWrite) {
+            unsynced.add(segment);
+        }
+        return segment;
+    }
+
+    private void seal(Segment segment) {
+        if (syncOnWrite) {
+            segment.force();
+            unsynced.remove(segment);
+        }
+        active.remove(segment.getPartition(), segment);
+        sealed.add(segment);
+    }
+
+    private Segment newSegment(Partition partition, int recordBytes) {
+        try {
+            return Segment.create(directory, partition, nextSegmentNumber.getAndIncrement(),
+                    Math.max(segmentBytes, recordBytes));
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Cannot create a segment in " + directory, e);
+        }
+    }
+
+    private void synced() {
+        for (Segment segment : unsynced) {
+            segment.force();
+        }
+        unsynced.clear();
+    }
+
+    /**
+     * Points the index from {@code stored} to {@code current}, either may be null, and moves the live bytes of
+     * the record with it. The new entry goes in before the old one leaves so readers of an unchanged block type
+     * never miss it.
+     */
+    private void index(SegmentEntry stored, SegmentEntry current) {
+        if (current != null) {
+            byName.put(current.getName(), current);
+            byBlockType.get(current.getBlockType()).put(current.getId(), current);
+            byPartition.computeIfAbsent(current.segment.getPartition(), partition -> new ConcurrentSkipListMap<>())
+                    .put(current.getId(), current);
+            current.segment.addLiveBytes(current.recordLength);
+        } else if (stored != null) {
+            byName.remove(stored.getName(), stored);
+        }
+        if (stored != null) {
+            byBlockType.get(stored.getBlockType()).remove(stored.getId(), stored);
+            ConcurrentNavigableMap<Long, SegmentEntry> entries = byPartition.get(stored.segment.getPartition());
+            if (entries != null && entries.remove(stored.getId(), stored) && entries.isEmpty()) {
+                byPartition.remove(stored.segment.getPartition(), entries);
+            }
+            stored.segment.addLiveBytes(-stored.recordLength);
+        }
+    }
+
+    /**
+     * Copies the live records of the sealed segments of each partition to new segments and deletes the old files,
+     * once replaced and deleted bodies take at least {@code minGarbageRatio} of the partition's sealed bytes. Active
+     * segments of partitions whose window is over are sealed first. Records are copied without holding the write
+     * lock; entries written meanwhile are copied again under it before the index is switched over.
+     *
+     * @return true if segments were compacted.
+     */
+    public boolean compact(double minGarbageRatio) throws IOException {
+        synchronized (compactionLock) {
+            Map<Partition, Set<Segment>> candidates = new TreeMap<>();
+            synchronized (writeLock) {
+                long now = System.currentTimeMillis();
+                for (Segment segment : new ArrayList<>(active.values())) {
+                    if (segment.getPartition().getEndMillis() <= now) {
+                        seal(segment);
+                    }
+                }
+                Map<Partition, long[]> bytes = new HashMap<>();
+                for (Segment segment : sealed) {
+                    candidates.computeIfAbsent(segment.getPartition(),
+                            partition -> Collections.newSetFromMap(new IdentityHashMap<>())).add(segment);
+                    long[] partitionBytes = bytes.computeIfAbsent(segment.getPartition(), partition -> new long[2]);
+                    partitionBytes[0] += segment.getEnd();
+                    partitionBytes[1] += segment.getLiveBytes();
+                }
+                bytes.forEach((partition, partitionBytes) -> {
+                    if (partitionBytes[0] == 0
+                            || (double) (partitionBytes[0] - partitionBytes[1]) / partitionBytes[0] < minGarbageRatio) {
+                        candidates.remove(partition);
+                    }
+                });
+            }
+            for (Map.Entry<Partition, Set<Segment>> candidate : candidates.entrySet()) {
+                compact(candidate.getKey(), candidate.getValue());
+            }
+            return !candidates.isEmpty();
+        }
+    }
+
+    private void compact(Partition partition, Set<Segment> victims) throws IOException {
+        List<Segment> outputs = new ArrayList<>();
+        Map<SegmentEntry, SegmentEntry> copies = new IdentityHashMap<>();
+        for (SegmentEntry entry : entries(partition)) {
+            if (victims.contains(entry.segment)) {
+                copies.put(entry, copy(partition, entry, outputs));
+            }
+        }
+        synchronized (writeLock) {
+            for (SegmentEntry entry : entries(partition)) {
+                if (victims.contains(entry.segment)) {
+                    SegmentEntry copy = copies.get(entry);
+                    index(entry, copy != null ? copy : copy(partition, entry, outputs));
+                }
+            }
+            sealed.removeAll(victims);
+            sealed.addAll(outputs);
+        }
+        for (Segment output : outputs) {
+            output.force();
+        }
+        for (Segment victim : victims) {
+            victim.delete();
+        }
+        log.info("Compacted {} segments of {} bytes of partition {} into {} segments of {} bytes", victims.size(),
+                victims.stream().mapToLong(Segment::getEnd).sum(), partition, outputs.size(),
+                outputs.stream().mapToLong(Segment::getEnd).sum());
+    }
+
+    private Collection<SegmentEntry> entries(Partition partition) {
+        ConcurrentNavigableMap<Long, SegmentEntry> entries = byPartition.get(partition);
+        return entries == null ? Collections.emptyList() : entries.values();
+    }
+
+    /**
+     * Appends the entry's current state as a put keeping its sequence, so recovery orders it like the original.
+     */
+    private SegmentEntry copy(Partition partition, SegmentEntry entry, List<Segment> outputs) {
+        int recordBytes = recordBytes(entry, entry.getBodyLength());
+        Segment output = outputs.isEmpty() ? null : outputs.get(outputs.size() - 1);
+        if (output == null || !output.fits(recordBytes)) {
+            output = newSegment(partition, recordBytes);
+            outputs.add(output);
+        }
+        return append(Segment.PUT, entry.getSequence(), entry, entry.getBody(), output);
+    }
+
+    /**
+     * Drops the partitions of the block type whose window ended at or before {@code cutoff}: their entries leave
+     * the index and their files are deleted, however many bodies they hold. A body is therefore kept until the
+     * whole window of its created timestamp is past the cutoff.
+     *
+     * @return the names of the bodies dropped.
+     */
+    public List<String> purge(BlockTypeEnum blockType, Instant cutoff) throws IOException {
+        synchronized (compactionLock) {
+            Predicate<Partition> expired = partition -> partition.getBlockType() == blockType
+                    && !Instant.ofEpochMilli(partition.getEndMillis()).isAfter(cutoff);
+            List<String> names = new ArrayList<>();
+            List<Segment> dropped = new ArrayList<>();
+            Set<Partition> partitions = new TreeSet<>();
+            synchronized (writeLock) {
+                for (Segment segment : new ArrayList<>(active.values())) {
+                    if (expired.test(segment.getPartition())) {
+                        seal(segment);
+                    }
+                }
+                for (Iterator<Segment> segments = sealed.iterator(); segments.hasNext(); ) {
+                    Segment segment = segments.next();
+                    if (expired.test(segment.getPartition())) {
+                        segments.remove();
+                        dropped.add(segment);
+                        partitions.add(segment.getPartition());
+                    }
+                }
+                for (Partition partition : partitions) {
+                    for (SegmentEntry entry : entries(partition)) {
+                        names.add(entry.getName());
+                        index(entry, null);
+                    }
+                }
+            }
+            for (Segment segment : dropped) {
+                segment.delete();
+            }
+            if (!dropped.isEmpty()) {
+                log.info("Purged {} bodies of {} partitions in {} segments, cutoff {}", names.size(), partitions.size(),
+                        dropped.size(), cutoff);
+            }
+            return names;
+        }
+    }
+
+    private static String normalized(String checksum) {
+        return checksum == null ? null : HexEncoder.encode(HexEncoder.decode(checksum));
+    }
+
+    private static Instant createdTimestamp(DataBodyEntity dataBody) {
+        Instant createdTimestamp = dataBody.getCreatedTimestamp() != null ? dataBody.getCreatedTimestamp() : Instant.now();
+        return createdTimestamp.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000);
+    }
+
+    /**
+     * Forces the active segments to disk. Mappings are released by the garbage collector, not here.
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            for (Segment segment : active.values()) {
+                segment.force();
+            }
+        }
+    }
+}
@@ -1,15 +1,89 @@
 package com.db.dataplatform.techtest.server.service;
 
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+/**
+ * Every write publishes a {@link com.db.dataplatform.techtest.server.event.DataBodyChangedEvent} for the block
+ * types it touched.
+ */
 public interface DataBodyService {
     void saveDataBody(DataBodyEntity dataBody);
 
-    List<DataBodyEntity> getDataByBlockType(BlockTypeEnum blockType);
+    void saveDataBodies(List<DataBodyEntity> dataBodies);
+
+    /**
+     * Inserts the bodies, or replaces the stored ones of the same name, in one round trip per table.
+     *
+     * @return per body, in order, whether anything was written; false when the stored checksum and block type
+     * already matched.
+     */
+    boolean[] upsertDataBodies(List<DataBodyEntity> dataBodies);
+
+    /**
+     * Deletes the envelope and the body content no other envelope shares.
+     *
+     * @return false if no envelope of this name is stored.
+     */
+    boolean deleteDataBody(String blockName);
+
+    /**
+     * Moves the body to {@code newBlockType}; readers of both the old and the new block type are notified.
+     */
+    void updateBlockType(DataBodyEntity dataBody, BlockTypeEnum newBlockType);
+
+    /**
+     * Moves every body named in {@code names} to {@code newBlockType} in one set-based update.
+     *
+     * @return the number of bodies whose block type changed.
+     */
+    int updateBlockTypes(Collection<String> names, BlockTypeEnum newBlockType);
+
+    /**
+     * Moves every body whose name starts with {@code namePrefix} to {@code newBlockType} in one set-based update.
+     *
+     * @return the number of bodies whose block type changed.
+     */
+    int updateBlockTypesByNamePrefix(String namePrefix, BlockTypeEnum newBlockType);
+
+    List<DataBodyProjection> getDataByBlockType(BlockTypeEnum blockType);
+
+    /**
+     * @return up to {@code limit} bodies of the block type with an id greater than {@code afterId}, in id order.
+     */
+    List<DataBodyProjection> getDataByBlockType(BlockTypeEnum blockType, long afterId, int limit);
+
+    /**
+     * @return up to {@code limit} bodies of the block type created at or after {@code from} and before {@code to},
+     * either may be null for no bound, and after the position ({@code afterCreated}, {@code afterId}) when
+     * {@code afterCreated} is given, in created timestamp then id order.
+     */
+    List<DataBodyProjection> getDataByBlockTypeCreated(BlockTypeEnum blockType, Instant from, Instant to,
+                                                       Instant afterCreated, long afterId, int limit);
+
+    /**
+     * Hands every body of the block type to {@code action} in id order without loading them all at once.
+     *
+     * @return the number of bodies visited.
+     */
+    long forEachDataByBlockType(BlockTypeEnum blockType, Consumer<DataBodyProjection> action);
 
     Optional<DataBodyEntity> getDataByBlockName(String blockName);
+
+    Optional<DataBodyChecksum> getChecksumByBlockName(String blockName);
+
+    /**
+     * Hands the name of every stored body to {@code action} without loading them all at once.
+     *
+     * @return the number of names visited.
+     */
+    long forEachBlockName(Consumer<String> action);
 }
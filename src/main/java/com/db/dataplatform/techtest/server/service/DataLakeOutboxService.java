@@ -0,0 +1,28 @@
+package com.db.dataplatform.techtest.server.service;
+
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataLakeOutboxEntity;
+
+import java.util.List;
+
+public interface DataLakeOutboxService {
+    void enqueue(DataBodyEntity dataBody);
+
+    void enqueueAll(List<DataBodyEntity> dataBodies);
+
+    List<DataLakeOutboxEntity> claimDue(int limit);
+
+    void markDelivered(Long outboxId);
+
+    void markDeadLetter(Long outboxId, int attempts, String error);
+
+    void release(Long outboxId);
+
+    int releaseInFlight();
+
+    List<DataLakeOutboxEntity> getDeadLetters(int limit);
+
+    int replayDeadLetters();
+
+    boolean replayDeadLetter(Long outboxId);
+}
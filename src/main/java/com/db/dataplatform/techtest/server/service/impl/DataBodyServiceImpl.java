@@ -1,35 +1,238 @@
 package com.db.dataplatform.techtest.server.service.impl;
 
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataHeaderRepository;
 import com.db.dataplatform.techtest.server.persistence.repository.DataStoreRepository;
 import com.db.dataplatform.techtest.server.service.DataBodyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@ConditionalOnProperty(prefix = "dataserver.storage", name = "engine", havingValue = "database", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class DataBodyServiceImpl implements DataBodyService {
 
+    private static final Instant NO_LOWER_BOUND = Instant.EPOCH;
+    private static final Instant NO_UPPER_BOUND = Instant.parse("9999-12-31T23:59:59Z");
+
     private final DataStoreRepository dataStoreRepository;
+    private final DataHeaderRepository dataHeaderRepository;
+    private final DataBodyContentRepository dataBodyContentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Content already stored is only referenced, never written again.
+     */
     @Override
+    @Transactional
     public void saveDataBody(DataBodyEntity dataBody) {
+        dataBodyContentRepository.acquireContent(Collections.singletonList(dataBody));
         dataStoreRepository.save(dataBody);
+        eventPublisher.publishEvent(new DataBodyChangedEvent(EnumSet.of(dataBody.getDataHeaderEntity().getBlocktype()),
+                projections(Collections.singletonList(dataBody))));
+    }
+
+    /**
+     * Persists all bodies (and their cascaded headers) in one transaction so Hibernate can group the inserts
+     * into JDBC batches, see hibernate.jdbc.batch_size in application.properties.
+     */
+    @Override
+    @Transactional
+    public void saveDataBodies(List<DataBodyEntity> dataBodies) {
+        dataBodyContentRepository.acquireContent(dataBodies);
+        dataStoreRepository.saveAll(dataBodies);
+        Set<BlockTypeEnum> blockTypes = EnumSet.noneOf(BlockTypeEnum.class);
+        for (DataBodyEntity dataBody : dataBodies) {
+            blockTypes.add(dataBody.getDataHeaderEntity().getBlocktype());
+        }
+        if (!blockTypes.isEmpty()) {
+            eventPublisher.publishEvent(new DataBodyChangedEvent(blockTypes, projections(dataBodies)));
+        }
+    }
+
+    /**
+     * The change event names the block types written to and those envelopes were moved away from.
+     */
+    @Override
+    @Transactional
+    public boolean[] upsertDataBodies(List<DataBodyEntity> dataBodies) {
+        Set<BlockTypeEnum> blockTypes = EnumSet.noneOf(BlockTypeEnum.class);
+        boolean[] written = dataStoreRepository.upsert(dataBodies, blockTypes);
+        List<DataBodyEntity> writtenBodies = new ArrayList<>();
+        for (int i = 0; i < written.length; i++) {
+            if (written[i]) {
+                writtenBodies.add(dataBodies.get(i));
+                blockTypes.add(dataBodies.get(i).getDataHeaderEntity().getBlocktype());
+            }
+        }
+        if (!writtenBodies.isEmpty()) {
+            eventPublisher.publishEvent(new DataBodyChangedEvent(blockTypes, projections(writtenBodies)));
+        }
+        return written;
+    }
+
+    /**
+     * The row is flushed before its content is released, so content nothing else refers to is deleted with it.
+     */
+    @Override
+    @Transactional
+    public boolean deleteDataBody(String blockName) {
+        Optional<DataBodyEntity> dataBody = dataStoreRepository.findByDataHeaderEntity_Name(blockName);
+        if (!dataBody.isPresent()) {
+            return false;
+        }
+        dataStoreRepository.delete(dataBody.get());
+        dataStoreRepository.flush();
+        dataBodyContentRepository.releaseContent(Collections.singletonList(dataBody.get().getContentKey()));
+        eventPublisher.publishEvent(new DataBodyChangedEvent(EnumSet.of(dataBody.get().getDataHeaderEntity().getBlocktype())));
+        return true;
+    }
+
+    /**
+     * The body of a loaded entity is read from its content within the update, for the change event.
+     */
+    @Override
+    @Transactional
+    public void updateBlockType(DataBodyEntity dataBody, BlockTypeEnum newBlockType) {
+        BlockTypeEnum oldBlockType = dataBody.getDataHeaderEntity().getBlocktype();
+        dataBody.getDataHeaderEntity().setBlocktype(newBlockType);
+        DataBodyEntity saved = dataStoreRepository.save(dataBody);
+        eventPublisher.publishEvent(new DataBodyChangedEvent(EnumSet.of(oldBlockType, newBlockType),
+                projections(Collections.singletonList(saved))));
+    }
+
+    @Override
+    @Transactional
+    public int updateBlockTypes(Collection<String> names, BlockTypeEnum newBlockType) {
+        return blockTypesUpdated(dataHeaderRepository.updateBlockTypeByNames(names, newBlockType));
+    }
+
+    @Override
+    @Transactional
+    public int updateBlockTypesByNamePrefix(String namePrefix, BlockTypeEnum newBlockType) {
+        return blockTypesUpdated(dataHeaderRepository.updateBlockTypeByNamePattern(likePrefix(namePrefix), newBlockType));
+    }
+
+    /**
+     * A set-based update does not report which block types the rows came from, so readers of every block type
+     * are notified.
+     */
+    private int blockTypesUpdated(int updated) {
+        if (updated > 0) {
+            eventPublisher.publishEvent(new DataBodyChangedEvent(EnumSet.allOf(BlockTypeEnum.class)));
+        }
+        return updated;
+    }
+
+    private static List<DataBodyProjection> projections(List<DataBodyEntity> dataBodies) {
+        List<DataBodyProjection> projections = new ArrayList<>(dataBodies.size());
+        for (DataBodyEntity dataBody : dataBodies) {
+            projections.add(new DataBodyProjection(dataBody.getDataStoreId(), dataBody.getDataHeaderEntity().getName(),
+                    dataBody.getDataHeaderEntity().getBlocktype(), dataBody.getDataBody(), dataBody.getChecksum()));
+        }
+        return projections;
+    }
+
+    private static String likePrefix(String prefix) {
+        StringBuilder pattern = new StringBuilder(prefix.length() + 2);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '%' || c == '_' || c == DataHeaderRepository.LIKE_ESCAPE) {
+                pattern.append(DataHeaderRepository.LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    /**
+     * Reads use constructor projections in read-only transactions: no entities are hydrated, nothing enters the
+     * persistence context and Hibernate skips the flush and dirty check.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DataBodyProjection> getDataByBlockType(BlockTypeEnum blockType) {
+        return dataStoreRepository.findProjectionsByBlockType(blockType);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DataBodyProjection> getDataByBlockType(BlockTypeEnum blockType, long afterId, int limit) {
+        return dataStoreRepository.findPageByBlockType(blockType, afterId, PageRequest.of(0, limit));
     }
 
+    /**
+     * Missing bounds become timestamps outside any stored one, so the query always seeks IDX_DATA_STORE_CREATED
+     * from the later of {@code from} and the watermark.
+     */
     @Override
-    public List<DataBodyEntity> getDataByBlockType(BlockTypeEnum blockType) {
-        return dataStoreRepository.findByDataHeaderEntity_Blocktype(blockType);
+    @Transactional(readOnly = true)
+    public List<DataBodyProjection> getDataByBlockTypeCreated(BlockTypeEnum blockType, Instant from, Instant to,
+                                                              Instant afterCreated, long afterId, int limit) {
+        Instant lower = from == null ? NO_LOWER_BOUND : from;
+        if (afterCreated != null && afterCreated.isAfter(lower)) {
+            lower = afterCreated;
+        }
+        return dataStoreRepository.findPageByBlockTypeCreated(blockType, lower, to == null ? NO_UPPER_BOUND : to,
+                afterCreated == null ? lower : afterCreated, afterCreated == null ? 0 : afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachDataByBlockType(BlockTypeEnum blockType, Consumer<DataBodyProjection> action) {
+        long visited = 0;
+        try (Stream<DataBodyProjection> dataBodies = dataStoreRepository.streamByBlockType(blockType)) {
+            for (DataBodyProjection dataBody : (Iterable<DataBodyProjection>) dataBodies::iterator) {
+                action.accept(dataBody);
+                visited++;
+            }
+        }
+        return visited;
     }
 
     @Override
     public Optional<DataBodyEntity> getDataByBlockName(String blockName) {
         return dataStoreRepository.findByDataHeaderEntity_Name(blockName);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<DataBodyChecksum> getChecksumByBlockName(String blockName) {
+        return dataStoreRepository.findChecksumByName(blockName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachBlockName(Consumer<String> action) {
+        long visited = 0;
+        try (Stream<String> names = dataHeaderRepository.streamNames()) {
+            for (String name : (Iterable<String>) names::iterator) {
+                action.accept(name);
+                visited++;
+            }
+        }
+        return visited;
+    }
 }
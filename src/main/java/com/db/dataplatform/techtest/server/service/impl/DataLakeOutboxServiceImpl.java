@@ -0,0 +1,121 @@
+package com.db.dataplatform.techtest.server.service.impl;
+
+import com.db.dataplatform.techtest.server.persistence.OutboxStatusEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataLakeOutboxEntity;
+import com.db.dataplatform.techtest.server.persistence.repository.DataLakeOutboxRepository;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class DataLakeOutboxServiceImpl implements DataLakeOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final DataLakeOutboxRepository dataLakeOutboxRepository;
+
+    /**
+     * Joins the caller's transaction so the outbox row commits or rolls back together with the data body.
+     */
+    @Override
+    @Transactional
+    public void enqueue(DataBodyEntity dataBody) {
+        dataLakeOutboxRepository.save(toOutboxEntity(dataBody));
+    }
+
+    @Override
+    @Transactional
+    public void enqueueAll(List<DataBodyEntity> dataBodies) {
+        List<DataLakeOutboxEntity> entries = new ArrayList<>(dataBodies.size());
+        for (DataBodyEntity dataBody : dataBodies) {
+            entries.add(toOutboxEntity(dataBody));
+        }
+        dataLakeOutboxRepository.saveAll(entries);
+    }
+
+    /**
+     * Moves up to limit due entries, oldest first, to IN_FLIGHT so no other poll picks them up again.
+     */
+    @Override
+    @Transactional
+    public List<DataLakeOutboxEntity> claimDue(int limit) {
+        List<DataLakeOutboxEntity> due = dataLakeOutboxRepository.findByStatusAndNextAttemptTimestampLessThanEqualOrderByOutboxIdAsc(
+                OutboxStatusEnum.PENDING, Instant.now(), PageRequest.of(0, limit));
+        for (DataLakeOutboxEntity entry : due) {
+            entry.setStatus(OutboxStatusEnum.IN_FLIGHT);
+        }
+        return due;
+    }
+
+    @Override
+    @Transactional
+    public void markDelivered(Long outboxId) {
+        dataLakeOutboxRepository.deleteById(outboxId);
+    }
+
+    @Override
+    @Transactional
+    public void markDeadLetter(Long outboxId, int attempts, String error) {
+        dataLakeOutboxRepository.findById(outboxId).ifPresent(entry -> {
+            entry.setStatus(OutboxStatusEnum.DEAD_LETTER);
+            entry.setAttempts(entry.getAttempts() + attempts);
+            entry.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void release(Long outboxId) {
+        dataLakeOutboxRepository.findById(outboxId).ifPresent(entry -> entry.setStatus(OutboxStatusEnum.PENDING));
+    }
+
+    /**
+     * Entries left IN_FLIGHT by a previous run were never acknowledged, so they are handed back to the relay.
+     */
+    @Override
+    @Transactional
+    public int releaseInFlight() {
+        return dataLakeOutboxRepository.updateStatus(OutboxStatusEnum.IN_FLIGHT, OutboxStatusEnum.PENDING, Instant.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DataLakeOutboxEntity> getDeadLetters(int limit) {
+        return dataLakeOutboxRepository.findByStatusOrderByOutboxIdAsc(OutboxStatusEnum.DEAD_LETTER, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional
+    public int replayDeadLetters() {
+        return dataLakeOutboxRepository.updateStatus(OutboxStatusEnum.DEAD_LETTER, OutboxStatusEnum.PENDING, Instant.now());
+    }
+
+    @Override
+    @Transactional
+    public boolean replayDeadLetter(Long outboxId) {
+        Optional<DataLakeOutboxEntity> entry = dataLakeOutboxRepository.findById(outboxId);
+        if (entry.isPresent() && entry.get().getStatus() == OutboxStatusEnum.DEAD_LETTER) {
+            entry.get().setStatus(OutboxStatusEnum.PENDING);
+            entry.get().setNextAttemptTimestamp(Instant.now());
+            return true;
+        }
+        return false;
+    }
+
+    private DataLakeOutboxEntity toOutboxEntity(DataBodyEntity dataBody) {
+        DataLakeOutboxEntity entry = new DataLakeOutboxEntity();
+        entry.setName(dataBody.getDataHeaderEntity().getName());
+        entry.setPayload(dataBody.getDataBody());
+        entry.setStatus(OutboxStatusEnum.PENDING);
+        return entry;
+    }
+}
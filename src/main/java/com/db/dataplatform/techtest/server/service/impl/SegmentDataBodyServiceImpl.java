@@ -0,0 +1,293 @@
+package com.db.dataplatform.techtest.server.service.impl;
+
+import com.db.dataplatform.techtest.server.configuration.StorageProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.event.DataBodyPurgedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
+import com.db.dataplatform.techtest.server.persistence.segment.SegmentChange;
+import com.db.dataplatform.techtest.server.persistence.segment.SegmentEntry;
+import com.db.dataplatform.techtest.server.persistence.segment.SegmentStore;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Keeps bodies in a {@link SegmentStore} instead of the database, selected with
+ * {@code dataserver.storage.engine=segments}. Reads serve bodies from the mapped segments and never lock.
+ * <p>
+ * Writes are not part of the database transaction. Inside one, e.g. together with the data lake outbox entry, they
+ * are appended straight away and reverted by appending the previous state should the transaction roll back.
+ */
+@Service
+@ConditionalOnProperty(prefix = "dataserver.storage", name = "engine", havingValue = "segments")
+@Slf4j
+public class SegmentDataBodyServiceImpl implements DataBodyService {
+
+    private final StorageProperties storageProperties;
+    private final SegmentStore segmentStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SegmentDataBodyServiceImpl(StorageProperties storageProperties, ApplicationEventPublisher eventPublisher) {
+        this.storageProperties = storageProperties;
+        this.eventPublisher = eventPublisher;
+        try {
+            this.segmentStore = SegmentStore.open(Paths.get(storageProperties.getSegmentDirectory()),
+                    storageProperties.getSegmentBytes(), storageProperties.getPartitionMillis(),
+                    storageProperties.isSegmentSyncOnWrite());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open segments in " + storageProperties.getSegmentDirectory(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        segmentStore.close();
+    }
+
+    @Scheduled(fixedDelayString = "${dataserver.storage.compaction-interval-millis:30000}")
+    public void compact() {
+        try {
+            segmentStore.compact(storageProperties.getCompactionMinGarbageRatio());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Segment compaction failed", e);
+        }
+    }
+
+    /**
+     * Enforces {@link StorageProperties#getRetention()} by dropping whole partitions, never single bodies.
+     */
+    @Scheduled(fixedDelayString = "${dataserver.storage.purge-interval-millis:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        storageProperties.getRetention().forEach((blockType, retention) -> {
+            try {
+                List<String> names = segmentStore.purge(blockType, now.minus(retention));
+                if (!names.isEmpty()) {
+                    eventPublisher.publishEvent(new DataBodyChangedEvent(EnumSet.of(blockType)));
+                    eventPublisher.publishEvent(new DataBodyPurgedEvent(blockType, names));
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Segment purge of block type {} failed", blockType, e);
+            }
+        });
+    }
+
+    @Override
+    public void saveDataBody(DataBodyEntity dataBody) {
+        saveDataBodies(Collections.singletonList(dataBody));
+    }
+
+    @Override
+    public void saveDataBodies(List<DataBodyEntity> dataBodies) {
+        published(revertOnRollback(segmentStore.insert(dataBodies)));
+    }
+
+    /**
+     * Names already stored with the same checksum and block type are left alone and reported as not written.
+     */
+    @Override
+    public boolean[] upsertDataBodies(List<DataBodyEntity> dataBodies) {
+        List<SegmentChange> changes = revertOnRollback(segmentStore.upsert(dataBodies));
+        boolean[] written = new boolean[changes.size()];
+        for (int i = 0; i < written.length; i++) {
+            written[i] = changes.get(i).isWritten();
+        }
+        published(changes);
+        return written;
+    }
+
+    @Override
+    public boolean deleteDataBody(String blockName) {
+        SegmentChange change = segmentStore.delete(blockName);
+        if (change == null) {
+            return false;
+        }
+        published(revertOnRollback(Collections.singletonList(change)));
+        return true;
+    }
+
+    @Override
+    public void updateBlockType(DataBodyEntity dataBody, BlockTypeEnum newBlockType) {
+        BlockTypeEnum oldBlockType = dataBody.getDataHeaderEntity().getBlocktype();
+        dataBody.getDataHeaderEntity().setBlocktype(newBlockType);
+        List<SegmentChange> changes = revertOnRollback(segmentStore.move(
+                Collections.singletonList(dataBody.getDataHeaderEntity().getName()), newBlockType));
+        eventPublisher.publishEvent(new DataBodyChangedEvent(EnumSet.of(oldBlockType, newBlockType), written(changes)));
+    }
+
+    @Override
+    public int updateBlockTypes(Collection<String> names, BlockTypeEnum newBlockType) {
+        return published(revertOnRollback(segmentStore.move(names, newBlockType)));
+    }
+
+    /**
+     * The prefix is matched literally, like the escaped LIKE pattern of the database.
+     */
+    @Override
+    public int updateBlockTypesByNamePrefix(String namePrefix, BlockTypeEnum newBlockType) {
+        return published(revertOnRollback(segmentStore.moveByNamePrefix(namePrefix, newBlockType)));
+    }
+
+    @Override
+    public List<DataBodyProjection> getDataByBlockType(BlockTypeEnum blockType) {
+        List<DataBodyProjection> dataBodies = new ArrayList<>();
+        forEachDataByBlockType(blockType, dataBodies::add);
+        return dataBodies;
+    }
+
+    @Override
+    public List<DataBodyProjection> getDataByBlockType(BlockTypeEnum blockType, long afterId, int limit) {
+        List<DataBodyProjection> dataBodies = new ArrayList<>(Math.min(limit, 1024));
+        for (SegmentEntry entry : segmentStore.getByBlockType(blockType, afterId).values()) {
+            if (dataBodies.size() == limit) {
+                break;
+            }
+            dataBodies.add(toProjection(entry));
+        }
+        return dataBodies;
+    }
+
+    /**
+     * Only the partitions overlapping the range from the later of {@code from} and the watermark are read.
+     */
+    @Override
+    public List<DataBodyProjection> getDataByBlockTypeCreated(BlockTypeEnum blockType, Instant from, Instant to,
+                                                              Instant afterCreated, long afterId, int limit) {
+        Instant lower = afterCreated != null && (from == null || afterCreated.isAfter(from)) ? afterCreated : from;
+        List<DataBodyProjection> dataBodies = new ArrayList<>(Math.min(limit, 1024));
+        for (SegmentEntry entry : segmentStore.getByBlockType(blockType, lower, to)) {
+            if (dataBodies.size() == limit) {
+                break;
+            }
+            if (afterCreated == null || entry.getCreatedTimestamp().isAfter(afterCreated) || entry.getId() > afterId) {
+                dataBodies.add(toProjection(entry));
+            }
+        }
+        return dataBodies;
+    }
+
+    @Override
+    public long forEachDataByBlockType(BlockTypeEnum blockType, Consumer<DataBodyProjection> action) {
+        long visited = 0;
+        for (SegmentEntry entry : segmentStore.getByBlockType(blockType, 0).values()) {
+            action.accept(toProjection(entry));
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * The entity is detached and only good for {@link #updateBlockType(DataBodyEntity, BlockTypeEnum)}.
+     */
+    @Override
+    public Optional<DataBodyEntity> getDataByBlockName(String blockName) {
+        SegmentEntry entry = segmentStore.get(blockName);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        DataHeaderEntity dataHeaderEntity = new DataHeaderEntity();
+        dataHeaderEntity.setName(entry.getName());
+        dataHeaderEntity.setBlocktype(entry.getBlockType());
+        dataHeaderEntity.setCreatedTimestamp(entry.getCreatedTimestamp());
+        DataBodyEntity dataBodyEntity = new DataBodyEntity();
+        dataBodyEntity.setDataStoreId(entry.getId());
+        dataBodyEntity.setDataHeaderEntity(dataHeaderEntity);
+        dataBodyEntity.setDataBody(StandardCharsets.UTF_8.decode(entry.getBody()).toString());
+        dataBodyEntity.setChecksum(entry.getChecksum());
+        dataBodyEntity.setCreatedTimestamp(entry.getCreatedTimestamp());
+        return Optional.of(dataBodyEntity);
+    }
+
+    @Override
+    public Optional<DataBodyChecksum> getChecksumByBlockName(String blockName) {
+        return Optional.ofNullable(segmentStore.get(blockName)).map(entry -> new DataBodyChecksum(entry.getBlockType(), entry.getChecksum()));
+    }
+
+    @Override
+    public long forEachBlockName(Consumer<String> action) {
+        long visited = 0;
+        for (String name : segmentStore.getNames()) {
+            action.accept(name);
+            visited++;
+        }
+        return visited;
+    }
+
+    private static DataBodyProjection toProjection(SegmentEntry entry) {
+        return new DataBodyProjection(entry.getId(), entry.getName(), entry.getBlockType(), entry.getBody(), entry.getChecksum(),
+                entry.getCreatedTimestamp());
+    }
+
+    private List<SegmentChange> revertOnRollback(List<SegmentChange> changes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !changes.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        segmentStore.revert(changes);
+                    }
+                }
+            });
+        }
+        return changes;
+    }
+
+    /**
+     * Notifies readers of every block type a written body left or entered.
+     *
+     * @return the number of bodies written.
+     */
+    private int published(List<SegmentChange> changes) {
+        Set<BlockTypeEnum> blockTypes = EnumSet.noneOf(BlockTypeEnum.class);
+        int written = 0;
+        for (SegmentChange change : changes) {
+            if (change.isWritten()) {
+                written++;
+                if (change.getPrevious() != null) {
+                    blockTypes.add(change.getPrevious().getBlockType());
+                }
+                if (change.getCurrent() != null) {
+                    blockTypes.add(change.getCurrent().getBlockType());
+                }
+            }
+        }
+        if (!blockTypes.isEmpty()) {
+            eventPublisher.publishEvent(new DataBodyChangedEvent(blockTypes, written(changes)));
+        }
+        return written;
+    }
+
+    private static List<DataBodyProjection> written(List<SegmentChange> changes) {
+        List<DataBodyProjection> dataBodies = new ArrayList<>(changes.size());
+        for (SegmentChange change : changes) {
+            if (change.isWritten() && change.getCurrent() != null) {
+                dataBodies.add(toProjection(change.getCurrent()));
+            }
+        }
+        return dataBodies;
+    }
+}
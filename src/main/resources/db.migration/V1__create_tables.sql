@@ -0,0 +1,47 @@
+create sequence if not exists SEQ_DATA_HEADER increment by 50;
+
+drop table if exists DATA_HEADER;
+
+create table DATA_HEADER
+(
+    DATA_HEADER_ID    NUMBER       NOT NULL,
+    NAME              VARCHAR2(30 CHAR) NOT NULL,
+    BLOCKTYPE         VARCHAR2(11 CHAR) NOT NULL,
+    CREATED_TIMESTAMP TIMESTAMP(6) NOT NULL,
+    CONSTRAINT PK_DATA_HEADER PRIMARY KEY (DATA_HEADER_ID),
+    CONSTRAINT UK_DATA_HEADER UNIQUE (NAME)
+);
+
+create sequence if not exists SEQ_DATA_STORE increment by 50;
+
+drop table if exists DATA_STORE;
+
+create table DATA_STORE
+(
+    DATA_STORE_ID     NUMBER       NOT NULL,
+    DATA_HEADER_ID    NUMBER       NOT NULL,
+    DATA_BODY         VARCHAR2(1000 CHAR) NOT NULL,
+    CHECKSUM          VARCHAR2(1000 CHAR) NOT NULL,
+    CREATED_TIMESTAMP TIMESTAMP(6) NOT NULL,
+    CONSTRAINT PK_DATA_STORE PRIMARY KEY (DATA_STORE_ID),
+    CONSTRAINT FK_DS_DH FOREIGN KEY (DATA_HEADER_ID) REFERENCES DATA_HEADER (DATA_HEADER_ID)
+);
+
+create sequence if not exists SEQ_DATA_LAKE_OUTBOX increment by 50;
+
+drop table if exists DATA_LAKE_OUTBOX;
+
+create table DATA_LAKE_OUTBOX
+(
+    OUTBOX_ID              NUMBER       NOT NULL,
+    NAME                   VARCHAR2(30 CHAR) NOT NULL,
+    PAYLOAD                VARCHAR2(1000 CHAR) NOT NULL,
+    STATUS                 VARCHAR2(11 CHAR) NOT NULL,
+    ATTEMPTS               NUMBER       NOT NULL,
+    NEXT_ATTEMPT_TIMESTAMP TIMESTAMP(6) NOT NULL,
+    LAST_ERROR             VARCHAR2(1000 CHAR),
+    CREATED_TIMESTAMP      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT PK_DATA_LAKE_OUTBOX PRIMARY KEY (OUTBOX_ID)
+);
+
+create index if not exists IDX_DATA_LAKE_OUTBOX_DUE on DATA_LAKE_OUTBOX (STATUS, NEXT_ATTEMPT_TIMESTAMP, OUTBOX_ID);
@@ -0,0 +1,7 @@
+-- block type reads: filter DATA_HEADER on BLOCKTYPE, then join to DATA_STORE through DATA_HEADER_ID
+create index if not exists IDX_DATA_HEADER_BLOCKTYPE on DATA_HEADER (BLOCKTYPE, DATA_HEADER_ID);
+
+-- the join from a header to its body uses the index H2 creates for FK_DS_DH, and name lookups use UK_DATA_HEADER
+
+-- time range reads over bodies, in id order within a timestamp
+create index if not exists IDX_DATA_STORE_CREATED on DATA_STORE (CREATED_TIMESTAMP, DATA_STORE_ID);
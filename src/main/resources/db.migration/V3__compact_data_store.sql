@@ -0,0 +1,17 @@
+-- bodies move to a binary column tagged with the codec that encoded them, checksums to their raw bytes;
+-- rows already stored keep their body as plain UTF-8 (codec 0)
+alter table DATA_STORE add column BODY_CODEC TINYINT DEFAULT 0 NOT NULL;
+alter table DATA_STORE add column DATA_BODY_BYTES VARBINARY;
+alter table DATA_STORE add column CHECKSUM_BYTES VARBINARY(32);
+
+update DATA_STORE set DATA_BODY_BYTES = STRINGTOUTF8(DATA_BODY), CHECKSUM_BYTES = cast(CHECKSUM as VARBINARY);
+
+alter table DATA_STORE drop column DATA_BODY;
+alter table DATA_STORE drop column CHECKSUM;
+alter table DATA_STORE alter column DATA_BODY_BYTES rename to DATA_BODY;
+alter table DATA_STORE alter column CHECKSUM_BYTES rename to CHECKSUM;
+alter table DATA_STORE alter column DATA_BODY set not null;
+alter table DATA_STORE alter column CHECKSUM set not null;
+
+-- the outbox carries the plain body, so it must not cap what DATA_STORE can hold
+alter table DATA_LAKE_OUTBOX alter column PAYLOAD VARCHAR NOT NULL;
@@ -0,0 +1,26 @@
+-- bodies are stored once per distinct content, keyed by the SHA-256 of their UTF-8 bytes and counted by the
+-- DATA_STORE rows referring to them; content is deleted when its last reference is released
+create table DATA_BODY_CONTENT
+(
+    CONTENT_KEY       VARBINARY(32) NOT NULL,
+    BODY_CODEC        TINYINT       NOT NULL,
+    DATA_BODY         VARBINARY     NOT NULL,
+    REF_COUNT         NUMBER        NOT NULL,
+    CREATED_TIMESTAMP TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT PK_DATA_BODY_CONTENT PRIMARY KEY (CONTENT_KEY)
+);
+
+-- deflated rows cannot be inflated here, they are keyed by their encoded bytes: still one content per key, only
+-- not shared with later pushes of the same body
+alter table DATA_STORE add column CONTENT_KEY VARBINARY(32);
+update DATA_STORE set CONTENT_KEY = HASH('SHA256', DATA_BODY);
+
+insert into DATA_BODY_CONTENT (CONTENT_KEY, BODY_CODEC, DATA_BODY, REF_COUNT, CREATED_TIMESTAMP)
+select CONTENT_KEY, min(BODY_CODEC), min(DATA_BODY), count(*), min(CREATED_TIMESTAMP) from DATA_STORE group by CONTENT_KEY;
+
+alter table DATA_STORE drop column BODY_CODEC;
+alter table DATA_STORE drop column DATA_BODY;
+alter table DATA_STORE alter column CONTENT_KEY set not null;
+
+-- H2 indexes DATA_STORE.CONTENT_KEY for the constraint, which the unreferenced content check uses
+alter table DATA_STORE add constraint FK_DS_DBC foreign key (CONTENT_KEY) references DATA_BODY_CONTENT (CONTENT_KEY);
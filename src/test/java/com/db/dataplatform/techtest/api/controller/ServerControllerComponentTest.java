@@ -1,29 +1,76 @@
 package com.db.dataplatform.techtest.api.controller;
 
 import com.db.dataplatform.techtest.TestDataHelper;
+import com.db.dataplatform.techtest.server.api.RestResponseEntityExceptionHandler;
 import com.db.dataplatform.techtest.server.api.controller.ServerController;
+import com.db.dataplatform.techtest.server.api.model.AdmissionLimits;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdate;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdateSummary;
 import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelopePage;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.api.model.Watermark;
+import com.db.dataplatform.techtest.server.api.model.IngestStatus;
+import com.db.dataplatform.techtest.server.api.model.IngestSummary;
+import com.db.dataplatform.techtest.server.api.model.IngestTicket;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.api.model.PushDataStatus;
+import com.db.dataplatform.techtest.server.api.model.WriteMode;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
 import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.component.impl.DataEnvelopeStream;
+import com.db.dataplatform.techtest.server.component.impl.IngestAdmission;
+import com.db.dataplatform.techtest.server.component.impl.RequestExecutors;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.configuration.StreamProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
 import com.db.dataplatform.techtest.server.exception.HadoopClientException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.util.UriTemplate;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
@@ -31,8 +78,15 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standal
 public class ServerControllerComponentTest {
 
     public static final String URI_PUSHDATA = "http://localhost:8090/dataserver/pushdata";
+    public static final String URI_PUSHDATA_BATCH = "http://localhost:8090/dataserver/pushdata/batch";
+    public static final String URI_PUSHDATA_STREAM = "http://localhost:8090/dataserver/pushdata/stream";
+    public static final String URI_PUSHDATA_ASYNC = "http://localhost:8090/dataserver/pushdata/async";
+    public static final UriTemplate URI_STATUS = new UriTemplate("http://localhost:8090/dataserver/status/{id}");
     public static final UriTemplate URI_GETDATA = new UriTemplate("http://localhost:8090/dataserver/data/{blockType}");
     public static final UriTemplate URI_PATCHDATA = new UriTemplate("http://localhost:8090/dataserver/update/{name}/{newBlockType}");
+    public static final String URI_PATCHDATA_BULK = "http://localhost:8090/dataserver/update";
+    public static final UriTemplate URI_DELETEDATA = new UriTemplate("http://localhost:8090/dataserver/delete/{name}");
+    public static final UriTemplate URI_STREAM = new UriTemplate("http://localhost:8090/dataserver/stream/{blockType}");
 
     @Mock
     private Server serverMock;
@@ -41,18 +95,27 @@ public class ServerControllerComponentTest {
     private ObjectMapper objectMapper;
     private MockMvc mockMvc;
     private ServerController serverController;
+    private IngestAdmission ingestAdmission;
+    private DataEnvelopeStream dataEnvelopeStream;
 
     @Before
     public void setUp() throws HadoopClientException, NoSuchAlgorithmException, IOException {
-        serverController = new ServerController(serverMock);
-        mockMvc = standaloneSetup(serverController).build();
         objectMapper = Jackson2ObjectMapperBuilder
                 .json()
                 .build();
+        IngestProperties ingestProperties = new IngestProperties();
+        ingestProperties.setAdmissionEnabled(true);
+        ingestAdmission = new IngestAdmission(ingestProperties);
+        dataEnvelopeStream = new DataEnvelopeStream(new StreamProperties(), objectMapper, Runnable::run);
+        serverController = new ServerController(serverMock, new RequestExecutors(Runnable::run, Runnable::run, new SimpleMeterRegistry()),
+                ingestAdmission, dataEnvelopeStream);
+        mockMvc = standaloneSetup(serverController)
+                .setControllerAdvice(new RestResponseEntityExceptionHandler())
+                .build();
 
         testDataEnvelope = TestDataHelper.createTestDataEnvelopeApiObject();
 
-        when(serverMock.saveDataEnvelope(any(DataEnvelope.class))).thenReturn(true);
+        when(serverMock.saveDataEnvelope(any(DataEnvelope.class), any(ChecksumAlgorithm.class))).thenReturn(true);
     }
 
     @Test
@@ -60,7 +123,7 @@ public class ServerControllerComponentTest {
 
         String testDataEnvelopeJson = objectMapper.writeValueAsString(testDataEnvelope);
 
-        MvcResult mvcResult = mockMvc.perform(post(URI_PUSHDATA)
+        MvcResult mvcResult = performAsync(post(URI_PUSHDATA)
                         .content(testDataEnvelopeJson)
                         .contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(status().isOk())
@@ -69,4 +132,292 @@ public class ServerControllerComponentTest {
         boolean checksumPass = Boolean.parseBoolean(mvcResult.getResponse().getContentAsString());
         assertThat(checksumPass).isTrue();
     }
+
+    @Test
+    public void testPushDataRejectsNameLongerThanStored() throws Exception {
+        DataEnvelope dataEnvelope = new DataEnvelope(new DataHeader("NAME-LONGER-THAN-THE-30-CHARS-X", BlockTypeEnum.BLOCKTYPEA),
+                TestDataHelper.getDataBody());
+
+        mockMvc.perform(post(URI_PUSHDATA)
+                        .content(objectMapper.writeValueAsString(dataEnvelope))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(serverMock);
+    }
+
+    @Test
+    public void testPushDataShedsProducerOverItsRate() throws Exception {
+        ingestAdmission.setLimits(new AdmissionLimits(1, 1, 0, null));
+        String testDataEnvelopeJson = objectMapper.writeValueAsString(testDataEnvelope);
+
+        performAsync(post(URI_PUSHDATA)
+                        .content(testDataEnvelopeJson)
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .header(IngestAdmission.PRODUCER_HEADER, "producer-1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(URI_PUSHDATA)
+                        .content(testDataEnvelopeJson)
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .header(IngestAdmission.PRODUCER_HEADER, "producer-1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+        assertThat(ingestAdmission.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPushDataBatchReturnsResultPerEnvelope() throws Exception {
+        when(serverMock.saveDataEnvelopes(anyList(), any(ChecksumAlgorithm.class))).thenReturn(
+                Collections.singletonList(new PushDataResult(testDataEnvelope.getDataHeader().getName(), PushDataStatus.PERSISTED)));
+
+        String testDataEnvelopesJson = objectMapper.writeValueAsString(Collections.singletonList(testDataEnvelope));
+
+        MvcResult mvcResult = performAsync(post(URI_PUSHDATA_BATCH)
+                        .content(testDataEnvelopesJson)
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        PushDataResult[] results = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), PushDataResult[].class);
+        assertThat(results).hasSize(1);
+        assertThat(results[0].getStatus()).isEqualTo(PushDataStatus.PERSISTED);
+    }
+
+    @Test
+    public void testPushDataBatchUpsertsWhenRequested() throws Exception {
+        when(serverMock.upsertDataEnvelopes(anyList(), any(ChecksumAlgorithm.class))).thenReturn(
+                Collections.singletonList(new PushDataResult(testDataEnvelope.getDataHeader().getName(), PushDataStatus.UNCHANGED)));
+
+        MvcResult mvcResult = performAsync(post(URI_PUSHDATA_BATCH)
+                        .content(objectMapper.writeValueAsString(Collections.singletonList(testDataEnvelope)))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .header(WriteMode.HEADER, WriteMode.UPSERT))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        PushDataResult[] results = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), PushDataResult[].class);
+        assertThat(results[0].getStatus()).isEqualTo(PushDataStatus.UNCHANGED);
+        verify(serverMock, never()).saveDataEnvelopes(anyList(), any(ChecksumAlgorithm.class));
+    }
+
+    @Test
+    public void testPushDataAsyncAcceptsWithTrackingLocation() throws Exception {
+        IngestTicket ticket = new IngestTicket("42", testDataEnvelope.getDataHeader().getName(), IngestStatus.QUEUED, null);
+        when(serverMock.saveDataEnvelopeAsync(any(DataEnvelope.class), any(ChecksumAlgorithm.class))).thenReturn(ticket);
+        when(serverMock.getIngestTicket("42")).thenReturn(Optional.of(ticket));
+
+        mockMvc.perform(post(URI_PUSHDATA_ASYNC)
+                        .content(objectMapper.writeValueAsString(testDataEnvelope))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, URI_STATUS.expand("42").toString()));
+
+        MvcResult mvcResult = mockMvc.perform(get(URI_STATUS.expand("42")))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(objectMapper.readValue(mvcResult.getResponse().getContentAsString(), IngestTicket.class).getStatus())
+                .isEqualTo(IngestStatus.QUEUED);
+        mockMvc.perform(get(URI_STATUS.expand("unknown")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testPushDataStreamReturnsSummary() throws Exception {
+        when(serverMock.saveDataEnvelopeStream(any(InputStream.class), any(ChecksumAlgorithm.class), any())).thenReturn(new IngestSummary(1, 0));
+
+        MvcResult mvcResult = mockMvc.perform(post(URI_PUSHDATA_STREAM)
+                        .content(objectMapper.writeValueAsString(testDataEnvelope) + "\n")
+                        .contentType(ServerController.MEDIA_TYPE_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        IngestSummary summary = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), IngestSummary.class);
+        assertThat(summary.getAccepted()).isEqualTo(1);
+        assertThat(summary.getRejected()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGetDataStreamsAllEnvelopes() throws Exception {
+        String testDataEnvelopesJson = objectMapper.writeValueAsString(Collections.singletonList(testDataEnvelope));
+        when(serverMock.writeDataEnvelopesByBlockType(eq(BlockTypeEnum.BLOCKTYPEA), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(testDataEnvelopesJson.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult mvcResult = performAsync(get(URI_GETDATA.expand(BlockTypeEnum.BLOCKTYPEA.name())))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(mvcResult.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        DataEnvelope[] envelopes = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), DataEnvelope[].class);
+        assertThat(envelopes).hasSize(1);
+    }
+
+    @Test
+    public void testGetDataPageReturnsNextCursorHeader() throws Exception {
+        when(serverMock.getDataEnvelopePageByBlockType(BlockTypeEnum.BLOCKTYPEA, 10L, 1))
+                .thenReturn(new DataEnvelopePage(Collections.singletonList(testDataEnvelope), 11L));
+
+        MvcResult mvcResult = performAsync(get(URI_GETDATA.expand(BlockTypeEnum.BLOCKTYPEA.name()))
+                        .param("after", "10")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerController.HEADER_NEXT_CURSOR, "11"))
+                .andReturn();
+
+        DataEnvelope[] envelopes = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), DataEnvelope[].class);
+        assertThat(envelopes).hasSize(1);
+    }
+
+    @Test
+    public void testGetDataSinceWatermarkReturnsNextWatermarkHeader() throws Exception {
+        Instant from = Instant.parse("2026-10-18T00:00:00Z");
+        Watermark since = Watermark.valueOf("1760778000000001-4");
+        when(serverMock.getDataEnvelopePageByCreated(BlockTypeEnum.BLOCKTYPEA, from, null, since, 1))
+                .thenReturn(new DataEnvelopePage(Collections.singletonList(testDataEnvelope), null, Watermark.valueOf("1760778000000002-5")));
+
+        MvcResult mvcResult = performAsync(get(URI_GETDATA.expand(BlockTypeEnum.BLOCKTYPEA.name()))
+                        .param("from", "2026-10-18T00:00:00Z")
+                        .param("since", since.toString())
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ServerController.HEADER_NEXT_WATERMARK, "1760778000000002-5"))
+                .andReturn();
+
+        DataEnvelope[] envelopes = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), DataEnvelope[].class);
+        assertThat(envelopes).hasSize(1);
+    }
+
+    @Test
+    public void testGetDataRejectsCursorTogetherWithWatermark() throws Exception {
+        mockMvc.perform(get(URI_GETDATA.expand(BlockTypeEnum.BLOCKTYPEA.name()))
+                        .param("after", "10")
+                        .param("since", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testBulkUpdateReturnsUpdatedCount() throws Exception {
+        when(serverMock.updateDataEnvelopes(any(BlockTypeUpdate.class))).thenReturn(new BlockTypeUpdateSummary(2));
+
+        MvcResult mvcResult = performAsync(patch(URI_PATCHDATA_BULK)
+                        .content(objectMapper.writeValueAsString(new BlockTypeUpdate(null, "TSLA-", BlockTypeEnum.BLOCKTYPEB)))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BlockTypeUpdateSummary summary = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), BlockTypeUpdateSummary.class);
+        assertThat(summary.getUpdated()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDeleteReturnsWhetherEnvelopeWasDeleted() throws Exception {
+        when(serverMock.deleteDataEnvelope("TSLA-1")).thenReturn(true);
+
+        performAsync(delete(URI_DELETEDATA.expand("TSLA-1")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+        performAsync(delete(URI_DELETEDATA.expand("TSLA-2")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("false"));
+    }
+
+    @Test
+    public void testBulkUpdateRejectsNamesTogetherWithPrefix() throws Exception {
+        BlockTypeUpdate update = new BlockTypeUpdate(Collections.singletonList("TSLA-1"), "TSLA-", BlockTypeEnum.BLOCKTYPEB);
+
+        mockMvc.perform(patch(URI_PATCHDATA_BULK)
+                        .content(objectMapper.writeValueAsString(update))
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(serverMock);
+    }
+
+    @Test
+    public void testStreamSendsCommittedEnvelopesOfItsBlockType() throws Exception {
+        MvcResult subscription = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        dataEnvelopeStream.onDataBodyChanged(changed(dataBodyProjection("A-1", BlockTypeEnum.BLOCKTYPEA),
+                dataBodyProjection("B-1", BlockTypeEnum.BLOCKTYPEB)));
+
+        String events = subscription.getResponse().getContentAsString();
+        assertThat(subscription.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(events).contains("event:" + DataEnvelopeStream.EVENT_ENVELOPE).contains("\"A-1\"").doesNotContain("B-1");
+    }
+
+    @Test
+    public void testStreamResumesAfterLastEventIdOrAsksForReset() throws Exception {
+        MvcResult first = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name()))).andReturn();
+        dataEnvelopeStream.onDataBodyChanged(changed(dataBodyProjection("A-1", BlockTypeEnum.BLOCKTYPEA),
+                dataBodyProjection("A-2", BlockTypeEnum.BLOCKTYPEA)));
+        String firstEventId = first.getResponse().getContentAsString().split("\n")[0].substring("id:".length());
+
+        MvcResult resumed = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name()))
+                        .header(ServerController.HEADER_LAST_EVENT_ID, firstEventId))
+                .andReturn();
+        MvcResult unknown = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name()))
+                        .header(ServerController.HEADER_LAST_EVENT_ID, "0-1"))
+                .andReturn();
+
+        assertThat(resumed.getResponse().getContentAsString()).contains("A-2").doesNotContain("A-1");
+        assertThat(unknown.getResponse().getContentAsString()).contains("event:" + DataEnvelopeStream.EVENT_RESET)
+                .doesNotContain("A-");
+    }
+
+    @Test
+    public void testStreamAsksForResetOnChangeWithoutEnvelopes() throws Exception {
+        MvcResult subscription = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name()))).andReturn();
+
+        // a set-based block type update names the block types it may have touched, but not the envelopes
+        dataEnvelopeStream.onDataBodyChanged(new DataBodyChangedEvent(EnumSet.allOf(BlockTypeEnum.class)));
+        String lastEventId = subscription.getResponse().getContentAsString().split("\n")[0].substring("id:".length());
+        dataEnvelopeStream.onDataBodyChanged(changed(dataBodyProjection("A-1", BlockTypeEnum.BLOCKTYPEA)));
+
+        assertThat(subscription.getResponse().getContentAsString())
+                .contains("event:" + DataEnvelopeStream.EVENT_RESET + "\ndata:" + BlockTypeEnum.BLOCKTYPEA.name())
+                .doesNotContain(BlockTypeEnum.BLOCKTYPEB.name());
+        MvcResult resumed = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name()))
+                        .header(ServerController.HEADER_LAST_EVENT_ID, lastEventId))
+                .andReturn();
+        assertThat(resumed.getResponse().getContentAsString()).contains("A-1").doesNotContain(DataEnvelopeStream.EVENT_RESET);
+    }
+
+    @Test
+    public void testStreamAsksForResetOfBlockTypeEnvelopeIsMovedFrom() throws Exception {
+        MvcResult oldBlockType = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEA.name()))).andReturn();
+        MvcResult newBlockType = mockMvc.perform(get(URI_STREAM.expand(BlockTypeEnum.BLOCKTYPEB.name()))).andReturn();
+
+        dataEnvelopeStream.onDataBodyChanged(new DataBodyChangedEvent(EnumSet.of(BlockTypeEnum.BLOCKTYPEA, BlockTypeEnum.BLOCKTYPEB),
+                Collections.singletonList(dataBodyProjection("A-1", BlockTypeEnum.BLOCKTYPEB))));
+
+        assertThat(oldBlockType.getResponse().getContentAsString())
+                .contains("event:" + DataEnvelopeStream.EVENT_RESET + "\ndata:" + BlockTypeEnum.BLOCKTYPEA.name())
+                .doesNotContain("A-1");
+        assertThat(newBlockType.getResponse().getContentAsString()).contains("event:" + DataEnvelopeStream.EVENT_ENVELOPE)
+                .contains("\"A-1\"").doesNotContain(DataEnvelopeStream.EVENT_RESET);
+    }
+
+    private static DataBodyChangedEvent changed(DataBodyProjection... dataBodies) {
+        Set<BlockTypeEnum> blockTypes = EnumSet.noneOf(BlockTypeEnum.class);
+        for (DataBodyProjection dataBody : dataBodies) {
+            blockTypes.add(dataBody.getBlockType());
+        }
+        return new DataBodyChangedEvent(blockTypes, Arrays.asList(dataBodies));
+    }
+
+    private static DataBodyProjection dataBodyProjection(String name, BlockTypeEnum blockType) {
+        return new DataBodyProjection(1L, name, blockType, "BODY", "CHECKSUM");
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult started = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
 }
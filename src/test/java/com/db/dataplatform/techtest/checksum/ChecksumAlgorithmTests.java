@@ -0,0 +1,51 @@
+package com.db.dataplatform.techtest.checksum;
+
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChecksumAlgorithmTests {
+
+    @Test
+    public void md5ShouldMatchClientChecksum() {
+        assertThat(ChecksumAlgorithm.MD5.checksum(DUMMY_DATA)).isEqualTo("cecfd3953783df706878aaec2c22aa70");
+        // The digest is reused per thread, a second call must not see state from the first.
+        assertThat(ChecksumAlgorithm.MD5.checksum(DUMMY_DATA)).isEqualTo("cecfd3953783df706878aaec2c22aa70");
+    }
+
+    @Test
+    public void crc32cShouldMatchReferenceVectors() {
+        assertThat(ChecksumAlgorithm.CRC32C.checksum("")).isEqualTo("00000000");
+        assertThat(ChecksumAlgorithm.CRC32C.checksum("123456789")).isEqualTo("e3069283");
+    }
+
+    @Test
+    public void xxHash64ShouldMatchReferenceVectors() {
+        assertThat(ChecksumAlgorithm.XXHASH64.checksum("")).isEqualTo("ef46db3751d8e999");
+        assertThat(ChecksumAlgorithm.XXHASH64.checksum("abc")).isEqualTo("44bc2cf5ad770999");
+        assertThat(ChecksumAlgorithm.XXHASH64.checksum("Nobody inspects the spammish repetition")).isEqualTo("fbcea83c8a378bf1");
+    }
+
+    @Test
+    public void hexEncoderShouldPadAndUseLowerCase() {
+        assertThat(HexEncoder.encode(new byte[]{0x00, 0x0F, (byte) 0xAB})).isEqualTo("000fab");
+        assertThat(HexEncoder.encode(0x0A)).isEqualTo("0000000a");
+        assertThat(HexEncoder.encode(-1L)).isEqualTo("ffffffffffffffff");
+    }
+
+    @Test
+    public void hexDecoderShouldRoundTripAndRejectMalformedHex() {
+        assertThat(HexEncoder.decode("000fab")).containsExactly(new byte[]{0x00, 0x0F, (byte) 0xAB});
+        assertThat(HexEncoder.encode(HexEncoder.decode("cecfd3953783df706878aaec2c22aa70")))
+                .isEqualTo("cecfd3953783df706878aaec2c22aa70");
+        assertThatThrownBy(() -> HexEncoder.decode("abc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HexEncoder.decode("zz")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
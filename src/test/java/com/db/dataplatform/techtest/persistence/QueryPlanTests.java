@@ -0,0 +1,358 @@
+package com.db.dataplatform.techtest.persistence;
+
+import com.db.dataplatform.techtest.EmbeddedDataSourceConfiguration;
+import com.db.dataplatform.techtest.server.checksum.HexEncoder;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import com.db.dataplatform.techtest.server.persistence.BodyContentKey;
+import com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentReferenceRepositoryImpl;
+import com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataHeaderRepository;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreCreatedRepositoryImpl;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreUpsertRepositoryImpl;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the hot repository queries against the migrated schema, captures the SQL Hibernate sends and fails when
+ * H2's EXPLAIN plan for it reads any table without an index condition.
+ */
+public class QueryPlanTests {
+
+    private static final int ROWS = 2000;
+
+    // a table in a FROM, JOIN or UPDATE clause followed by the access path H2 picked for it
+    private static final Pattern TABLE_ACCESS = Pattern.compile(
+            "(?:FROM|JOIN|UPDATE) \"PUBLIC\"\\.\"(\\w+)\"(?: \"\\w+\")?\\s+/\\* (.+?) \\*/", Pattern.DOTALL);
+
+    private static final List<String> CAPTURED_SQL = new CopyOnWriteArrayList<>();
+
+    private static EmbeddedDatabase database;
+    private static EntityManagerFactory entityManagerFactory;
+    private static JdbcTemplate jdbcTemplate;
+
+    private EntityManager entityManager;
+    private DataStoreRepository dataStoreRepository;
+
+    @BeforeClass
+    public static void createDatabase() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("queryPlans")
+                .addScripts(EmbeddedDataSourceConfiguration.migrationScripts())
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        insertDataBodies();
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(database);
+        factoryBean.setPackagesToScan(EmbeddedDataSourceConfiguration.PACKAGE_MODEL);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Collections.singletonMap(AvailableSettings.STATEMENT_INSPECTOR,
+                (StatementInspector) sql -> {
+                    CAPTURED_SQL.add(sql);
+                    return sql;
+                }));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+    }
+
+    @AfterClass
+    public static void dropDatabase() {
+        entityManagerFactory.close();
+        database.shutdown();
+    }
+
+    @Before
+    public void setup() {
+        entityManager = entityManagerFactory.createEntityManager();
+        DataBodyContentRepository dataBodyContentRepository = new JpaRepositoryFactory(entityManager).getRepository(
+                DataBodyContentRepository.class, RepositoryFragments.just(new DataBodyContentReferenceRepositoryImpl(jdbcTemplate)));
+        dataStoreRepository = new JpaRepositoryFactory(entityManager).getRepository(DataStoreRepository.class,
+                RepositoryFragments.just(new DataStoreUpsertRepositoryImpl(jdbcTemplate, dataBodyContentRepository),
+                        new DataStoreCreatedRepositoryImpl(jdbcTemplate)));
+        CAPTURED_SQL.clear();
+    }
+
+    @After
+    public void closeEntityManager() {
+        entityManager.close();
+    }
+
+    @Test
+    public void blockTypeReadShouldUseIndexes() {
+        dataStoreRepository.findProjectionsByBlockType(BlockTypeEnum.BLOCKTYPEA);
+
+        assertThat(CAPTURED_SQL).hasSize(1);
+        assertIndexed(CAPTURED_SQL.get(0), BlockTypeEnum.BLOCKTYPEA.name());
+    }
+
+    @Test
+    public void blockTypePageShouldUseIndexes() {
+        dataStoreRepository.findPageByBlockType(BlockTypeEnum.BLOCKTYPEA, ROWS / 2, PageRequest.of(0, 100));
+
+        assertThat(CAPTURED_SQL).hasSize(1);
+        assertIndexed(CAPTURED_SQL.get(0), BlockTypeEnum.BLOCKTYPEA.name(), ROWS / 2, 100);
+    }
+
+    @Test
+    public void nameLookupShouldUseIndexes() {
+        dataStoreRepository.findByDataHeaderEntity_Name("NAME-7");
+
+        assertThat(CAPTURED_SQL).hasSize(1);
+        assertIndexed(CAPTURED_SQL.get(0), "NAME-7");
+    }
+
+    @Test
+    public void bulkBlockTypeUpdatesShouldUseNameIndex() {
+        DataHeaderRepository dataHeaderRepository = new JpaRepositoryFactory(entityManager).getRepository(DataHeaderRepository.class);
+        entityManager.getTransaction().begin();
+        try {
+            dataHeaderRepository.updateBlockTypeByNames(Arrays.asList("NAME-1", "NAME-2"), BlockTypeEnum.BLOCKTYPEB);
+            dataHeaderRepository.updateBlockTypeByNamePattern("NAME-1%", BlockTypeEnum.BLOCKTYPEB);
+        } finally {
+            entityManager.getTransaction().rollback();
+        }
+
+        assertThat(CAPTURED_SQL).hasSize(2);
+        assertIndexed(CAPTURED_SQL.get(0), BlockTypeEnum.BLOCKTYPEB.name(), "NAME-1", "NAME-2", BlockTypeEnum.BLOCKTYPEB.name());
+        assertIndexed(CAPTURED_SQL.get(1), BlockTypeEnum.BLOCKTYPEB.name(), "NAME-1%", BlockTypeEnum.BLOCKTYPEB.name());
+    }
+
+    @Test
+    public void storedBodiesAndChecksumsShouldReadBackAsText() {
+        assertThat(dataStoreRepository.findChecksumByName("NAME-7").map(DataBodyChecksum::getChecksum)).contains(checksum(7));
+        assertThat(dataStoreRepository.findChecksumByName("NAME-7").map(DataBodyChecksum::getBlockType))
+                .contains(BlockTypeEnum.values()[7 % BlockTypeEnum.values().length]);
+        assertThat(dataStoreRepository.findProjectionsByBlockType(BlockTypeEnum.values()[7 % BlockTypeEnum.values().length]))
+                .filteredOn(projection -> projection.getName().equals("NAME-7"))
+                .extracting(DataBodyProjection::getDataBody)
+                .containsExactly("BODY-7");
+    }
+
+    @Test
+    public void upsertShouldOnlyWriteChangedEnvelopes() {
+        DataBodyEntity unchanged = dataBody("NAME-4", BlockTypeEnum.values()[4 % BlockTypeEnum.values().length], "BODY-4", checksum(4));
+        DataBodyEntity newBody = dataBody("NAME-5", BlockTypeEnum.values()[5 % BlockTypeEnum.values().length], "CHANGED", checksum(ROWS + 5));
+        DataBodyEntity newName = dataBody("UPSERTED", BlockTypeEnum.BLOCKTYPEA, "BODY", checksum(ROWS + 1));
+
+        boolean[] written = new TransactionTemplate(new DataSourceTransactionManager(database)).execute(status -> {
+            status.setRollbackOnly();
+            return dataStoreRepository.upsert(Arrays.asList(unchanged, newBody, newName), EnumSet.noneOf(BlockTypeEnum.class));
+        });
+
+        assertThat(written).containsExactly(false, true, true);
+    }
+
+    @Test
+    public void upsertShouldReportBlockTypesEnvelopesAreMovedFrom() {
+        BlockTypeEnum stored = BlockTypeEnum.values()[4 % BlockTypeEnum.values().length];
+        BlockTypeEnum moved = stored == BlockTypeEnum.BLOCKTYPEA ? BlockTypeEnum.BLOCKTYPEB : BlockTypeEnum.BLOCKTYPEA;
+        Set<BlockTypeEnum> movedFrom = EnumSet.noneOf(BlockTypeEnum.class);
+
+        boolean[] written = new TransactionTemplate(new DataSourceTransactionManager(database)).execute(status -> {
+            status.setRollbackOnly();
+            return dataStoreRepository.upsert(Arrays.asList(dataBody("NAME-4", moved, "BODY-4", checksum(4)),
+                    dataBody("UPSERTED", BlockTypeEnum.BLOCKTYPEA, "BODY", checksum(ROWS + 1))), movedFrom);
+        });
+
+        assertThat(written).containsExactly(true, true);
+        assertThat(movedFrom).containsExactly(stored);
+    }
+
+    @Test
+    public void upsertShouldRejectNameLongerThanTheColumn() {
+        String name = "NAME-4-PADDED-TO-THE-30-CHARS-";
+        BlockTypeEnum stored = BlockTypeEnum.values()[4 % BlockTypeEnum.values().length];
+        BlockTypeEnum moved = stored == BlockTypeEnum.BLOCKTYPEA ? BlockTypeEnum.BLOCKTYPEB : BlockTypeEnum.BLOCKTYPEA;
+
+        new TransactionTemplate(new DataSourceTransactionManager(database)).executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            dataStoreRepository.upsert(Collections.singletonList(dataBody(name, stored, "BODY", checksum(ROWS + 1))),
+                    EnumSet.noneOf(BlockTypeEnum.class));
+
+            assertThatThrownBy(() -> dataStoreRepository.upsert(Collections.singletonList(
+                    dataBody(name + "X", moved, "OTHER", checksum(ROWS + 2))), EnumSet.noneOf(BlockTypeEnum.class)))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(jdbcTemplate.queryForList("select BLOCKTYPE from DATA_HEADER where NAME like 'NAME-4-%'", String.class))
+                    .containsExactly(stored.name());
+        });
+    }
+
+    @Test
+    public void upsertShouldShareContentAndDeleteItWithItsLastReference() {
+        new TransactionTemplate(new DataSourceTransactionManager(database)).executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            dataStoreRepository.upsert(Arrays.asList(
+                    dataBody("SHARED-1", BlockTypeEnum.BLOCKTYPEA, "SHARED", checksum(ROWS + 10)),
+                    dataBody("SHARED-2", BlockTypeEnum.BLOCKTYPEB, "SHARED", checksum(ROWS + 10))), EnumSet.noneOf(BlockTypeEnum.class));
+            assertThat(references("SHARED")).containsExactly(2L);
+
+            dataStoreRepository.upsert(Collections.singletonList(
+                    dataBody("SHARED-1", BlockTypeEnum.BLOCKTYPEA, "OTHER", checksum(ROWS + 11))), EnumSet.noneOf(BlockTypeEnum.class));
+            assertThat(references("SHARED")).containsExactly(1L);
+            assertThat(references("OTHER")).containsExactly(1L);
+
+            dataStoreRepository.upsert(Collections.singletonList(
+                    dataBody("SHARED-2", BlockTypeEnum.BLOCKTYPEB, "OTHER", checksum(ROWS + 11))), EnumSet.noneOf(BlockTypeEnum.class));
+            assertThat(references("SHARED")).isEmpty();
+            assertThat(references("OTHER")).containsExactly(2L);
+        });
+    }
+
+    // H2 does not explain how MERGE finds the target row, only the source select of the body merge is checked
+    @Test
+    public void upsertBodyMergeShouldLookUpHeaderByIndex() {
+        assertIndexed(DataStoreUpsertRepositoryImpl.MERGE_BODY, contentKey("BODY-7"), HexEncoder.decode(checksum(7)),
+                Timestamp.from(Instant.now()), "NAME-7");
+    }
+
+    @Test
+    public void upsertShouldLockStoredBodiesByNameIndex() {
+        assertIndexed(String.format(DataStoreUpsertRepositoryImpl.LOCK_STORED_BODIES, "?, ?"), "NAME-7", "NAME-8");
+    }
+
+    @Test
+    public void contentReferencesShouldUseIndexes() {
+        assertIndexed(DataBodyContentReferenceRepositoryImpl.INCREMENT_REFERENCES, 1, contentKey("BODY-7"));
+        assertIndexed(DataBodyContentReferenceRepositoryImpl.DELETE_UNREFERENCED, contentKey("BODY-7"));
+    }
+
+    @Test
+    public void createdTimestampRangeShouldUseIndex() {
+        Timestamp from = Timestamp.from(Instant.now().minusSeconds(60));
+
+        assertIndexed("select DATA_STORE_ID from DATA_STORE b where b.CREATED_TIMESTAMP >= ? and b.CREATED_TIMESTAMP < ? "
+                + "order by b.CREATED_TIMESTAMP, b.DATA_STORE_ID", from, Timestamp.from(Instant.now()));
+    }
+
+    @Test
+    public void createdTimestampPageShouldWalkCreatedIndexInOrder() {
+        Timestamp since = Timestamp.from(Instant.now().minusSeconds(60));
+
+        String plan = assertIndexed(DataStoreCreatedRepositoryImpl.SELECT_PAGE_BY_BLOCKTYPE_CREATED, since,
+                Timestamp.from(Instant.now()), since, since, 0, BlockTypeEnum.BLOCKTYPEA.name(), 100);
+        assertThat(plan).contains("IDX_DATA_STORE_CREATED").contains("index sorted");
+    }
+
+    @Test
+    public void createdTimestampPageShouldContinueAfterTheWatermark() {
+        List<DataBodyProjection> first = dataStoreRepository.findPageByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA,
+                Instant.EPOCH, Instant.now(), Instant.EPOCH, 0, 2);
+        DataBodyProjection last = first.get(1);
+        List<DataBodyProjection> next = dataStoreRepository.findPageByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA,
+                last.getCreatedTimestamp(), Instant.now(), last.getCreatedTimestamp(), last.getDataStoreId(), 2);
+
+        assertThat(first).extracting(DataBodyProjection::getName).containsExactly("NAME-2", "NAME-4");
+        assertThat(next).extracting(DataBodyProjection::getName).containsExactly("NAME-6", "NAME-8");
+        assertThat(next.get(0).getDataBody()).isEqualTo("BODY-6");
+        assertThat(next.get(0).getChecksum()).isEqualTo(checksum(6));
+    }
+
+    private static String assertIndexed(String sql, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+
+        Matcher tableAccess = TABLE_ACCESS.matcher(plan);
+        int tables = 0;
+        while (tableAccess.find()) {
+            tables++;
+            assertThat(tableAccess.group(2))
+                    .as("access path of %s in plan%n%s", tableAccess.group(1), plan)
+                    .doesNotContain("tableScan")
+                    .contains(": ");
+        }
+        assertThat(tables).as("tables in plan%n%s", plan).isPositive();
+        return plan;
+    }
+
+    private static DataBodyEntity dataBody(String name, BlockTypeEnum blockType, String body, String checksum) {
+        DataHeaderEntity dataHeaderEntity = new DataHeaderEntity();
+        dataHeaderEntity.setName(name);
+        dataHeaderEntity.setBlocktype(blockType);
+        DataBodyEntity dataBodyEntity = new DataBodyEntity();
+        dataBodyEntity.setDataHeaderEntity(dataHeaderEntity);
+        dataBodyEntity.setDataBody(body);
+        dataBodyEntity.setChecksum(checksum);
+        return dataBodyEntity;
+    }
+
+    private static String checksum(long id) {
+        return String.format("%032x", id);
+    }
+
+    private static byte[] utf8(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] contentKey(String body) {
+        return BodyContentKey.of(utf8(body));
+    }
+
+    private static List<Long> references(String body) {
+        return jdbcTemplate.queryForList("select REF_COUNT from DATA_BODY_CONTENT where CONTENT_KEY = ?", Long.class,
+                (Object) contentKey(body));
+    }
+
+    private static void insertDataBodies() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> headers = new ArrayList<>(ROWS);
+        List<Object[]> contents = new ArrayList<>(ROWS);
+        List<Object[]> bodies = new ArrayList<>(ROWS);
+        for (long id = 1; id <= ROWS; id++) {
+            BlockTypeEnum blockType = BlockTypeEnum.values()[(int) (id % BlockTypeEnum.values().length)];
+            headers.add(new Object[]{id, "NAME-" + id, blockType.name(), now});
+            contents.add(new Object[]{contentKey("BODY-" + id), BodyCodec.NONE.getCode(), utf8("BODY-" + id), 1, now});
+            // one body a second, so the created timestamp index has the selectivity of real data
+            Timestamp created = Timestamp.from(now.toInstant().minusSeconds(ROWS - id));
+            bodies.add(new Object[]{id, id, contentKey("BODY-" + id), HexEncoder.decode(checksum(id)), created});
+        }
+        jdbcTemplate.batchUpdate("insert into DATA_HEADER (DATA_HEADER_ID, NAME, BLOCKTYPE, CREATED_TIMESTAMP) values (?, ?, ?, ?)", headers);
+        jdbcTemplate.batchUpdate("insert into DATA_BODY_CONTENT (CONTENT_KEY, BODY_CODEC, DATA_BODY, REF_COUNT, CREATED_TIMESTAMP) "
+                + "values (?, ?, ?, ?, ?)", contents);
+        jdbcTemplate.batchUpdate("insert into DATA_STORE (DATA_STORE_ID, DATA_HEADER_ID, CONTENT_KEY, CHECKSUM, "
+                + "CREATED_TIMESTAMP) values (?, ?, ?, ?, ?)", bodies);
+        jdbcTemplate.execute("alter sequence SEQ_DATA_HEADER restart with " + (ROWS + 1));
+        jdbcTemplate.execute("alter sequence SEQ_DATA_STORE restart with " + (ROWS + 1));
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -1,14 +1,18 @@
 package com.db.dataplatform.techtest.persistence.model;
 
 import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.BodyCodec;
+import com.db.dataplatform.techtest.server.persistence.BodyContentKey;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
 import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
 import static com.db.dataplatform.techtest.TestDataHelper.TEST_NAME;
 import static com.db.dataplatform.techtest.TestDataHelper.createTestDataBodyEntity;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,6 +35,42 @@ public class DataBodyEntityTests {
         assertThat(dataBodyEntity.getDataBody()).isNotNull();
     }
 
+    @Test
+    public void repetitiveBodiesShouldBeStoredDeflated() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            body.append(DUMMY_DATA);
+        }
+        DataBodyEntity dataBodyEntity = new DataBodyEntity();
+        dataBodyEntity.setDataBody(body.toString(), BodyCodec.DEFLATE);
+
+        assertThat(dataBodyEntity.getBodyCodec()).isEqualTo(BodyCodec.DEFLATE);
+        assertThat(dataBodyEntity.getEncodedBody().length).isLessThan(body.length() / 10);
+        assertThat(BodyCodec.DEFLATE.decode(dataBodyEntity.getEncodedBody())).isEqualTo(body.toString());
+    }
+
+    @Test
+    public void incompressibleBodiesShouldBeStoredAsPlainUtf8() {
+        DataBodyEntity dataBodyEntity = new DataBodyEntity();
+        dataBodyEntity.setDataBody(DUMMY_DATA, BodyCodec.DEFLATE);
+
+        assertThat(dataBodyEntity.getBodyCodec()).isEqualTo(BodyCodec.NONE);
+        assertThat(dataBodyEntity.getEncodedBody()).isEqualTo(DUMMY_DATA.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void bodiesShouldBeKeyedByContentWhateverTheCodec() {
+        DataBodyEntity plain = new DataBodyEntity();
+        plain.setDataBody(DUMMY_DATA);
+        DataBodyEntity deflated = new DataBodyEntity();
+        deflated.setDataBody(DUMMY_DATA, BodyCodec.DEFLATE);
+        DataBodyEntity other = new DataBodyEntity();
+        other.setDataBody(DUMMY_DATA + " ");
+
+        assertThat(plain.getContentKey()).hasSize(BodyContentKey.LENGTH).isEqualTo(deflated.getContentKey());
+        assertThat(other.getContentKey()).isNotEqualTo(plain.getContentKey());
+    }
+
     /**
      * This test intentionally fails and the code it tests against will need to be fixed.
      */
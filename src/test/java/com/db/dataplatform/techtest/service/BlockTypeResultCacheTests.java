@@ -0,0 +1,89 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.impl.BlockTypeResultCache;
+import com.db.dataplatform.techtest.server.configuration.ReadProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlockTypeResultCacheTests {
+
+    private ReadProperties readProperties;
+    private BlockTypeResultCache cache;
+
+    @Before
+    public void setup() {
+        readProperties = new ReadProperties();
+        cache = new BlockTypeResultCache(readProperties);
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEA)).isNull();
+        cache.put(BlockTypeEnum.BLOCKTYPEA, cache.generation(BlockTypeEnum.BLOCKTYPEA), new byte[]{'[', ']'}, 0);
+
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEA).getJson()).containsExactly(new byte[]{'[', ']'});
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRefuseResultReadBeforeInvalidation() {
+        long generation = cache.generation(BlockTypeEnum.BLOCKTYPEA);
+
+        cache.onDataBodyChanged(new DataBodyChangedEvent(EnumSet.of(BlockTypeEnum.BLOCKTYPEA)));
+
+        assertThat(cache.put(BlockTypeEnum.BLOCKTYPEA, generation, new byte[2], 0)).isFalse();
+        assertThat(cache.put(BlockTypeEnum.BLOCKTYPEB, cache.generation(BlockTypeEnum.BLOCKTYPEB), new byte[2], 0)).isTrue();
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldInvalidateOnlyChangedBlockTypes() {
+        cache.put(BlockTypeEnum.BLOCKTYPEA, 0, new byte[2], 0);
+        cache.put(BlockTypeEnum.BLOCKTYPEB, 0, new byte[2], 0);
+
+        cache.onDataBodyChanged(new DataBodyChangedEvent(EnumSet.of(BlockTypeEnum.BLOCKTYPEB)));
+
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEA)).isNotNull();
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEB)).isNull();
+        assertThat(cache.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedOverWeight() {
+        readProperties.setCacheMaxBytes(10);
+        cache.put(BlockTypeEnum.BLOCKTYPEA, 0, new byte[6], 0);
+        cache.put(BlockTypeEnum.BLOCKTYPEB, 0, new byte[6], 0);
+
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEA)).isNull();
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEB)).isNotNull();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedOverEntryCount() {
+        readProperties.setCacheMaxEntries(1);
+        cache.put(BlockTypeEnum.BLOCKTYPEA, 0, new byte[1], 0);
+        cache.put(BlockTypeEnum.BLOCKTYPEB, 0, new byte[1], 0);
+
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.get(BlockTypeEnum.BLOCKTYPEB)).isNotNull();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotCacheResultOverEntryLimit() {
+        readProperties.setCacheMaxEntryBytes(4);
+
+        assertThat(cache.put(BlockTypeEnum.BLOCKTYPEA, 0, new byte[5], 0)).isFalse();
+        assertThat(cache.getSize()).isZero();
+    }
+}
@@ -0,0 +1,201 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * What every storage engine's {@link DataBodyService} has to do alike. A subclass hands out a service over an empty
+ * store publishing to {@link #eventPublisherMock}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public abstract class DataBodyServiceContractTests {
+
+    @Mock
+    protected ApplicationEventPublisher eventPublisherMock;
+
+    protected abstract DataBodyService dataBodyService();
+
+    @Test
+    public void shouldReadSavedDataBodiesByNameAndBlockTypeInIdOrder() {
+        dataBodyService().saveDataBodies(Arrays.asList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA),
+                dataBody("B-1", BlockTypeEnum.BLOCKTYPEB, "B body"), dataBody("A-2", BlockTypeEnum.BLOCKTYPEA, "A body")));
+
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-1", "A-2");
+        assertThat(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA).get(0).getDataBody()).isEqualTo(DUMMY_DATA);
+        assertThat(dataBodyService().getDataByBlockName("B-1").get().getDataHeaderEntity().getBlocktype()).isEqualTo(BlockTypeEnum.BLOCKTYPEB);
+        assertThat(dataBodyService().getChecksumByBlockName("A-2").map(DataBodyChecksum::getChecksum)).contains(ChecksumAlgorithm.MD5.checksum("A body"));
+        assertThat(dataBodyService().getChecksumByBlockName("A-2").map(DataBodyChecksum::getBlockType)).contains(BlockTypeEnum.BLOCKTYPEA);
+        assertThat(dataBodyService().getDataByBlockName("C-1")).isEmpty();
+        assertThat(dataBodyService().getChecksumByBlockName("C-1")).isEmpty();
+
+        long first = dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA).get(0).getDataStoreId();
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA, first, 10))).containsExactly("A-2");
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA, 0, 1))).containsExactly("A-1");
+
+        List<DataBodyProjection> visited = new ArrayList<>();
+        assertThat(dataBodyService().forEachDataByBlockType(BlockTypeEnum.BLOCKTYPEA, visited::add)).isEqualTo(2);
+        assertThat(names(visited)).containsExactly("A-1", "A-2");
+        assertThat(visited.get(1).getDataBody()).isEqualTo("A body");
+
+        List<String> names = new ArrayList<>();
+        assertThat(dataBodyService().forEachBlockName(names::add)).isEqualTo(3);
+        assertThat(names).containsOnly("A-1", "A-2", "B-1");
+    }
+
+    @Test
+    public void shouldWriteNothingOfABatchWithAStoredName() {
+        dataBodyService().saveDataBody(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+
+        assertThatThrownBy(() -> dataBodyService().saveDataBodies(Arrays.asList(dataBody("A-2", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA),
+                dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA)))).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-1");
+    }
+
+    @Test
+    public void shouldOnlyReportUpsertsThatChangedSomething() {
+        dataBodyService().saveDataBody(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+        long id = dataBodyService().getDataByBlockName("A-1").get().getDataStoreId();
+
+        assertThat(dataBodyService().upsertDataBodies(Arrays.asList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA),
+                dataBody("A-2", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA)))).containsExactly(false, true);
+        assertThat(dataBodyService().upsertDataBodies(Collections.singletonList(
+                dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, "replaced")))).containsExactly(true);
+        assertThat(dataBodyService().upsertDataBodies(Collections.singletonList(
+                dataBody("A-1", BlockTypeEnum.BLOCKTYPEB, "replaced")))).containsExactly(true);
+        assertThat(dataBodyService().upsertDataBodies(Collections.singletonList(
+                dataBody("A-1", BlockTypeEnum.BLOCKTYPEB, "replaced")))).containsExactly(false);
+
+        DataBodyProjection replaced = dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEB).get(0);
+        assertThat(replaced.getDataStoreId()).isEqualTo(id);
+        assertThat(replaced.getDataBody()).isEqualTo("replaced");
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-2");
+    }
+
+    @Test
+    public void shouldNotifyBlockTypesAnUpsertWritesToAndMovesFrom() {
+        dataBodyService().saveDataBody(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        dataBodyService().upsertDataBodies(Collections.singletonList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA)));
+        dataBodyService().upsertDataBodies(Collections.singletonList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEB, "replaced")));
+
+        verify(eventPublisherMock, times(2)).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).containsExactlyInAnyOrder(BlockTypeEnum.BLOCKTYPEA, BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getDataBodies()).extracting(DataBodyProjection::getName).containsExactly("A-1");
+        assertThat(event.getValue().getDataBodies()).extracting(DataBodyProjection::getBlockType).containsExactly(BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getDataBodies()).extracting(DataBodyProjection::getDataBody).containsExactly("replaced");
+    }
+
+    @Test
+    public void shouldMoveDataBodyAndNotifyBothBlockTypes() {
+        dataBodyService().saveDataBody(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        dataBodyService().updateBlockType(dataBodyService().getDataByBlockName("A-1").get(), BlockTypeEnum.BLOCKTYPEB);
+
+        assertThat(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA)).isEmpty();
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEB))).containsExactly("A-1");
+        verify(eventPublisherMock, times(2)).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).containsExactlyInAnyOrder(BlockTypeEnum.BLOCKTYPEA, BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getDataBodies()).extracting(DataBodyProjection::getBlockType).containsExactly(BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getDataBodies()).extracting(DataBodyProjection::getDataBody).containsExactly(DUMMY_DATA);
+    }
+
+    @Test
+    public void shouldMoveBlockTypesByNamesAndLiteralNamePrefix() {
+        dataBodyService().saveDataBodies(Arrays.asList(dataBody("TSLA_%1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA),
+                dataBody("TSLAX1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA), dataBody("AAPL-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA)));
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        assertThat(dataBodyService().updateBlockTypesByNamePrefix("TSLA_%", BlockTypeEnum.BLOCKTYPEB)).isEqualTo(1);
+        assertThat(dataBodyService().updateBlockTypes(Arrays.asList("TSLA_%1", "AAPL-1", "MSFT-1"), BlockTypeEnum.BLOCKTYPEB)).isEqualTo(1);
+
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEB))).containsExactly("TSLA_%1", "AAPL-1");
+        assertThat(names(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("TSLAX1");
+        verify(eventPublisherMock, times(3)).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).contains(BlockTypeEnum.BLOCKTYPEA, BlockTypeEnum.BLOCKTYPEB);
+    }
+
+    @Test
+    public void shouldDeleteDataBodyAndNotifyItsBlockType() {
+        dataBodyService().saveDataBody(dataBody("B-1", BlockTypeEnum.BLOCKTYPEB, DUMMY_DATA));
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        assertThat(dataBodyService().deleteDataBody("B-1")).isTrue();
+        assertThat(dataBodyService().deleteDataBody("B-1")).isFalse();
+
+        assertThat(dataBodyService().getDataByBlockName("B-1")).isEmpty();
+        assertThat(dataBodyService().getDataByBlockType(BlockTypeEnum.BLOCKTYPEB)).isEmpty();
+        verify(eventPublisherMock, times(2)).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).containsExactly(BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getDataBodies()).isEmpty();
+    }
+
+    @Test
+    public void shouldReadByCreatedTimestampRangeAndFromAWatermark() {
+        Instant start = Instant.parse("2026-10-18T09:00:00Z");
+        dataBodyService().saveDataBodies(Arrays.asList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, start.plusSeconds(7200)),
+                dataBody("A-2", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, start),
+                dataBody("A-3", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, start),
+                dataBody("B-1", BlockTypeEnum.BLOCKTYPEB, DUMMY_DATA, start),
+                dataBody("A-4", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, start.plusSeconds(3600))));
+
+        List<DataBodyProjection> all = dataBodyService().getDataByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA, null, null, null, 0, 10);
+        assertThat(names(all)).containsExactly("A-2", "A-3", "A-4", "A-1");
+        assertThat(names(dataBodyService().getDataByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA, start.plusSeconds(1),
+                start.plusSeconds(7200), null, 0, 10))).containsExactly("A-4");
+
+        DataBodyProjection second = all.get(1);
+        assertThat(names(dataBodyService().getDataByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA, null, null,
+                second.getCreatedTimestamp(), second.getDataStoreId(), 2))).containsExactly("A-4", "A-1");
+        assertThat(names(dataBodyService().getDataByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA, null, null,
+                start, 0, 1))).containsExactly("A-2");
+    }
+
+    protected static DataBodyEntity dataBody(String name, BlockTypeEnum blockType, String body) {
+        return dataBody(name, blockType, body, null);
+    }
+
+    protected static DataBodyEntity dataBody(String name, BlockTypeEnum blockType, String body, Instant createdTimestamp) {
+        DataHeaderEntity dataHeaderEntity = new DataHeaderEntity();
+        dataHeaderEntity.setName(name);
+        dataHeaderEntity.setBlocktype(blockType);
+        DataBodyEntity dataBodyEntity = new DataBodyEntity();
+        dataBodyEntity.setDataHeaderEntity(dataHeaderEntity);
+        dataBodyEntity.setDataBody(body);
+        dataBodyEntity.setChecksum(ChecksumAlgorithm.MD5.checksum(body));
+        dataBodyEntity.setCreatedTimestamp(createdTimestamp);
+        return dataBodyEntity;
+    }
+
+    protected static List<String> names(List<DataBodyProjection> dataBodies) {
+        return dataBodies.stream().map(DataBodyProjection::getName).collect(Collectors.toList());
+    }
+}
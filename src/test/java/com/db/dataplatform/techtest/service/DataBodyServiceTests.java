@@ -1,23 +1,44 @@
 package com.db.dataplatform.techtest.service;
 
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
 import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
+import com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataHeaderRepository;
 import com.db.dataplatform.techtest.server.persistence.repository.DataStoreRepository;
 import com.db.dataplatform.techtest.server.service.DataBodyService;
 import com.db.dataplatform.techtest.server.service.impl.DataBodyServiceImpl;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static com.db.dataplatform.techtest.TestDataHelper.TEST_NAME;
 import static com.db.dataplatform.techtest.TestDataHelper.createTestDataBodyEntity;
 import static com.db.dataplatform.techtest.TestDataHelper.createTestDataHeaderEntity;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DataBodyServiceTests {
@@ -27,6 +48,15 @@ public class DataBodyServiceTests {
     @Mock
     private DataStoreRepository dataStoreRepositoryMock;
 
+    @Mock
+    private DataHeaderRepository dataHeaderRepositoryMock;
+
+    @Mock
+    private DataBodyContentRepository dataBodyContentRepositoryMock;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
+
     private DataBodyService dataBodyService;
     private DataBodyEntity expectedDataBodyEntity;
 
@@ -35,7 +65,8 @@ public class DataBodyServiceTests {
         DataHeaderEntity testDataHeaderEntity = createTestDataHeaderEntity(Instant.now());
         expectedDataBodyEntity = createTestDataBodyEntity(testDataHeaderEntity);
 
-        dataBodyService = new DataBodyServiceImpl(dataStoreRepositoryMock);
+        dataBodyService = new DataBodyServiceImpl(dataStoreRepositoryMock, dataHeaderRepositoryMock,
+                dataBodyContentRepositoryMock, eventPublisherMock);
     }
 
     @Test
@@ -46,4 +77,106 @@ public class DataBodyServiceTests {
                 .save(eq(expectedDataBodyEntity));
     }
 
+    @Test
+    public void shouldReferenceContentBeforeSavingDataBodies() {
+        List<DataBodyEntity> dataBodies = Collections.singletonList(expectedDataBodyEntity);
+
+        dataBodyService.saveDataBodies(dataBodies);
+
+        InOrder inOrder = inOrder(dataBodyContentRepositoryMock, dataStoreRepositoryMock);
+        inOrder.verify(dataBodyContentRepositoryMock).acquireContent(dataBodies);
+        inOrder.verify(dataStoreRepositoryMock).saveAll(dataBodies);
+    }
+
+    @Test
+    public void shouldReleaseContentAfterDeletingDataBody() {
+        expectedDataBodyEntity.getDataHeaderEntity().setBlocktype(BlockTypeEnum.BLOCKTYPEB);
+        when(dataStoreRepositoryMock.findByDataHeaderEntity_Name(TEST_NAME)).thenReturn(Optional.of(expectedDataBodyEntity));
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        assertThat(dataBodyService.deleteDataBody(TEST_NAME)).isTrue();
+
+        InOrder inOrder = inOrder(dataStoreRepositoryMock, dataBodyContentRepositoryMock);
+        inOrder.verify(dataStoreRepositoryMock).delete(expectedDataBodyEntity);
+        inOrder.verify(dataStoreRepositoryMock).flush();
+        inOrder.verify(dataBodyContentRepositoryMock).releaseContent(Collections.singletonList(expectedDataBodyEntity.getContentKey()));
+        verify(eventPublisherMock).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).containsExactly(BlockTypeEnum.BLOCKTYPEB);
+    }
+
+    @Test
+    public void shouldNotDeleteUnknownDataBody() {
+        when(dataStoreRepositoryMock.findByDataHeaderEntity_Name(TEST_NAME_NO_RESULT)).thenReturn(Optional.empty());
+
+        assertThat(dataBodyService.deleteDataBody(TEST_NAME_NO_RESULT)).isFalse();
+        verifyNoInteractions(dataBodyContentRepositoryMock, eventPublisherMock);
+    }
+
+    @Test
+    public void shouldPublishOldAndNewBlockTypeOnBlockTypeUpdate() {
+        expectedDataBodyEntity.getDataHeaderEntity().setBlocktype(BlockTypeEnum.BLOCKTYPEA);
+        when(dataStoreRepositoryMock.save(expectedDataBodyEntity)).thenReturn(expectedDataBodyEntity);
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        dataBodyService.updateBlockType(expectedDataBodyEntity, BlockTypeEnum.BLOCKTYPEB);
+
+        verify(dataStoreRepositoryMock).save(expectedDataBodyEntity);
+        verify(eventPublisherMock).publishEvent(event.capture());
+        assertThat(expectedDataBodyEntity.getDataHeaderEntity().getBlocktype()).isEqualTo(BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getBlockTypes()).containsExactlyInAnyOrder(BlockTypeEnum.BLOCKTYPEA, BlockTypeEnum.BLOCKTYPEB);
+        assertThat(event.getValue().getDataBodies()).extracting(DataBodyProjection::getBlockType)
+                .containsExactly(BlockTypeEnum.BLOCKTYPEB);
+    }
+
+    @Test
+    public void shouldEscapeNamePrefixAndNotifyEveryBlockTypeOnBulkUpdate() {
+        when(dataHeaderRepositoryMock.updateBlockTypeByNamePattern("TSLA!_!%!!%", BlockTypeEnum.BLOCKTYPEB)).thenReturn(3);
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        int updated = dataBodyService.updateBlockTypesByNamePrefix("TSLA_%!", BlockTypeEnum.BLOCKTYPEB);
+
+        assertThat(updated).isEqualTo(3);
+        verify(eventPublisherMock).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).containsExactlyInAnyOrder(BlockTypeEnum.values());
+    }
+
+    @Test
+    public void shouldNotifyBlockTypesWrittenAndMovedFromOnlyWhenUpsertWrites() {
+        List<DataBodyEntity> dataBodies = Collections.singletonList(expectedDataBodyEntity);
+        when(dataStoreRepositoryMock.upsert(eq(dataBodies), anySet())).thenReturn(new boolean[]{false}).thenAnswer(invocation -> {
+            Set<BlockTypeEnum> movedFrom = invocation.getArgument(1);
+            movedFrom.add(BlockTypeEnum.BLOCKTYPEB);
+            return new boolean[]{true};
+        });
+        ArgumentCaptor<DataBodyChangedEvent> event = ArgumentCaptor.forClass(DataBodyChangedEvent.class);
+
+        assertThat(dataBodyService.upsertDataBodies(dataBodies)).containsExactly(false);
+        verifyNoInteractions(eventPublisherMock);
+
+        assertThat(dataBodyService.upsertDataBodies(dataBodies)).containsExactly(true);
+        verify(eventPublisherMock).publishEvent(event.capture());
+        assertThat(event.getValue().getBlockTypes()).containsExactlyInAnyOrder(BlockTypeEnum.BLOCKTYPEA, BlockTypeEnum.BLOCKTYPEB);
+    }
+
+    @Test
+    public void shouldNotNotifyWhenBulkUpdateChangesNothing() {
+        List<String> names = Collections.singletonList(TEST_NAME_NO_RESULT);
+        when(dataHeaderRepositoryMock.updateBlockTypeByNames(names, BlockTypeEnum.BLOCKTYPEA)).thenReturn(0);
+
+        assertThat(dataBodyService.updateBlockTypes(names, BlockTypeEnum.BLOCKTYPEA)).isZero();
+        verifyNoInteractions(eventPublisherMock);
+    }
+
+    @Test
+    public void shouldVisitEveryStreamedDataBodyInOrder() {
+        DataBodyProjection first = new DataBodyProjection(1L, "first", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, null);
+        DataBodyProjection second = new DataBodyProjection(2L, "second", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, null);
+        when(dataStoreRepositoryMock.streamByBlockType(BlockTypeEnum.BLOCKTYPEA)).thenReturn(Stream.of(first, second));
+        List<DataBodyProjection> visited = new ArrayList<>();
+
+        long count = dataBodyService.forEachDataByBlockType(BlockTypeEnum.BLOCKTYPEA, visited::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(visited).containsExactly(first, second);
+    }
 }
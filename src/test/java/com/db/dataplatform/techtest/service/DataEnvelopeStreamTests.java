@@ -0,0 +1,65 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.impl.DataEnvelopeStream;
+import com.db.dataplatform.techtest.server.configuration.StreamProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyChangedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DataEnvelopeStreamTests {
+
+    private StreamProperties streamProperties;
+    private List<Runnable> pendingSends;
+    private DataEnvelopeStream stream;
+
+    @Before
+    public void setup() {
+        streamProperties = new StreamProperties();
+        pendingSends = new ArrayList<>();
+        // sends are never run, as if every subscriber were on a stalled connection
+        stream = new DataEnvelopeStream(streamProperties, new ObjectMapper(), pendingSends::add);
+    }
+
+    @Test
+    public void shouldDropSubscriberFallingBehindWithoutBlockingTheWriter() {
+        streamProperties.setSubscriberBufferEvents(2);
+        stream.subscribe(BlockTypeEnum.BLOCKTYPEA, null);
+        stream.subscribe(BlockTypeEnum.BLOCKTYPEB, null);
+
+        for (int i = 0; i < 3; i++) {
+            stream.onDataBodyChanged(changed("A-" + i, BlockTypeEnum.BLOCKTYPEA));
+        }
+
+        assertThat(stream.getEvents()).isEqualTo(3);
+        assertThat(stream.getDropped()).isEqualTo(1);
+        assertThat(stream.getSubscribers()).isEqualTo(1);
+        assertThat(pendingSends).hasSize(1);
+    }
+
+    @Test
+    public void shouldRefuseSubscribersOverTheLimit() {
+        streamProperties.setMaxSubscribers(1);
+        stream.subscribe(BlockTypeEnum.BLOCKTYPEA, null);
+
+        assertThatThrownBy(() -> stream.subscribe(BlockTypeEnum.BLOCKTYPEB, null))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(stream.getSubscribers()).isEqualTo(1);
+    }
+
+    private static DataBodyChangedEvent changed(String name, BlockTypeEnum blockType) {
+        return new DataBodyChangedEvent(EnumSet.of(blockType),
+                Collections.singletonList(new DataBodyProjection(1L, name, blockType, "BODY", "CHECKSUM")));
+    }
+}
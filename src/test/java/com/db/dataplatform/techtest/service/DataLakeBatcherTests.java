@@ -0,0 +1,176 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.HadoopClient;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeBatcher;
+import com.db.dataplatform.techtest.server.configuration.DataLakeCompression;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.db.dataplatform.techtest.server.exception.DataLakeDeliveryException;
+import com.db.dataplatform.techtest.server.exception.DataLakeRejectedException;
+import com.db.dataplatform.techtest.server.exception.HadoopClientException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static com.db.dataplatform.techtest.TestDataHelper.TEST_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataLakeBatcherTests {
+
+    @Mock
+    private HadoopClient hadoopClientMock;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DataLakeProperties dataLakeProperties;
+    private DataLakeBatcher batcher;
+
+    @Before
+    public void setup() {
+        dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBatchMaxRecords(3);
+        dataLakeProperties.setBatchLingerMillis(50);
+        dataLakeProperties.setRetryMaxAttempts(2);
+        dataLakeProperties.setRetryInitialIntervalMillis(0);
+
+        batcher = new DataLakeBatcher(hadoopClientMock, Runnable::run, dataLakeProperties, objectMapper);
+    }
+
+    @After
+    public void tearDown() {
+        batcher.destroy();
+    }
+
+    @Test
+    public void shouldUploadGzippedNdjsonOnceBatchIsFull() throws Exception {
+        when(hadoopClientMock.pushBigDataBatchAsync(any(byte[].class), eq(true)))
+                .thenReturn(CompletableFuture.completedFuture(""));
+
+        CompletableFuture<Integer> first = batcher.submit(TEST_NAME + 1, DUMMY_DATA);
+        CompletableFuture<Integer> second = batcher.submit(TEST_NAME + 2, DUMMY_DATA);
+        assertThat(first).isNotDone();
+        CompletableFuture<Integer> third = batcher.submit(TEST_NAME + 3, DUMMY_DATA);
+
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        verify(hadoopClientMock).pushBigDataBatchAsync(body.capture(), eq(true));
+        List<JsonNode> records = decode(body.getValue());
+        assertThat(records).extracting(record -> record.get("name").asText())
+                .containsExactly(TEST_NAME + 1, TEST_NAME + 2, TEST_NAME + 3);
+        assertThat(records).extracting(record -> record.get("payload").asText()).containsOnly(DUMMY_DATA);
+        assertThat(first.join()).isEqualTo(1);
+        assertThat(second.join()).isEqualTo(1);
+        assertThat(third.join()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldUploadPartialBatchAfterLinger() {
+        dataLakeProperties.setBatchCompression(DataLakeCompression.NONE);
+        when(hadoopClientMock.pushBigDataBatchAsync(any(byte[].class), eq(false)))
+                .thenReturn(CompletableFuture.completedFuture(""));
+
+        CompletableFuture<Integer> future = batcher.submit(TEST_NAME, DUMMY_DATA);
+
+        await().atMost(2, TimeUnit.SECONDS).until(future::isDone);
+        verify(hadoopClientMock).pushBigDataBatchAsync(any(byte[].class), eq(false));
+    }
+
+    @Test
+    public void shouldFailEveryRecordWithAttemptsWhenRetriesAreExhausted() {
+        dataLakeProperties.setBatchMaxRecords(2);
+        when(hadoopClientMock.pushBigDataBatchAsync(any(byte[].class), anyBoolean())).thenAnswer(invocation -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(new HadoopClientException("Data lake responded with status 504"));
+            return future;
+        });
+
+        CompletableFuture<Integer> first = batcher.submit(TEST_NAME + 1, DUMMY_DATA);
+        CompletableFuture<Integer> second = batcher.submit(TEST_NAME + 2, DUMMY_DATA);
+
+        for (CompletableFuture<Integer> future : new CompletableFuture[]{first, second}) {
+            Throwable thrown = catchThrowable(future::join);
+            assertThat(thrown).isInstanceOf(CompletionException.class).hasCauseInstanceOf(DataLakeDeliveryException.class);
+            assertThat(((DataLakeDeliveryException) thrown.getCause()).getAttempts()).isEqualTo(2);
+        }
+        verify(hadoopClientMock, times(2)).pushBigDataBatchAsync(any(byte[].class), anyBoolean());
+    }
+
+    @Test
+    public void shouldScheduleRetryInsteadOfHoldingTheUploadThread() {
+        dataLakeProperties.setBatchEnabled(false);
+        dataLakeProperties.setRetryInitialIntervalMillis(200);
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new HadoopClientException("Data lake responded with status 503"));
+        when(hadoopClientMock.pushBigDataAsync(DUMMY_DATA))
+                .thenReturn(failed)
+                .thenReturn(CompletableFuture.completedFuture(""));
+
+        CompletableFuture<Integer> future = batcher.submit(TEST_NAME, DUMMY_DATA);
+
+        assertThat(future.isDone()).isFalse();
+        assertThat(future.join()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotRetryPushShedByTheClient() {
+        dataLakeProperties.setBatchEnabled(false);
+        CompletableFuture<String> shed = new CompletableFuture<>();
+        shed.completeExceptionally(new DataLakeRejectedException("Data lake circuit breaker is open"));
+        when(hadoopClientMock.pushBigDataAsync(DUMMY_DATA)).thenReturn(shed);
+
+        Throwable thrown = catchThrowable(batcher.submit(TEST_NAME, DUMMY_DATA)::join);
+
+        assertThat(thrown.getCause()).isInstanceOf(DataLakeDeliveryException.class).hasCauseInstanceOf(DataLakeRejectedException.class);
+        assertThat(((DataLakeDeliveryException) thrown.getCause()).getAttempts()).isEqualTo(1);
+        verify(hadoopClientMock, times(1)).pushBigDataAsync(DUMMY_DATA);
+    }
+
+    @Test
+    public void shouldPushRecordsIndividuallyWhenBatchingIsDisabled() {
+        dataLakeProperties.setBatchEnabled(false);
+        when(hadoopClientMock.pushBigDataAsync(DUMMY_DATA)).thenReturn(CompletableFuture.completedFuture(""));
+
+        assertThat(batcher.submit(TEST_NAME, DUMMY_DATA).join()).isEqualTo(1);
+
+        verify(hadoopClientMock).pushBigDataAsync(DUMMY_DATA);
+        verify(hadoopClientMock, never()).pushBigDataBatchAsync(any(byte[].class), anyBoolean());
+    }
+
+    private List<JsonNode> decode(byte[] body) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8))) {
+            return reader.lines().map(line -> {
+                try {
+                    return objectMapper.readTree(line);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.HadoopClient;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeBatcher;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeCircuitBreaker;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeOutboxRelay;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.db.dataplatform.techtest.server.event.DataLakePushedEvent;
+import com.db.dataplatform.techtest.server.exception.HadoopClientException;
+import com.db.dataplatform.techtest.server.persistence.OutboxStatusEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataLakeOutboxEntity;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static com.db.dataplatform.techtest.TestDataHelper.TEST_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataLakeOutboxRelayTests {
+
+    private static final Long OUTBOX_ID = 42L;
+
+    @Mock
+    private DataLakeOutboxService dataLakeOutboxServiceMock;
+
+    @Mock
+    private HadoopClient hadoopClientMock;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
+
+    private DataLakeOutboxRelay relay;
+
+    @Before
+    public void setup() {
+        DataLakeProperties dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBatchEnabled(false);
+        dataLakeProperties.setRetryMaxAttempts(3);
+        dataLakeProperties.setRetryInitialIntervalMillis(0);
+
+        DataLakeBatcher batcher = new DataLakeBatcher(hadoopClientMock, Runnable::run, dataLakeProperties, new ObjectMapper());
+        relay = new DataLakeOutboxRelay(dataLakeOutboxServiceMock, batcher, new DataLakeCircuitBreaker(dataLakeProperties), dataLakeProperties,
+                eventPublisherMock);
+
+        DataLakeOutboxEntity entry = new DataLakeOutboxEntity();
+        entry.setOutboxId(OUTBOX_ID);
+        entry.setName(TEST_NAME);
+        entry.setPayload(DUMMY_DATA);
+        entry.setStatus(OutboxStatusEnum.IN_FLIGHT);
+        lenient().when(dataLakeOutboxServiceMock.claimDue(anyInt())).thenReturn(Collections.singletonList(entry));
+    }
+
+    @Test
+    public void shouldDeleteEntryOnceDelivered() {
+        when(hadoopClientMock.pushBigDataAsync(DUMMY_DATA))
+                .thenReturn(failedPush())
+                .thenReturn(CompletableFuture.completedFuture(""));
+
+        relay.relay();
+
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> verify(dataLakeOutboxServiceMock).markDelivered(OUTBOX_ID));
+        verify(hadoopClientMock, times(2)).pushBigDataAsync(DUMMY_DATA);
+        verify(dataLakeOutboxServiceMock, never()).markDeadLetter(eq(OUTBOX_ID), anyInt(), anyString());
+        ArgumentCaptor<DataLakePushedEvent> event = ArgumentCaptor.forClass(DataLakePushedEvent.class);
+        verify(eventPublisherMock).publishEvent(event.capture());
+        assertThat(event.getValue().getName()).isEqualTo(TEST_NAME);
+        assertThat(event.getValue().isDelivered()).isTrue();
+    }
+
+    @Test
+    public void shouldMoveEntryToDeadLetterWhenRetriesAreExhausted() {
+        when(hadoopClientMock.pushBigDataAsync(DUMMY_DATA)).thenAnswer(invocation -> failedPush());
+
+        relay.relay();
+
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() ->
+                verify(dataLakeOutboxServiceMock).markDeadLetter(eq(OUTBOX_ID), eq(3), anyString()));
+        verify(hadoopClientMock, times(3)).pushBigDataAsync(DUMMY_DATA);
+        verify(dataLakeOutboxServiceMock, never()).markDelivered(OUTBOX_ID);
+    }
+
+    @Test
+    public void shouldNotClaimEntriesWhileCircuitBreakerIsOpen() {
+        DataLakeProperties dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBreakerMinimumCalls(1);
+        DataLakeCircuitBreaker circuitBreaker = new DataLakeCircuitBreaker(dataLakeProperties);
+        circuitBreaker.onFailure();
+        relay = new DataLakeOutboxRelay(dataLakeOutboxServiceMock,
+                new DataLakeBatcher(hadoopClientMock, Runnable::run, dataLakeProperties, new ObjectMapper()),
+                circuitBreaker, dataLakeProperties, eventPublisherMock);
+
+        relay.relay();
+
+        verify(dataLakeOutboxServiceMock, never()).claimDue(anyInt());
+    }
+
+    @Test
+    public void shouldReleaseEntryWhenUploadCannotBeScheduled() {
+        DataLakeProperties dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBatchEnabled(false);
+        DataLakeBatcher saturatedBatcher = new DataLakeBatcher(hadoopClientMock, runnable -> {
+            throw new RejectedExecutionException();
+        }, dataLakeProperties, new ObjectMapper());
+        relay = new DataLakeOutboxRelay(dataLakeOutboxServiceMock, saturatedBatcher, new DataLakeCircuitBreaker(dataLakeProperties), dataLakeProperties,
+                eventPublisherMock);
+
+        relay.relay();
+
+        verify(dataLakeOutboxServiceMock).release(OUTBOX_ID);
+        verify(dataLakeOutboxServiceMock, never()).markDeadLetter(eq(OUTBOX_ID), anyInt(), anyString());
+    }
+
+    private static CompletableFuture<String> failedPush() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(new HadoopClientException("Data lake responded with status 504"));
+        return future;
+    }
+}
@@ -0,0 +1,121 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.impl.DataLakeCircuitBreaker;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeConcurrencyLimiter;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataLakeResilienceTests {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private DataLakeProperties dataLakeProperties;
+
+    @Before
+    public void setup() {
+        dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBreakerWindowSize(4);
+        dataLakeProperties.setBreakerMinimumCalls(4);
+        dataLakeProperties.setBreakerFailureRatePercent(50);
+        dataLakeProperties.setBreakerOpenMillis(1000);
+        dataLakeProperties.setBreakerHalfOpenCalls(2);
+        dataLakeProperties.setLimiterInitialLimit(4);
+        dataLakeProperties.setLimiterMaxLimit(5);
+        dataLakeProperties.setLimiterBackoffRatio(0.5);
+        dataLakeProperties.setLimiterLatencyThresholdMillis(100);
+    }
+
+    @Test
+    public void shouldOpenBreakerOnceFailureRateIsReached() {
+        DataLakeCircuitBreaker breaker = new DataLakeCircuitBreaker(dataLakeProperties, nanoClock::get);
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCloseBreakerWhenTrialCallsSucceed() {
+        DataLakeCircuitBreaker breaker = openBreaker();
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.HALF_OPEN);
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertThat(breaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    public void shouldReopenBreakerWhenTrialCallFails() {
+        DataLakeCircuitBreaker breaker = openBreaker();
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    public void shouldShedCallsOverTheConcurrencyLimit() {
+        DataLakeConcurrencyLimiter limiter = new DataLakeConcurrencyLimiter(dataLakeProperties);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldGrowLimitAdditivelyAndShrinkMultiplicatively() {
+        DataLakeConcurrencyLimiter limiter = new DataLakeConcurrencyLimiter(dataLakeProperties);
+
+        for (int i = 0; i < 8; i++) {
+            for (int call = 0; call < 3; call++) {
+                limiter.tryAcquire();
+            }
+            for (int call = 0; call < 3; call++) {
+                limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        limiter.tryAcquire();
+        limiter.onDropped();
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private DataLakeCircuitBreaker openBreaker() {
+        DataLakeCircuitBreaker breaker = new DataLakeCircuitBreaker(dataLakeProperties, nanoClock::get);
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+}
@@ -0,0 +1,98 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.EmbeddedDataSourceConfiguration;
+import com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentReferenceRepositoryImpl;
+import com.db.dataplatform.techtest.server.persistence.repository.DataBodyContentRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataHeaderRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreCreatedRepositoryImpl;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreRepository;
+import com.db.dataplatform.techtest.server.persistence.repository.DataStoreUpsertRepositoryImpl;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import com.db.dataplatform.techtest.server.service.impl.DataBodyServiceImpl;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Runs the contract against {@link DataBodyServiceImpl} on the migrated H2 schema. The service is proxied with its
+ * {@code @Transactional} attributes, so the JPA and JDBC repositories share each transaction as they do in the
+ * application.
+ */
+public class DatabaseDataBodyServiceTests extends DataBodyServiceContractTests {
+
+    private static EmbeddedDatabase database;
+    private static EntityManagerFactory entityManagerFactory;
+    private static JdbcTemplate jdbcTemplate;
+
+    private DataBodyService dataBodyService;
+
+    @BeforeClass
+    public static void createDatabase() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("dataBodyService")
+                .addScripts(EmbeddedDataSourceConfiguration.migrationScripts())
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(database);
+        factoryBean.setPackagesToScan(EmbeddedDataSourceConfiguration.PACKAGE_MODEL);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+    }
+
+    @AfterClass
+    public static void dropDatabase() {
+        entityManagerFactory.close();
+        database.shutdown();
+    }
+
+    @Before
+    public void setup() {
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(entityManager);
+        DataBodyContentRepository dataBodyContentRepository = repositoryFactory.getRepository(DataBodyContentRepository.class,
+                RepositoryFragments.just(new DataBodyContentReferenceRepositoryImpl(jdbcTemplate)));
+        DataStoreRepository dataStoreRepository = repositoryFactory.getRepository(DataStoreRepository.class,
+                RepositoryFragments.just(new DataStoreUpsertRepositoryImpl(jdbcTemplate, dataBodyContentRepository),
+                        new DataStoreCreatedRepositoryImpl(jdbcTemplate)));
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setDataSource(database);
+        ProxyFactory proxyFactory = new ProxyFactory(new DataBodyServiceImpl(dataStoreRepository,
+                repositoryFactory.getRepository(DataHeaderRepository.class), dataBodyContentRepository, eventPublisherMock));
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        dataBodyService = (DataBodyService) proxyFactory.getProxy();
+    }
+
+    @Override
+    protected DataBodyService dataBodyService() {
+        return dataBodyService;
+    }
+
+    @After
+    public void emptyDatabase() {
+        jdbcTemplate.update("delete from DATA_STORE");
+        jdbcTemplate.update("delete from DATA_HEADER");
+        jdbcTemplate.update("delete from DATA_BODY_CONTENT");
+    }
+}
@@ -0,0 +1,163 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.impl.GroupCommitter;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.db.dataplatform.techtest.TestDataHelper.createTestDataBodyEntity;
+import static com.db.dataplatform.techtest.TestDataHelper.createTestDataHeaderEntity;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GroupCommitterTests {
+
+    @Mock
+    private DataBodyService dataBodyServiceImplMock;
+
+    @Mock
+    private DataLakeOutboxService dataLakeOutboxServiceMock;
+
+    @Mock
+    private PlatformTransactionManager transactionManagerMock;
+
+    private IngestProperties ingestProperties;
+    private GroupCommitter groupCommitter;
+
+    // one thread per caller, each blocks until its group commits
+    private final ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    @Before
+    public void setup() {
+        ingestProperties = new IngestProperties();
+        ingestProperties.setGroupCommitEnabled(true);
+        ingestProperties.setGroupCommitMaxSize(3);
+        // long enough that only the size limit closes a group
+        ingestProperties.setGroupCommitMaxLingerMillis(10_000);
+        groupCommitter = new GroupCommitter(ingestProperties, dataBodyServiceImplMock, dataLakeOutboxServiceMock,
+                new TransactionTemplate(transactionManagerMock));
+        groupCommitter.start();
+    }
+
+    @After
+    public void stop() throws InterruptedException {
+        callers.shutdownNow();
+        groupCommitter.destroy();
+    }
+
+    @Test
+    public void shouldCommitConcurrentWritesAsOneGroup() {
+        CompletableFuture<?>[] commits = new CompletableFuture<?>[3];
+        for (int i = 0; i < commits.length; i++) {
+            DataBodyEntity dataBody = createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()));
+            commits[i] = CompletableFuture.runAsync(() -> groupCommitter.commit(dataBody), callers);
+        }
+        CompletableFuture.allOf(commits).join();
+
+        ArgumentCaptor<List<DataBodyEntity>> group = ArgumentCaptor.forClass(List.class);
+        verify(dataBodyServiceImplMock, times(1)).saveDataBodies(group.capture());
+        assertThat(group.getValue()).hasSize(3);
+        verify(dataLakeOutboxServiceMock, times(1)).enqueueAll(anyList());
+        verify(transactionManagerMock, times(1)).commit(any());
+        assertThat(groupCommitter.getGroups()).isEqualTo(1);
+        assertThat(groupCommitter.getCommitted()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldOnlyFailTheOffendingWriteOfAFailedGroup() {
+        DataBodyEntity duplicate = createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()));
+        doThrow(new DataIntegrityViolationException("duplicate")).when(dataBodyServiceImplMock).saveDataBodies(anyList());
+        doThrow(new DataIntegrityViolationException("duplicate")).when(dataBodyServiceImplMock).saveDataBody(duplicate);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(
+                () -> groupCommitter.commit(createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()))), callers);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> groupCommitter.commit(duplicate), callers);
+        CompletableFuture<Void> third = CompletableFuture.runAsync(
+                () -> groupCommitter.commit(createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()))), callers);
+
+        first.join();
+        third.join();
+        assertThatThrownBy(second::join).hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThat(groupCommitter.getCommitted()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRejectWriteOnceStopped() throws InterruptedException {
+        groupCommitter.destroy();
+
+        assertThatThrownBy(() -> groupCommitter.commit(createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()))))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(groupCommitter.getQueued()).isZero();
+    }
+
+    @Test
+    public void shouldNeverWriteBodyRejectedForTakingTooLong() throws InterruptedException {
+        groupCommitter.destroy();
+        ingestProperties.setGroupCommitTimeoutMillis(100);
+        // the group only closes after the caller has given up
+        ingestProperties.setGroupCommitMaxLingerMillis(300);
+        groupCommitter = new GroupCommitter(ingestProperties, dataBodyServiceImplMock, dataLakeOutboxServiceMock,
+                new TransactionTemplate(transactionManagerMock));
+        groupCommitter.start();
+
+        assertThatThrownBy(() -> groupCommitter.commit(createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()))))
+                .isInstanceOf(RejectedExecutionException.class);
+        groupCommitter.destroy();
+
+        verify(dataBodyServiceImplMock, never()).saveDataBodies(anyList());
+        verify(dataBodyServiceImplMock, never()).saveDataBody(any(DataBodyEntity.class));
+        assertThat(groupCommitter.getCommitted()).isZero();
+    }
+
+    @Test
+    public void shouldWaitPastTheTimeoutForBodyAlreadyBeingCommitted() throws InterruptedException {
+        ingestProperties.setGroupCommitTimeoutMillis(100);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(dataBodyServiceImplMock).saveDataBodies(anyList());
+
+        CompletableFuture<?>[] commits = new CompletableFuture<?>[3];
+        for (int i = 0; i < commits.length; i++) {
+            DataBodyEntity dataBody = createTestDataBodyEntity(createTestDataHeaderEntity(Instant.now()));
+            commits[i] = CompletableFuture.runAsync(() -> groupCommitter.commit(dataBody), callers);
+        }
+        try {
+            Thread.sleep(300);
+            assertThat(CompletableFuture.anyOf(commits).isDone()).isFalse();
+        } finally {
+            release.countDown();
+        }
+
+        CompletableFuture.allOf(commits).join();
+        assertThat(groupCommitter.getCommitted()).isEqualTo(3);
+    }
+}
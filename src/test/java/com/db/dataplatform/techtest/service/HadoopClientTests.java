@@ -0,0 +1,115 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.HadoopClient;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeCircuitBreaker;
+import com.db.dataplatform.techtest.server.component.impl.DataLakeConcurrencyLimiter;
+import com.db.dataplatform.techtest.server.component.impl.HadoopClientImpl;
+import com.db.dataplatform.techtest.server.configuration.DataLakeProperties;
+import com.db.dataplatform.techtest.server.exception.DataLakeRejectedException;
+import com.db.dataplatform.techtest.server.exception.HadoopClientException;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HadoopClientTests {
+
+    @Mock
+    private CloseableHttpAsyncClient httpClientMock;
+
+    private DataLakeCircuitBreaker circuitBreaker;
+    private DataLakeConcurrencyLimiter concurrencyLimiter;
+    private HadoopClient hadoopClient;
+
+    @Before
+    public void setup() {
+        DataLakeProperties dataLakeProperties = new DataLakeProperties();
+        dataLakeProperties.setBreakerMinimumCalls(1);
+        circuitBreaker = new DataLakeCircuitBreaker(dataLakeProperties);
+        concurrencyLimiter = new DataLakeConcurrencyLimiter(dataLakeProperties);
+        hadoopClient = new HadoopClientImpl(httpClientMock, dataLakeProperties, circuitBreaker, concurrencyLimiter);
+    }
+
+    @Test
+    public void shouldCompleteWithResponseBodyOnceResponseArrives() throws Exception {
+        CompletableFuture<String> future = hadoopClient.pushBigDataAsync(DUMMY_DATA);
+
+        assertThat(future).isNotDone();
+        assertThat(concurrencyLimiter.getInFlight()).isEqualTo(1);
+        callback().completed(response(200, "OK"));
+
+        assertThat(future.join()).isEqualTo("OK");
+        assertThat(concurrencyLimiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void shouldFailWithHadoopClientExceptionOnGatewayTimeout() throws Exception {
+        CompletableFuture<String> future = hadoopClient.pushBigDataAsync(DUMMY_DATA);
+        callback().completed(response(504, ""));
+
+        Throwable thrown = catchThrowable(future::join);
+
+        assertThat(thrown).isInstanceOf(CompletionException.class);
+        assertThat(thrown.getCause()).isInstanceOf(HadoopClientException.class);
+    }
+
+    @Test
+    public void shouldFailWithHadoopClientExceptionOnIoError() {
+        CompletableFuture<String> future = hadoopClient.pushBigDataBatchAsync(new byte[]{'{', '}'}, false);
+        callback().failed(new SocketTimeoutException());
+
+        Throwable thrown = catchThrowable(future::join);
+
+        assertThat(thrown.getCause()).isInstanceOf(HadoopClientException.class)
+                .hasCauseInstanceOf(SocketTimeoutException.class);
+    }
+
+    @Test
+    public void shouldShedPushesOnceCircuitBreakerOpens() throws Exception {
+        CompletableFuture<String> first = hadoopClient.pushBigDataAsync(DUMMY_DATA);
+        callback().completed(response(504, ""));
+        catchThrowable(first::join);
+        assertThat(circuitBreaker.getState()).isEqualTo(DataLakeCircuitBreaker.State.OPEN);
+
+        Throwable thrown = catchThrowable(() -> hadoopClient.pushBigDataAsync(DUMMY_DATA).join());
+
+        assertThat(thrown.getCause()).isInstanceOf(DataLakeRejectedException.class);
+        verify(httpClientMock, times(1)).execute(any(HttpUriRequest.class), any());
+        assertThat(concurrencyLimiter.getInFlight()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private FutureCallback<HttpResponse> callback() {
+        ArgumentCaptor<FutureCallback<HttpResponse>> callback = ArgumentCaptor.forClass(FutureCallback.class);
+        verify(httpClientMock).execute(any(HttpUriRequest.class), callback.capture());
+        return callback.getValue();
+    }
+
+    private static HttpResponse response(int statusCode, String body) throws IOException {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null);
+        response.setEntity(new StringEntity(body));
+        return response;
+    }
+}
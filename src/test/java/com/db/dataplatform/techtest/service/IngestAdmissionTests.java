@@ -0,0 +1,159 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.api.model.AdmissionLimits;
+import com.db.dataplatform.techtest.server.api.model.DataBody;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.component.impl.IngestAdmission;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.exception.AdmissionRejectedException;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IngestAdmissionTests {
+
+    private long now;
+    private IngestProperties ingestProperties;
+    private IngestAdmission ingestAdmission;
+
+    @Before
+    public void setup() {
+        ingestProperties = new IngestProperties();
+        ingestProperties.setAdmissionEnabled(true);
+        ingestProperties.setAdmissionRatePerSecond(2);
+        ingestProperties.setAdmissionBurst(4);
+        ingestProperties.setAdmissionMaxInFlight(0);
+        ingestAdmission = new IngestAdmission(ingestProperties, () -> now);
+    }
+
+    @Test
+    public void shouldRefuseProducerOverItsRateUntilTokensRefill() {
+        admit("TSLA", 4);
+
+        AdmissionRejectedException rejected = rejected("TSLA", 3);
+        assertThat(rejected.isRateLimited()).isTrue();
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(2);
+        assertThat(ingestAdmission.getRateLimited()).isEqualTo(1);
+
+        // other producers have their own bucket
+        admit("AAPL", 1);
+
+        now += TimeUnit.MILLISECONDS.toNanos(1500);
+        admit("TSLA", 3);
+    }
+
+    @Test
+    public void shouldAdmitBatchLargerThanBurstOnlyFromFullBucket() {
+        admit("TSLA", 10);
+
+        AdmissionRejectedException rejected = rejected("TSLA", 1);
+        // six envelopes of debt and one more at two per second
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldShedOverInFlightCapUntilReleased() {
+        ingestAdmission.setLimits(new AdmissionLimits(0, 1, 1, null));
+        ingestAdmission.admit("TSLA", 100);
+
+        AdmissionRejectedException rejected = rejected("AAPL", 1);
+        assertThat(rejected.isRateLimited()).isFalse();
+        assertThat(ingestAdmission.getOverloaded()).isEqualTo(1);
+
+        ingestAdmission.release();
+        admit("AAPL", 1);
+    }
+
+    @Test
+    public void producerRateShouldOverrideDefault() {
+        ingestAdmission.setLimits(new AdmissionLimits(2, 4, 0, Collections.singletonMap("TSLA", 0d)));
+
+        admit("TSLA", 1000);
+        admit("AAPL", 4);
+        assertThatThrownBy(() -> ingestAdmission.admit("AAPL", 1)).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(ingestAdmission.getLimits().getProducerRates()).containsEntry("TSLA", 0d);
+    }
+
+    @Test
+    public void producerShouldComeFromHeaderOrNamePrefix() {
+        assertThat(IngestAdmission.producer(" feed-7 ", "TSLA-USDGBP-10Y")).isEqualTo("feed-7");
+        assertThat(IngestAdmission.producer(null, "TSLA-USDGBP-10Y")).isEqualTo("TSLA");
+        // names without a prefix share one bucket rather than each getting their own
+        assertThat(IngestAdmission.producer("", "TSLA")).isEqualTo(IngestAdmission.DEFAULT_PRODUCER);
+        assertThat(IngestAdmission.producer(null, "AAPL")).isEqualTo(IngestAdmission.DEFAULT_PRODUCER);
+    }
+
+    @Test
+    public void shouldChargeEveryProducerOfABatchOrNone() {
+        List<DataEnvelope> batch = Arrays.asList(envelope("TSLA-1"), envelope("TSLA-2"), envelope("AAPL-1"));
+        Map<String, Integer> producers = IngestAdmission.producers(null, batch);
+        assertThat(producers).containsEntry("TSLA", 2).containsEntry("AAPL", 1);
+        admit("AAPL", 4);
+
+        assertThat(rejected(producers).isRateLimited()).isTrue();
+
+        // TSLA was not charged for the refused batch
+        admit("TSLA", 4);
+        assertThat(IngestAdmission.producers("feed-7", batch)).containsOnlyKeys("feed-7").containsEntry("feed-7", 3);
+    }
+
+    @Test
+    public void shouldKeepTheBucketsOfABatchWithMoreProducersThanKept() {
+        ingestProperties.setAdmissionMaxProducers(2);
+        admit("TSLA", 3);
+        Map<String, Integer> producers = new LinkedHashMap<>();
+        producers.put("TSLA", 1);
+        producers.put("AAPL", 1);
+        producers.put("MSFT", 1);
+
+        ingestAdmission.admit(producers);
+        ingestAdmission.release();
+
+        // TSLA's empty bucket was charged and kept, not swapped for a full one
+        assertThat(rejected("TSLA", 1).isRateLimited()).isTrue();
+        admit("AAPL", 3);
+    }
+
+    @Test
+    public void shouldAdmitEverythingWhenDisabled() {
+        ingestProperties.setAdmissionEnabled(false);
+
+        admit("TSLA", 1000);
+        admit("TSLA", 1000);
+        assertThat(ingestAdmission.getRateLimited()).isZero();
+    }
+
+    private AdmissionRejectedException rejected(String producer, int envelopes) {
+        return rejected(Collections.singletonMap(producer, envelopes));
+    }
+
+    private AdmissionRejectedException rejected(Map<String, Integer> envelopesByProducer) {
+        try {
+            ingestAdmission.admit(envelopesByProducer);
+        } catch (AdmissionRejectedException e) {
+            return e;
+        }
+        throw new AssertionError(envelopesByProducer + " was admitted");
+    }
+
+    private static DataEnvelope envelope(String name) {
+        return new DataEnvelope(new DataHeader(name, BlockTypeEnum.BLOCKTYPEA), new DataBody(DUMMY_DATA, null));
+    }
+
+    private void admit(String producer, int envelopes) {
+        ingestAdmission.admit(producer, envelopes);
+        ingestAdmission.release();
+    }
+}
@@ -0,0 +1,81 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.impl.IngestDuplicateFilter;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IngestDuplicateFilterTests {
+
+    private static final int NAMES = 10_000;
+
+    @Mock
+    private DataBodyService dataBodyServiceImplMock;
+
+    private IngestProperties ingestProperties;
+    private IngestDuplicateFilter filter;
+
+    @Before
+    public void setup() {
+        ingestProperties = new IngestProperties();
+        ingestProperties.setDuplicateFilterExpectedNames(NAMES);
+        ingestProperties.setDuplicateCacheMaxEntries(2);
+        filter = new IngestDuplicateFilter(ingestProperties, dataBodyServiceImplMock);
+    }
+
+    @Test
+    public void shouldRebuildFromStoredNamesWithoutFalseNegatives() {
+        when(dataBodyServiceImplMock.forEachBlockName(any())).thenAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            for (int i = 0; i < NAMES; i++) {
+                action.accept("STORED-" + i);
+            }
+            return (long) NAMES;
+        });
+
+        filter.rebuild();
+
+        for (int i = 0; i < NAMES; i++) {
+            assertThat(filter.mightBeStored("STORED-" + i)).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < NAMES; i++) {
+            if (filter.mightBeStored("NEW-" + i)) {
+                falsePositives++;
+            }
+        }
+        // configured for 1%, allow for chance
+        assertThat(falsePositives).isLessThan(NAMES / 50);
+        assertThat(filter.getNewNames()).isEqualTo(NAMES - falsePositives);
+    }
+
+    @Test
+    public void shouldOnlyRecogniseRecentRetriesWithTheSameBlockTypeAndChecksum() {
+        filter.recordStored("first", BlockTypeEnum.BLOCKTYPEA, "1");
+        filter.recordStored("second", BlockTypeEnum.BLOCKTYPEA, "2");
+
+        assertThat(filter.isRecentDuplicate("first", BlockTypeEnum.BLOCKTYPEA, "1")).isTrue();
+
+        filter.recordStored("third", BlockTypeEnum.BLOCKTYPEA, "3");
+
+        // second was least recently used
+        assertThat(filter.isRecentDuplicate("second", BlockTypeEnum.BLOCKTYPEA, "2")).isFalse();
+        assertThat(filter.isRecentDuplicate("first", BlockTypeEnum.BLOCKTYPEA, "changed")).isFalse();
+        assertThat(filter.isRecentDuplicate("first", BlockTypeEnum.BLOCKTYPEB, "1")).isFalse();
+        assertThat(filter.isRecentDuplicate("first", BlockTypeEnum.BLOCKTYPEA, "1")).isTrue();
+        assertThat(filter.mightBeStored("second")).isTrue();
+        assertThat(filter.getDuplicates()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,84 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.component.impl.RequestExecutors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestExecutorsTests {
+
+    private final ExecutorService readExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestExecutors requestExecutors;
+
+    @Before
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestExecutors = new RequestExecutors(readExecutor, writeExecutor, meterRegistry);
+    }
+
+    @After
+    public void shutdown() {
+        readExecutor.shutdownNow();
+        writeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void readsShouldNotWaitForBusyWriters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> write = requestExecutors.write("pushData", () -> await(release));
+        CompletableFuture<Boolean> queuedWrite = requestExecutors.write("pushData", () -> true);
+
+        assertThat(requestExecutors.read("getData", () -> true).get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queuedWrite).isNotDone();
+
+        release.countDown();
+        assertThat(write.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queuedWrite.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void queueTimeShouldBeRecordedPerEndpoint() throws Exception {
+        requestExecutors.read("getData", () -> true).get(5, TimeUnit.SECONDS);
+        requestExecutors.write("updateData", () -> true).get(5, TimeUnit.SECONDS);
+        requestExecutors.write("updateData", () -> true).get(5, TimeUnit.SECONDS);
+
+        assertThat(meterRegistry.get("dataserver.request.queue").tags("executor", "read", "endpoint", "getData")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("dataserver.request.queue").tags("executor", "write", "endpoint", "updateData")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void rejectedRequestsShouldBeCounted() {
+        RequestExecutors saturated = new RequestExecutors(readExecutor, command -> {
+            throw new RejectedExecutionException("full");
+        }, meterRegistry);
+
+        assertThatThrownBy(() -> saturated.write("pushData", () -> true)).isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get("dataserver.request.rejected").tags("executor", "write", "endpoint", "pushData")
+                .counter().count()).isEqualTo(1);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
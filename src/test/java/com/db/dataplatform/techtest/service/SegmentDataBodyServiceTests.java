@@ -0,0 +1,158 @@
+package com.db.dataplatform.techtest.service;
+
+import com.db.dataplatform.techtest.server.configuration.StorageProperties;
+import com.db.dataplatform.techtest.server.event.DataBodyPurgedEvent;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.service.DataBodyService;
+import com.db.dataplatform.techtest.server.service.impl.SegmentDataBodyServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SegmentDataBodyServiceTests extends DataBodyServiceContractTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StorageProperties storageProperties;
+    private SegmentDataBodyServiceImpl dataBodyService;
+
+    // small segments and hourly partitions, so the contract tests also read across segments and partitions
+    @Before
+    public void setup() {
+        storageProperties = new StorageProperties();
+        storageProperties.setSegmentDirectory(folder.getRoot().getPath());
+        storageProperties.setSegmentBytes(4096);
+        storageProperties.setPartitionMillis(Duration.ofHours(1).toMillis());
+        dataBodyService = new SegmentDataBodyServiceImpl(storageProperties, eventPublisherMock);
+    }
+
+    @Override
+    protected DataBodyService dataBodyService() {
+        return dataBodyService;
+    }
+
+    @After
+    public void tearDown() {
+        TransactionSynchronizationManager.clear();
+        dataBodyService.close();
+    }
+
+    @Test
+    public void shouldRevertWritesOfARolledBackTransaction() {
+        dataBodyService.saveDataBody(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+
+        TransactionSynchronizationManager.initSynchronization();
+        dataBodyService.saveDataBody(dataBody("A-2", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+        dataBodyService.upsertDataBodies(Collections.singletonList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEB, "replaced")));
+        rollBack();
+
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-1");
+        assertThat(dataBodyService.getDataByBlockName("A-1").get().getDataBody()).isEqualTo(DUMMY_DATA);
+        assertThat(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEB)).isEmpty();
+    }
+
+    @Test
+    public void shouldRecoverTheLatestStateFromSegmentsOnRestart() {
+        dataBodyService.saveDataBodies(Arrays.asList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA),
+                dataBody("A-2", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA), dataBody("A-3", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA)));
+        dataBodyService.upsertDataBodies(Collections.singletonList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, "replaced")));
+        dataBodyService.updateBlockTypes(Collections.singletonList("A-2"), BlockTypeEnum.BLOCKTYPEB);
+        dataBodyService.deleteDataBody("A-3");
+
+        reopen();
+
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-1");
+        assertThat(dataBodyService.getDataByBlockName("A-1").get().getDataBody()).isEqualTo("replaced");
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEB))).containsExactly("A-2");
+        assertThat(dataBodyService.getDataByBlockName("A-3")).isEmpty();
+
+        dataBodyService.saveDataBody(dataBody("A-4", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA));
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-1", "A-4");
+    }
+
+    @Test
+    public void shouldCompactReplacedBodiesAndRecoverFromTheCompactedSegments() throws Exception {
+        storageProperties.setCompactionMinGarbageRatio(0.5);
+        for (int i = 0; i < 200; i++) {
+            dataBodyService.upsertDataBodies(Arrays.asList(dataBody("A-1", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA + i),
+                    dataBody("B-" + i, BlockTypeEnum.BLOCKTYPEB, DUMMY_DATA)));
+            if (i % 2 == 0) {
+                dataBodyService.deleteDataBody("B-" + i);
+            }
+        }
+        dataBodyService.updateBlockTypes(Collections.singletonList("B-199"), BlockTypeEnum.BLOCKTYPEA);
+        long before = segmentFiles();
+
+        dataBodyService.compact();
+
+        assertThat(segmentFiles()).isLessThan(before);
+        reopen();
+        assertThat(dataBodyService.getDataByBlockName("A-1").get().getDataBody()).isEqualTo(DUMMY_DATA + 199);
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-1", "B-199");
+        assertThat(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEB)).hasSize(99);
+        assertThat(dataBodyService.getDataByBlockName("B-198")).isEmpty();
+    }
+
+    @Test
+    public void shouldPurgeExpiredPartitionsOfABlockTypeWithoutBringingBackMovedBodies() throws Exception {
+        storageProperties.getRetention().put(BlockTypeEnum.BLOCKTYPEA, Duration.ofHours(2));
+        reopen();
+        Instant old = Instant.now().minus(Duration.ofHours(3));
+        dataBodyService.saveDataBodies(Arrays.asList(dataBody("A-old", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, old),
+                dataBody("B-old", BlockTypeEnum.BLOCKTYPEB, DUMMY_DATA, old), dataBody("X-old", BlockTypeEnum.BLOCKTYPEB, DUMMY_DATA, old),
+                dataBody("A-new", BlockTypeEnum.BLOCKTYPEA, DUMMY_DATA, null)));
+        dataBodyService.updateBlockTypes(Collections.singletonList("X-old"), BlockTypeEnum.BLOCKTYPEA);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+
+        dataBodyService.purgeExpired();
+
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-new");
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEB))).containsExactly("B-old");
+        verify(eventPublisherMock, times(4)).publishEvent(events.capture());
+        DataBodyPurgedEvent purged = (DataBodyPurgedEvent) events.getValue();
+        assertThat(purged.getBlockType()).isEqualTo(BlockTypeEnum.BLOCKTYPEA);
+        assertThat(purged.getNames()).containsExactlyInAnyOrder("A-old", "X-old");
+
+        reopen();
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA))).containsExactly("A-new");
+        assertThat(names(dataBodyService.getDataByBlockType(BlockTypeEnum.BLOCKTYPEB))).containsExactly("B-old");
+    }
+
+    private void rollBack() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    private void reopen() {
+        dataBodyService.close();
+        dataBodyService = new SegmentDataBodyServiceImpl(storageProperties, eventPublisherMock);
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            return files.count();
+        }
+    }
+}
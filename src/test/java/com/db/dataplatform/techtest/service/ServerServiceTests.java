@@ -1,24 +1,82 @@
 package com.db.dataplatform.techtest.service;
 
+import com.db.dataplatform.techtest.server.api.model.AdmissionLimits;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdate;
+import com.db.dataplatform.techtest.server.api.model.BlockTypeUpdateSummary;
+import com.db.dataplatform.techtest.server.api.model.DataBody;
 import com.db.dataplatform.techtest.server.api.model.DataEnvelope;
+import com.db.dataplatform.techtest.server.api.model.DataEnvelopePage;
+import com.db.dataplatform.techtest.server.api.model.DataHeader;
+import com.db.dataplatform.techtest.server.api.model.IngestStatus;
+import com.db.dataplatform.techtest.server.api.model.IngestSummary;
+import com.db.dataplatform.techtest.server.api.model.IngestTicket;
+import com.db.dataplatform.techtest.server.api.model.PushDataResult;
+import com.db.dataplatform.techtest.server.api.model.PushDataStatus;
+import com.db.dataplatform.techtest.server.api.model.Watermark;
+import com.db.dataplatform.techtest.server.checksum.ChecksumAlgorithm;
+import com.db.dataplatform.techtest.server.component.HadoopClient;
 import com.db.dataplatform.techtest.server.component.Server;
+import com.db.dataplatform.techtest.server.component.impl.BlockTypeResultCache;
+import com.db.dataplatform.techtest.server.component.impl.GroupCommitter;
+import com.db.dataplatform.techtest.server.component.impl.IngestAdmission;
+import com.db.dataplatform.techtest.server.component.impl.IngestDuplicateFilter;
+import com.db.dataplatform.techtest.server.component.impl.IngestTracker;
 import com.db.dataplatform.techtest.server.component.impl.ServerImpl;
+import com.db.dataplatform.techtest.server.configuration.IngestProperties;
+import com.db.dataplatform.techtest.server.configuration.ReadProperties;
+import com.db.dataplatform.techtest.server.event.DataLakePushedEvent;
+import com.db.dataplatform.techtest.server.exception.AdmissionRejectedException;
+import com.db.dataplatform.techtest.server.exception.HadoopClientException;
 import com.db.dataplatform.techtest.server.mapper.ServerMapperConfiguration;
+import com.db.dataplatform.techtest.server.persistence.BlockTypeEnum;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyChecksum;
 import com.db.dataplatform.techtest.server.persistence.model.DataBodyEntity;
+import com.db.dataplatform.techtest.server.persistence.model.DataBodyProjection;
 import com.db.dataplatform.techtest.server.persistence.model.DataHeaderEntity;
 import com.db.dataplatform.techtest.server.service.DataBodyService;
+import com.db.dataplatform.techtest.server.service.DataLakeOutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import static com.db.dataplatform.techtest.TestDataHelper.DUMMY_DATA;
+import static com.db.dataplatform.techtest.TestDataHelper.TEST_NAME;
 import static com.db.dataplatform.techtest.TestDataHelper.createTestDataEnvelopeApiObject;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ServerServiceTests {
@@ -26,11 +84,26 @@ public class ServerServiceTests {
     @Mock
     private DataBodyService dataBodyServiceImplMock;
 
+    @Mock
+    private HadoopClient hadoopClientMock;
+
+    @Mock
+    private DataLakeOutboxService dataLakeOutboxServiceMock;
+
+    @Mock
+    private PlatformTransactionManager transactionManagerMock;
+
     private ModelMapper modelMapper;
 
     private DataBodyEntity expectedDataBodyEntity;
     private DataEnvelope testDataEnvelope;
 
+    private ObjectMapper objectMapper;
+    private IngestProperties ingestProperties;
+    private BlockTypeResultCache blockTypeResultCache;
+    private IngestTracker ingestTracker;
+    private IngestAdmission ingestAdmission;
+
     private Server server;
 
     @Before
@@ -42,7 +115,19 @@ public class ServerServiceTests {
         expectedDataBodyEntity = modelMapper.map(testDataEnvelope.getDataBody(), DataBodyEntity.class);
         expectedDataBodyEntity.setDataHeaderEntity(modelMapper.map(testDataEnvelope.getDataHeader(), DataHeaderEntity.class));
 
-        server = new ServerImpl(dataBodyServiceImplMock, modelMapper);
+        objectMapper = new ObjectMapper();
+        ingestProperties = new IngestProperties();
+
+        ReadProperties readProperties = new ReadProperties();
+        blockTypeResultCache = new BlockTypeResultCache(readProperties);
+        ingestTracker = new IngestTracker(ingestProperties);
+        ingestAdmission = new IngestAdmission(ingestProperties);
+
+        server = new ServerImpl(dataBodyServiceImplMock, modelMapper, objectMapper, ingestProperties, readProperties,
+                blockTypeResultCache, new IngestDuplicateFilter(ingestProperties, dataBodyServiceImplMock),
+                new GroupCommitter(ingestProperties, dataBodyServiceImplMock, dataLakeOutboxServiceMock, new TransactionTemplate(transactionManagerMock)),
+                ingestTracker, Runnable::run, hadoopClientMock, dataLakeOutboxServiceMock, new TransactionTemplate(transactionManagerMock),
+                ingestAdmission);
     }
 
     @Test
@@ -52,4 +137,365 @@ public class ServerServiceTests {
         assertThat(success).isTrue();
         //verify(dataBodyServiceImplMock, times(1)).saveDataBody(eq(expectedDataBodyEntity));
     }
+
+    @Test
+    public void shouldEnqueueDataLakePushWithPersistedEnvelope() {
+        server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5);
+
+        verify(dataBodyServiceImplMock, times(1)).saveDataBody(any(DataBodyEntity.class));
+        verify(dataLakeOutboxServiceMock, times(1)).enqueue(any(DataBodyEntity.class));
+        verify(transactionManagerMock, times(1)).commit(any());
+    }
+
+    @Test
+    public void shouldAnswerExactRetryWithoutTouchingTheDatabase() {
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+
+        verify(dataBodyServiceImplMock, times(1)).saveDataBody(any(DataBodyEntity.class));
+        verify(dataBodyServiceImplMock, never()).getChecksumByBlockName(any());
+    }
+
+    @Test
+    public void shouldStoreEnvelopeAgainAfterItWasDeleted() {
+        String name = testDataEnvelope.getDataHeader().getName();
+        when(dataBodyServiceImplMock.deleteDataBody(name)).thenReturn(true);
+
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+        assertThat(server.deleteDataEnvelope(name)).isTrue();
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+
+        verify(dataBodyServiceImplMock, times(2)).saveDataBody(any(DataBodyEntity.class));
+    }
+
+    @Test
+    public void shouldLookUpStoredChecksumOfNameThatMayBeStored() {
+        // without recent pairs only the Bloom filter remembers the name
+        ingestProperties.setDuplicateCacheMaxEntries(0);
+        IngestDuplicateFilter ingestDuplicateFilter = new IngestDuplicateFilter(ingestProperties, dataBodyServiceImplMock);
+        ingestDuplicateFilter.recordStored(testDataEnvelope.getDataHeader().getName(), BlockTypeEnum.BLOCKTYPEA,
+                testDataEnvelope.getDataBody().getCheckSum());
+        server = new ServerImpl(dataBodyServiceImplMock, modelMapper, objectMapper, ingestProperties, new ReadProperties(),
+                blockTypeResultCache, ingestDuplicateFilter,
+                new GroupCommitter(ingestProperties, dataBodyServiceImplMock, dataLakeOutboxServiceMock, new TransactionTemplate(transactionManagerMock)),
+                ingestTracker, Runnable::run, hadoopClientMock, dataLakeOutboxServiceMock, new TransactionTemplate(transactionManagerMock),
+                ingestAdmission);
+        when(dataBodyServiceImplMock.getChecksumByBlockName(testDataEnvelope.getDataHeader().getName()))
+                .thenReturn(Optional.of(new DataBodyChecksum(BlockTypeEnum.BLOCKTYPEA, testDataEnvelope.getDataBody().getCheckSum())));
+
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+        verify(dataBodyServiceImplMock, never()).saveDataBody(any(DataBodyEntity.class));
+    }
+
+    @Test
+    public void shouldNotAnswerPushOfStoredNameWithAnotherBlockTypeAsDuplicate() {
+        DataEnvelope moved = new DataEnvelope(new DataHeader(TEST_NAME, BlockTypeEnum.BLOCKTYPEB), testDataEnvelope.getDataBody());
+        when(dataBodyServiceImplMock.getChecksumByBlockName(TEST_NAME))
+                .thenReturn(Optional.of(new DataBodyChecksum(BlockTypeEnum.BLOCKTYPEA, testDataEnvelope.getDataBody().getCheckSum())));
+        doNothing().doThrow(new DataIntegrityViolationException("UK_DATA_HEADER"))
+                .when(dataBodyServiceImplMock).saveDataBody(any(DataBodyEntity.class));
+
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+        IngestTicket ticket = server.saveDataEnvelopeAsync(moved, ChecksumAlgorithm.MD5);
+
+        assertThat(server.getIngestTicket(ticket.getId()).get().getStatus()).isEqualTo(IngestStatus.FAILED);
+        verify(dataBodyServiceImplMock, times(2)).saveDataBody(any(DataBodyEntity.class));
+    }
+
+    @Test
+    public void shouldLookUpEnvelopeAgainAfterItWasMoved() {
+        when(dataBodyServiceImplMock.getDataByBlockName(TEST_NAME)).thenReturn(Optional.of(new DataBodyEntity()));
+
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+        assertThat(server.updateDataEnvelope(TEST_NAME, BlockTypeEnum.BLOCKTYPEB.name())).isTrue();
+        assertThat(server.saveDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+
+        verify(dataBodyServiceImplMock).getChecksumByBlockName(TEST_NAME);
+        verify(dataBodyServiceImplMock, times(2)).saveDataBody(any(DataBodyEntity.class));
+    }
+
+    @Test
+    public void shouldTrackAsyncEnvelopeUntilPushedToDataLake() {
+        IngestTicket ticket = server.saveDataEnvelopeAsync(testDataEnvelope, ChecksumAlgorithm.MD5);
+
+        assertThat(ticket.getStatus()).isEqualTo(IngestStatus.QUEUED);
+        assertThat(server.getIngestTicket(ticket.getId()).get().getStatus()).isEqualTo(IngestStatus.PERSISTED);
+        verify(dataLakeOutboxServiceMock, times(1)).enqueue(any(DataBodyEntity.class));
+
+        ingestTracker.onDataLakePushed(new DataLakePushedEvent(testDataEnvelope.getDataHeader().getName(), true));
+
+        assertThat(server.getIngestTickets(Arrays.asList(ticket.getId(), "unknown")))
+                .extracting(IngestTicket::getStatus).containsExactly(IngestStatus.PUSHED);
+    }
+
+    @Test
+    public void shouldTrackAsyncEnvelopePushedBeforeItsPersistIsReported() {
+        // the relay may push the committed envelope before the ingest thread gets to report it persisted
+        doAnswer(invocation -> {
+            ingestTracker.onDataLakePushed(new DataLakePushedEvent(testDataEnvelope.getDataHeader().getName(), true));
+            return null;
+        }).when(dataLakeOutboxServiceMock).enqueue(any(DataBodyEntity.class));
+
+        IngestTicket ticket = server.saveDataEnvelopeAsync(testDataEnvelope, ChecksumAlgorithm.MD5);
+
+        assertThat(server.getIngestTicket(ticket.getId()).get().getStatus()).isEqualTo(IngestStatus.PUSHED);
+    }
+
+    @Test
+    public void shouldReportFailedAsyncEnvelope() {
+        doThrow(new DataIntegrityViolationException("duplicate")).when(dataBodyServiceImplMock).saveDataBody(any(DataBodyEntity.class));
+
+        IngestTicket ticket = server.saveDataEnvelopeAsync(testDataEnvelope, ChecksumAlgorithm.MD5);
+
+        IngestTicket tracked = server.getIngestTicket(ticket.getId()).get();
+        assertThat(tracked.getStatus()).isEqualTo(IngestStatus.FAILED);
+        assertThat(tracked.getReason()).isNotEmpty();
+    }
+
+    @Test
+    public void shouldNotQueueAsyncEnvelopeWithChecksumMismatch() {
+        DataEnvelope badChecksum = new DataEnvelope(new DataHeader("Bad", BlockTypeEnum.BLOCKTYPEA),
+                new DataBody(DUMMY_DATA, "00000000000000000000000000000000"));
+
+        assertThat(server.saveDataEnvelopeAsync(badChecksum, ChecksumAlgorithm.MD5)).isNull();
+        assertThat(ingestTracker.getTracked()).isZero();
+    }
+
+    @Test
+    public void shouldSaveDataEnvelopesAndReportChecksumMismatchPerItem() {
+        DataEnvelope badChecksum = new DataEnvelope(new DataHeader("Bad", BlockTypeEnum.BLOCKTYPEA),
+                new DataBody(DUMMY_DATA, "00000000000000000000000000000000"));
+
+        List<PushDataResult> results = server.saveDataEnvelopes(Arrays.asList(testDataEnvelope, badChecksum), ChecksumAlgorithm.MD5);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getStatus()).isEqualTo(PushDataStatus.PERSISTED);
+        assertThat(results.get(1).getStatus()).isEqualTo(PushDataStatus.CHECKSUM_MISMATCH);
+        verify(dataBodyServiceImplMock, times(1)).saveDataBodies(anyList());
+    }
+
+    @Test
+    public void shouldRetryIndividuallyWhenBatchSaveFails() {
+        doThrow(new DataIntegrityViolationException("duplicate")).when(dataBodyServiceImplMock).saveDataBodies(anyList());
+
+        List<PushDataResult> results = server.saveDataEnvelopes(Arrays.asList(testDataEnvelope), ChecksumAlgorithm.MD5);
+
+        assertThat(results.get(0).getStatus()).isEqualTo(PushDataStatus.PERSISTED);
+        verify(dataBodyServiceImplMock, times(1)).saveDataBody(any(DataBodyEntity.class));
+    }
+
+    @Test
+    public void shouldReportUnchangedUpsertsAndOnlyEnqueueWrittenOnes() {
+        DataEnvelope changed = new DataEnvelope(new DataHeader("Changed", BlockTypeEnum.BLOCKTYPEB),
+                new DataBody(DUMMY_DATA, testDataEnvelope.getDataBody().getCheckSum()));
+        when(dataBodyServiceImplMock.upsertDataBodies(anyList())).thenReturn(new boolean[]{false, true});
+
+        List<PushDataResult> results = server.upsertDataEnvelopes(Arrays.asList(testDataEnvelope, changed), ChecksumAlgorithm.MD5);
+
+        assertThat(results).extracting(PushDataResult::getStatus).containsExactly(PushDataStatus.UNCHANGED, PushDataStatus.PERSISTED);
+        ArgumentCaptor<List<DataBodyEntity>> enqueued = ArgumentCaptor.forClass(List.class);
+        verify(dataLakeOutboxServiceMock).enqueueAll(enqueued.capture());
+        assertThat(enqueued.getValue()).extracting(dataBody -> dataBody.getDataHeaderEntity().getName()).containsExactly("Changed");
+        verify(dataBodyServiceImplMock, never()).saveDataBodies(anyList());
+    }
+
+    @Test
+    public void shouldAcceptUnchangedUpsertWithoutEnqueueing() {
+        when(dataBodyServiceImplMock.upsertDataBodies(anyList())).thenReturn(new boolean[]{false});
+
+        assertThat(server.upsertDataEnvelope(testDataEnvelope, ChecksumAlgorithm.MD5)).isTrue();
+        verify(dataLakeOutboxServiceMock, never()).enqueueAll(anyList());
+    }
+
+    @Test
+    public void shouldSaveDataEnvelopeStreamInChunks() throws IOException {
+        ingestProperties.setStreamChunkSize(1);
+        DataEnvelope badChecksum = new DataEnvelope(new DataHeader("Bad", BlockTypeEnum.BLOCKTYPEA),
+                new DataBody(DUMMY_DATA, "00000000000000000000000000000000"));
+        String ndjson = objectMapper.writeValueAsString(testDataEnvelope) + "\n"
+                + "\n"
+                + "{not json\n"
+                + objectMapper.writeValueAsString(badChecksum) + "\n";
+
+        IngestSummary summary = server.saveDataEnvelopeStream(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ChecksumAlgorithm.MD5, null);
+
+        assertThat(summary.getAccepted()).isEqualTo(1);
+        assertThat(summary.getRejected()).isEqualTo(2);
+        verify(dataBodyServiceImplMock, times(1)).saveDataBodies(anyList());
+    }
+
+    @Test
+    public void shouldAdmitEveryChunkOfDataEnvelopeStream() throws IOException {
+        ingestProperties.setStreamChunkSize(2);
+        ingestProperties.setAdmissionEnabled(true);
+        ingestAdmission.setLimits(new AdmissionLimits(1, 3, 0, null));
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            ndjson.append(objectMapper.writeValueAsString(new DataEnvelope(new DataHeader("Stream-" + i, BlockTypeEnum.BLOCKTYPEA),
+                    testDataEnvelope.getDataBody()))).append('\n');
+        }
+
+        assertThatThrownBy(() -> server.saveDataEnvelopeStream(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)),
+                ChecksumAlgorithm.MD5, "feed-1"))
+                .isInstanceOf(AdmissionRejectedException.class);
+
+        // the first chunk was charged to the producer and written, the second was refused
+        verify(dataBodyServiceImplMock, times(1)).saveDataBodies(anyList());
+        assertThat(ingestAdmission.getRateLimited()).isEqualTo(1);
+        assertThat(ingestAdmission.getInFlight()).isZero();
+    }
+
+    @Test
+    public void shouldRejectOverLongStreamLineAndCarryOnAfterIt() throws IOException {
+        String envelopeLine = objectMapper.writeValueAsString(testDataEnvelope);
+        String otherLine = objectMapper.writeValueAsString(new DataEnvelope(new DataHeader("Other", BlockTypeEnum.BLOCKTYPEA),
+                testDataEnvelope.getDataBody()));
+        ingestProperties.setStreamMaxLineChars(Math.max(envelopeLine.length(), otherLine.length()));
+        StringBuilder ndjson = new StringBuilder(envelopeLine).append("\r\n");
+        for (int i = 0; i < 3; i++) {
+            ndjson.append(envelopeLine);
+        }
+        ndjson.append('\n').append(otherLine);
+
+        IngestSummary summary = server.saveDataEnvelopeStream(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), ChecksumAlgorithm.MD5, null);
+
+        assertThat(summary.getAccepted()).isEqualTo(2);
+        assertThat(summary.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldVerifyChecksumWithRequestedAlgorithm() {
+        DataEnvelope crc32cEnvelope = new DataEnvelope(new DataHeader("Crc", BlockTypeEnum.BLOCKTYPEA),
+                new DataBody(DUMMY_DATA, ChecksumAlgorithm.CRC32C.checksum(DUMMY_DATA)));
+
+        assertThat(server.saveDataEnvelope(crc32cEnvelope, ChecksumAlgorithm.CRC32C)).isTrue();
+        assertThat(server.saveDataEnvelope(crc32cEnvelope, ChecksumAlgorithm.MD5)).isFalse();
+    }
+
+    @Test
+    public void shouldCompleteWithNullWhenDataLakePushFails() {
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new HadoopClientException("Data lake responded with status 504"));
+        when(hadoopClientMock.pushBigDataAsync(DUMMY_DATA)).thenReturn(failed);
+
+        assertThat(server.pushDataToDataLakeAsync(DUMMY_DATA).join()).isNull();
+    }
+
+    @Test
+    public void shouldReturnKeysetPageWithNextCursor() {
+        when(dataBodyServiceImplMock.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA, 0L, 3))
+                .thenReturn(Arrays.asList(dataBodyProjection(1L), dataBodyProjection(2L), dataBodyProjection(3L)));
+
+        DataEnvelopePage page = server.getDataEnvelopePageByBlockType(BlockTypeEnum.BLOCKTYPEA, null, 2);
+
+        assertThat(page.getDataEnvelopes()).hasSize(2);
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldOmitNextCursorOnLastPage() {
+        when(dataBodyServiceImplMock.getDataByBlockType(BlockTypeEnum.BLOCKTYPEA, 2L, 3))
+                .thenReturn(Arrays.asList(dataBodyProjection(3L)));
+
+        DataEnvelopePage page = server.getDataEnvelopePageByBlockType(BlockTypeEnum.BLOCKTYPEA, 2L, 2);
+
+        assertThat(page.getDataEnvelopes()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void shouldPollSettledEnvelopesSinceTheWatermarkAndReturnTheNextOne() {
+        Instant created = Instant.parse("2026-10-18T09:00:00.000001Z");
+        Watermark since = new Watermark(created, 4L);
+        ArgumentCaptor<Instant> to = ArgumentCaptor.forClass(Instant.class);
+        when(dataBodyServiceImplMock.getDataByBlockTypeCreated(eq(BlockTypeEnum.BLOCKTYPEA), isNull(), to.capture(),
+                eq(created), eq(4L), eq(2)))
+                .thenReturn(Arrays.asList(dataBodyProjection(5L, created), dataBodyProjection(6L, created.plusSeconds(1))));
+
+        DataEnvelopePage page = server.getDataEnvelopePageByCreated(BlockTypeEnum.BLOCKTYPEA, null, null, since, 2);
+
+        assertThat(page.getDataEnvelopes()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getNextWatermark()).isEqualTo(new Watermark(created.plusSeconds(1), 6L));
+        assertThat(Watermark.valueOf(page.getNextWatermark().toString())).isEqualTo(page.getNextWatermark());
+        assertThat(to.getValue()).isLessThanOrEqualTo(Instant.now().minusMillis(new ReadProperties().getWatermarkSettleMillis()));
+    }
+
+    @Test
+    public void shouldKeepTheWatermarkWhenNothingNewWasCreated() {
+        Watermark since = Watermark.valueOf("1760778000000001-4");
+        Instant to = Instant.parse("2026-10-18T09:00:00Z");
+        when(dataBodyServiceImplMock.getDataByBlockTypeCreated(BlockTypeEnum.BLOCKTYPEA, null, to,
+                since.getCreatedTimestamp(), 4L, 500)).thenReturn(Collections.emptyList());
+
+        DataEnvelopePage page = server.getDataEnvelopePageByCreated(BlockTypeEnum.BLOCKTYPEA, null, to, since, null);
+
+        assertThat(page.getDataEnvelopes()).isEmpty();
+        assertThat(page.getNextWatermark()).isEqualTo(since);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldWriteEnvelopesAsOneJsonArray() throws IOException {
+        when(dataBodyServiceImplMock.forEachDataByBlockType(eq(BlockTypeEnum.BLOCKTYPEA), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<DataBodyProjection> action = invocation.getArgument(1);
+            action.accept(dataBodyProjection(1L));
+            action.accept(dataBodyProjection(2L));
+            return 2L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEA, out);
+
+        assertThat(written).isEqualTo(2);
+        DataEnvelope[] envelopes = objectMapper.readValue(out.toByteArray(), DataEnvelope[].class);
+        assertThat(envelopes).hasSize(2);
+        assertThat(envelopes[0].getDataBody().getDataBody()).isEqualTo(DUMMY_DATA);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldServeRepeatedWriteFromCacheUntilInvalidated() throws IOException {
+        when(dataBodyServiceImplMock.forEachDataByBlockType(eq(BlockTypeEnum.BLOCKTYPEA), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<DataBodyProjection> action = invocation.getArgument(1);
+            action.accept(dataBodyProjection(1L));
+            return 1L;
+        });
+        ByteArrayOutputStream cold = new ByteArrayOutputStream();
+        ByteArrayOutputStream warm = new ByteArrayOutputStream();
+
+        server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEA, cold);
+        long written = server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEA, warm);
+
+        assertThat(written).isEqualTo(1);
+        assertThat(warm.toByteArray()).isEqualTo(cold.toByteArray());
+        verify(dataBodyServiceImplMock, times(1)).forEachDataByBlockType(eq(BlockTypeEnum.BLOCKTYPEA), any(Consumer.class));
+
+        blockTypeResultCache.invalidate(BlockTypeEnum.BLOCKTYPEA);
+        server.writeDataEnvelopesByBlockType(BlockTypeEnum.BLOCKTYPEA, new ByteArrayOutputStream());
+
+        verify(dataBodyServiceImplMock, times(2)).forEachDataByBlockType(eq(BlockTypeEnum.BLOCKTYPEA), any(Consumer.class));
+    }
+
+    @Test
+    public void shouldUpdateBlockTypesByNamesInOneCall() {
+        List<String> names = Arrays.asList("first", "second");
+        when(dataBodyServiceImplMock.updateBlockTypes(names, BlockTypeEnum.BLOCKTYPEB)).thenReturn(2);
+
+        BlockTypeUpdateSummary summary = server.updateDataEnvelopes(new BlockTypeUpdate(names, null, BlockTypeEnum.BLOCKTYPEB));
+
+        assertThat(summary.getUpdated()).isEqualTo(2);
+        verify(dataBodyServiceImplMock, never()).updateBlockTypesByNamePrefix(any(), any());
+    }
+
+    private DataBodyProjection dataBodyProjection(Long id, Instant createdTimestamp) {
+        return new DataBodyProjection(id, testDataEnvelope.getDataHeader().getName(), testDataEnvelope.getDataHeader().getBlockType(),
+                ByteBuffer.wrap(testDataEnvelope.getDataBody().getDataBody().getBytes(StandardCharsets.UTF_8)),
+                testDataEnvelope.getDataBody().getCheckSum(), createdTimestamp);
+    }
+
+    private DataBodyProjection dataBodyProjection(Long id) {
+        return new DataBodyProjection(id, testDataEnvelope.getDataHeader().getName(), testDataEnvelope.getDataHeader().getBlockType(),
+                testDataEnvelope.getDataBody().getDataBody(), testDataEnvelope.getDataBody().getCheckSum());
+    }
 }